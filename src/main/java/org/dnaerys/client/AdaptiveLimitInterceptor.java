@@ -0,0 +1,107 @@
+package org.dnaerys.client;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies {@link AdaptiveLimiter} to outgoing calls: a slot is taken, by priority of the RPC method, when
+ * a call is created and released with a latency sample when it closes. Max of elapsed_db_ms over response
+ * messages (one per cluster node for streaming calls) is used as database side latency.
+ */
+public class AdaptiveLimitInterceptor implements ClientInterceptor {
+
+    private static final String ELAPSED_DB_MS = "elapsed_db_ms";
+
+    private final AdaptiveLimiter limiter;
+
+    public AdaptiveLimitInterceptor(AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        // slot is taken before the call is created, so that start neither blocks nor closes the call re-entrantly
+        RequestPriority priority = RequestPriority.of(method.getFullMethodName());
+        try {
+            if (!limiter.acquire(priority)) {
+                return new RejectedCall<>(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many requests in flight to Dnaerys cluster (limit " + limiter.limit() + ")"),
+                    callOptions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new RejectedCall<>(Status.CANCELLED.withDescription("Interrupted while waiting for in-flight slot"),
+                callOptions);
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            private final AtomicBoolean acquired = new AtomicBoolean(true);
+            private volatile boolean begun;
+            private long started;
+            private volatile long dbMs;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                begun = true;
+                started = System.nanoTime();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onMessage(RespT message) {
+                        dbMs = Math.max(dbMs, elapsedDbMs(message));
+                        super.onMessage(message);
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (acquired.compareAndSet(true, false)) {
+                            if (status.isOk() || overloaded(status)) {
+                                limiter.release(method.getFullMethodName(), System.nanoTime() - started, dbMs, !status.isOk());
+                            } else {
+                                limiter.release();
+                            }
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+
+            // cancelled before start: there will be no close to release the slot on
+            @Override
+            public void cancel(String message, Throwable cause) {
+                if (!begun && acquired.compareAndSet(true, false)) {
+                    limiter.release();
+                }
+                super.cancel(message, cause);
+            }
+        };
+    }
+
+    private static boolean overloaded(Status status) {
+        return switch (status.getCode()) {
+            case UNAVAILABLE, RESOURCE_EXHAUSTED, DEADLINE_EXCEEDED -> true;
+            default -> false;
+        };
+    }
+
+    // all Dnaerys responses carry elapsed_db_ms, under different field numbers
+    static long elapsedDbMs(Object message) {
+        if (message instanceof Message m) {
+            Descriptors.FieldDescriptor field = m.getDescriptorForType().findFieldByName(ELAPSED_DB_MS);
+            if (field != null) {
+                return (Long) m.getField(field);
+            }
+        }
+        return 0;
+    }
+}
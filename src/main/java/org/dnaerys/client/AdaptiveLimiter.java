@@ -0,0 +1,221 @@
+package org.dnaerys.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit of in-flight requests to Dnaerys cluster.
+ * <p>
+ * Gradient style: for every completed request, latency is compared against a slowly moving baseline
+ * kept per RPC method. While recent latency stays within 'tolerance' x baseline, limit grows by ~sqrt(limit)
+ * per sample (only when limit is actually in use); as latency grows beyond that, limit is scaled down by
+ * baseline / latency ratio. Both client observed latency and elapsed_db_ms reported by the cluster are
+ * tracked, the worse of the two gradients wins. Requests which fail due to overload (UNAVAILABLE,
+ * RESOURCE_EXHAUSTED, DEADLINE_EXCEEDED) cut the limit multiplicatively.
+ * <p>
+ * When the limit is reached, freed slots are granted by {@link RequestPriority}, so counts and dataset info
+ * go ahead of large selections and cohort wide scans. Waiting requests are promoted by one priority level
+ * per 'aging' interval, so heavy requests are delayed but never starved.
+ */
+public class AdaptiveLimiter {
+
+    private static final double SHORT_ALPHA = 0.2;
+    private static final double LONG_ALPHA = 0.005;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long maxWaitMs;
+    private final long agingNanos;
+
+    // each waiter parks on its own condition of the lock, so that a released slot goes to the waiter
+    // picked by dispatch rather than to whichever thread wakes first
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final Map<String, Baseline> baselines = new HashMap<>();
+    private double limit;
+    private int inFlight;
+
+    // exponentially weighted short and long term latency of a method, for client and db side
+    private static class Baseline {
+        final Ewma rtt = new Ewma();
+        final Ewma db = new Ewma();
+    }
+
+    private class Waiter {
+        final RequestPriority priority;
+        final long enqueued = System.nanoTime();
+        final Condition granted = lock.newCondition();
+        boolean admitted;
+
+        Waiter(RequestPriority priority) {
+            this.priority = priority;
+        }
+
+        // lower is served first
+        long rank(long now) {
+            return priority.ordinal() - (now - enqueued) / agingNanos;
+        }
+    }
+
+    private static class Ewma {
+        double shortTerm;
+        double longTerm;
+
+        // returns gradient: 1.0 when latency is within tolerance of baseline, down to 0.5 when worse
+        double update(double sample, double tolerance) {
+            if (longTerm == 0) {
+                shortTerm = sample;
+                longTerm = sample;
+                return 1.0;
+            }
+            shortTerm += SHORT_ALPHA * (sample - shortTerm);
+            longTerm += LONG_ALPHA * (sample - longTerm);
+            // latency has improved a lot (e.g. after a load spike), let baseline catch up faster
+            if (longTerm / shortTerm > 2) {
+                longTerm *= 0.95;
+            }
+            return Math.max(0.5, Math.min(1.0, tolerance * longTerm / shortTerm));
+        }
+    }
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, long maxWaitMs, long agingMs) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.maxWaitMs = maxWaitMs;
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, agingMs));
+    }
+
+    public boolean acquire() throws InterruptedException {
+        return acquire(RequestPriority.SELECT);
+    }
+
+    /**
+     * Waits for an in-flight slot.
+     *
+     * @return false if no slot became available within max wait time
+     */
+    public boolean acquire(RequestPriority priority) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            Waiter w = new Waiter(priority);
+            waiters.add(w);
+            long nanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            try {
+                while (!w.admitted) {
+                    if (nanos <= 0) {
+                        waiters.remove(w);
+                        return false;
+                    }
+                    nanos = w.granted.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                if (w.admitted) {
+                    // slot was granted concurrently, pass it on
+                    inFlight--;
+                    dispatch();
+                } else {
+                    waiters.remove(w);
+                }
+                throw e;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // grants free slots to waiters in order of aged priority, FIFO within same rank
+    private void dispatch() {
+        long now = System.nanoTime();
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            Waiter next = waiters.getFirst();
+            for (Waiter w : waiters) {
+                if (w.rank(now) < next.rank(now)) {
+                    next = w;
+                }
+            }
+            waiters.remove(next);
+            next.admitted = true;
+            inFlight++;
+            next.granted.signal();
+        }
+    }
+
+    /**
+     * Releases a slot taken by {@link #acquire()} and adjusts the limit.
+     *
+     * @param method     full RPC method name
+     * @param rttNanos   client observed latency
+     * @param dbMs       elapsed_db_ms reported by the cluster, 0 if not reported
+     * @param overloaded request failed due to cluster or network overload
+     */
+    public void release(String method, long rttNanos, long dbMs, boolean overloaded) {
+        lock.lock();
+        try {
+            // limit is considered in use when at least half of it was taken
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            if (overloaded) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else if (rttNanos > 0) {
+                Baseline b = baselines.computeIfAbsent(method, k -> new Baseline());
+                double gradient = b.rtt.update(rttNanos, tolerance);
+                if (dbMs > 0) {
+                    gradient = Math.min(gradient, b.db.update(dbMs, tolerance));
+                }
+                double newLimit = limit * gradient + (saturated ? Math.sqrt(limit) : 0);
+                limit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+                limit = Math.max(minLimit, Math.min(maxLimit, limit));
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // releases a slot without taking a latency sample, e.g. for cancelled or invalid requests
+    public void release() {
+        release(null, 0, 0, false);
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
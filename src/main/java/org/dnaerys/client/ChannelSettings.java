@@ -0,0 +1,115 @@
+package org.dnaerys.client;
+
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.AbstractStub;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport settings of the channel to Dnaerys cluster, read from dnaerys.properties.
+ *
+ * <pre>
+ * grpc.compression=gzip              compression of requests, also advertised for responses; default identity
+ * grpc.codec=org.example.ZstdCodec   additional io.grpc.Codec implementation, selectable by its message encoding
+ * grpc.maxInboundMessageSize=4194304 max size of a single response message, bytes
+ * grpc.flowControlWindow=0           HTTP/2 flow control window, bytes; 0 keeps automatic window tuning
+ * grpc.keepAliveTimeMs=300000        HTTP/2 ping interval, keeps connection alive through NATs and proxies; 0 disables
+ * grpc.keepAliveTimeoutMs=20000      connection is considered dead if ping is not acknowledged within timeout
+ * grpc.keepAliveWithoutCalls=false   ping idle connections too; server must permit it, or it closes connection
+ * grpc.idleTimeoutMs=1800000         channel releases connection after being idle for this long
+ * </pre>
+ *
+ * Responses are compressed at cluster's discretion among encodings the channel advertises,
+ * so on slow links enabling compression on the cluster side matters more than for requests.
+ */
+public class ChannelSettings {
+
+    public static final String IDENTITY = "identity";
+
+    private final String compression;
+    private final Codec codec;
+    private final int maxInboundMessageSize;
+    private final int flowControlWindow;
+    private final long keepAliveTimeMs;
+    private final long keepAliveTimeoutMs;
+    private final boolean keepAliveWithoutCalls;
+    private final long idleTimeoutMs;
+
+    public ChannelSettings(String compression, Codec codec, int maxInboundMessageSize, int flowControlWindow) {
+        this(compression, codec, maxInboundMessageSize, flowControlWindow, 0, 20_000, false, 30 * 60_000);
+    }
+
+    public ChannelSettings(String compression, Codec codec, int maxInboundMessageSize, int flowControlWindow,
+                           long keepAliveTimeMs, long keepAliveTimeoutMs, boolean keepAliveWithoutCalls, long idleTimeoutMs) {
+        this.compression = compression;
+        this.codec = codec;
+        this.maxInboundMessageSize = maxInboundMessageSize;
+        this.flowControlWindow = flowControlWindow;
+        this.keepAliveTimeMs = keepAliveTimeMs;
+        this.keepAliveTimeoutMs = keepAliveTimeoutMs;
+        this.keepAliveWithoutCalls = keepAliveWithoutCalls;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    static ChannelSettings fromConfig() {
+        return new ChannelSettings(
+            ReadConfig.getString("grpc.compression", IDENTITY).trim(),
+            loadCodec(ReadConfig.getString("grpc.codec", null)),
+            ReadConfig.getInt("grpc.maxInboundMessageSize", 4 * 1024 * 1024),
+            ReadConfig.getInt("grpc.flowControlWindow", 0),
+            // 5 min is the minimum ping interval gRPC servers permit by default
+            ReadConfig.getLong("grpc.keepAliveTimeMs", 5 * 60_000),
+            ReadConfig.getLong("grpc.keepAliveTimeoutMs", 20_000),
+            ReadConfig.getBoolean("grpc.keepAliveWithoutCalls", false),
+            ReadConfig.getLong("grpc.idleTimeoutMs", 30 * 60_000));
+    }
+
+    private static Codec loadCodec(String className) {
+        if (className == null || className.isBlank()) {
+            return null;
+        }
+        try {
+            return (Codec) Class.forName(className.trim()).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            System.err.println("Invalid codec in config: " + className + ". Falling back to default codecs");
+            return null;
+        }
+    }
+
+    public ManagedChannelBuilder<?> apply(ManagedChannelBuilder<?> builder) {
+        CompressorRegistry compressors = CompressorRegistry.getDefaultInstance();
+        DecompressorRegistry decompressors = DecompressorRegistry.getDefaultInstance();
+        if (codec != null) {
+            compressors = CompressorRegistry.newEmptyInstance();
+            compressors.register(new Codec.Gzip());
+            compressors.register(codec);
+            decompressors = decompressors.with(codec, true);
+        }
+        builder.compressorRegistry(compressors)
+               .decompressorRegistry(decompressors)
+               .maxInboundMessageSize(maxInboundMessageSize)
+               .idleTimeout(idleTimeoutMs, TimeUnit.MILLISECONDS);
+        if (keepAliveTimeMs > 0) {
+            builder.keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+                   .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
+                   .keepAliveWithoutCalls(keepAliveWithoutCalls);
+        }
+        if (flowControlWindow > 0 && builder instanceof NettyChannelBuilder netty) {
+            netty.flowControlWindow(flowControlWindow);
+        }
+        return builder;
+    }
+
+    // per-call compression of outgoing messages
+    public <S extends AbstractStub<S>> S apply(S stub) {
+        return compression.isEmpty() || compression.equals(IDENTITY) ? stub : stub.withCompression(compression);
+    }
+
+    public String compression() {
+        return compression;
+    }
+}
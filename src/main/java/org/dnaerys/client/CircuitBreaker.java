@@ -0,0 +1,173 @@
+package org.dnaerys.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker of calls to Dnaerys cluster.
+ * <p>
+ * Closed: outcomes of the last 'window' calls are kept; breaker opens when at least 'minCalls' of them
+ * are recorded and the share of failures reaches 'failureRate', or when 'incompleteStreak' calls in a row
+ * were answered by an incomplete cluster (some nodes unreachable).
+ * Open: calls fail fast for 'openMs', without reaching the cluster.
+ * Half-open: up to 'halfOpenCalls' trial calls are let through; breaker closes when all of them succeed
+ * with a complete cluster, and opens again on the first failure or incomplete response.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public enum Outcome {
+        SUCCESS,
+        FAILURE,
+        INCOMPLETE,
+        // neither success nor failure of the cluster, e.g. invalid argument or call cancelled by client
+        IGNORED
+    }
+
+    private final boolean enabled;
+    private final int minCalls;
+    private final double failureRate;
+    private final int incompleteStreakLimit;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int incompleteStreak;
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int trials;
+    private int trialSuccesses;
+    private String reason = "";
+
+    public CircuitBreaker(boolean enabled, int window, int minCalls, double failureRate, int incompleteStreak,
+                          long openMs, int halfOpenCalls) {
+        this.enabled = enabled;
+        this.window = new boolean[Math.max(1, window)];
+        this.minCalls = Math.max(1, Math.min(minCalls, this.window.length));
+        this.failureRate = failureRate;
+        this.incompleteStreakLimit = incompleteStreak;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    /**
+     * @return true if a call may proceed; when true, outcome of the call must be recorded
+     */
+    public boolean allow() {
+        if (!enabled) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openUntil < 0) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trials = 0;
+                trialSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trials >= halfOpenCalls) {
+                    return false;
+                }
+                trials++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void record(Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            switch (state) {
+                case HALF_OPEN -> {
+                    switch (outcome) {
+                        case SUCCESS -> {
+                            if (++trialSuccesses >= halfOpenCalls) {
+                                close();
+                            }
+                        }
+                        case FAILURE -> open("trial call failed");
+                        case INCOMPLETE -> open("cluster is still incomplete");
+                        case IGNORED -> trials--;
+                    }
+                }
+                case CLOSED -> {
+                    if (outcome == Outcome.IGNORED) {
+                        return;
+                    }
+                    boolean failed = outcome == Outcome.FAILURE;
+                    if (recorded == window.length) {
+                        if (window[next]) failures--;
+                    } else {
+                        recorded++;
+                    }
+                    window[next] = failed;
+                    next = (next + 1) % window.length;
+                    if (failed) failures++;
+                    incompleteStreak = outcome == Outcome.INCOMPLETE ? incompleteStreak + 1 : 0;
+
+                    if (recorded >= minCalls && failures >= failureRate * recorded) {
+                        open(failures + " of last " + recorded + " calls failed");
+                    } else if (incompleteStreakLimit > 0 && incompleteStreak >= incompleteStreakLimit) {
+                        open(incompleteStreak + " responses in a row from incomplete cluster");
+                    }
+                }
+                // late outcomes of calls admitted before breaker opened
+                case OPEN -> {}
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open(String why) {
+        state = State.OPEN;
+        openUntil = System.nanoTime() + openNanos;
+        reason = why;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        incompleteStreak = 0;
+        reason = "";
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // why breaker opened and when it lets trial calls through
+    public String describe() {
+        lock.lock();
+        try {
+            long retryMs = Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntil - System.nanoTime()));
+            return switch (state) {
+                case CLOSED -> "closed";
+                case OPEN -> "open: " + reason + ", retry in " + retryMs + " ms";
+                case HALF_OPEN -> "half-open: " + reason + ", trial calls in progress";
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.dnaerys.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Context;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * Applies {@link CircuitBreaker} to outgoing calls and reports their outcome, including completeness of
+ * the cluster, to {@link ClusterStatus} of the calling scope. Calls rejected by an open breaker fail
+ * fast with UNAVAILABLE.
+ */
+public class CircuitBreakerInterceptor implements ClientInterceptor {
+
+    private final CircuitBreaker breaker;
+
+    public CircuitBreakerInterceptor(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        // captured on the calling thread, listener callbacks may run elsewhere
+        ClusterStatus status = ClusterStatus.current();
+        Context context = Context.current();
+        // decided before the downstream call is created, so that a rejected call does not wait for an in-flight slot
+        if (!breaker.allow()) {
+            Status rejected = Status.UNAVAILABLE
+                .withDescription("Dnaerys cluster circuit breaker is " + breaker.describe());
+            if (status != null) {
+                status.failed(rejected);
+            }
+            return new RejectedCall<>(rejected, callOptions);
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            private volatile boolean started;
+            private volatile boolean incomplete;
+            private volatile boolean cancelled;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                started = true;
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onMessage(RespT message) {
+                        if (ClusterStatus.incomplete(message)) {
+                            incomplete = true;
+                            if (status != null) {
+                                status.incomplete(ClusterStatus.affected(message));
+                            }
+                        }
+                        super.onMessage(message);
+                    }
+
+                    @Override
+                    public void onClose(Status closed, Metadata trailers) {
+                        breaker.record(outcome(closed, incomplete));
+                        // cancelled by the caller, e.g. a stream read up to a limit, is not a failure of the cluster
+                        boolean cancelledHere = closed.getCode() == Status.Code.CANCELLED
+                            && (cancelled || context.isCancelled());
+                        if (!closed.isOk() && !cancelledHere && status != null) {
+                            status.failed(closed);
+                        }
+                        super.onClose(closed, trailers);
+                    }
+                }, headers);
+            }
+
+            @Override
+            public void cancel(String message, Throwable cause) {
+                // cancelled before start: no close follows, so the call let through by allow() is given back
+                if (!started && !cancelled) {
+                    breaker.record(CircuitBreaker.Outcome.IGNORED);
+                }
+                cancelled = true;
+                super.cancel(message, cause);
+            }
+        };
+    }
+
+    static CircuitBreaker.Outcome outcome(Status status, boolean incomplete) {
+        return switch (status.getCode()) {
+            case OK -> incomplete ? CircuitBreaker.Outcome.INCOMPLETE : CircuitBreaker.Outcome.SUCCESS;
+            case UNAVAILABLE, DEADLINE_EXCEEDED, INTERNAL, UNKNOWN, DATA_LOSS -> CircuitBreaker.Outcome.FAILURE;
+            // RESOURCE_EXHAUSTED is raised locally by AdaptiveLimiter as well, overload is its concern
+            default -> CircuitBreaker.Outcome.IGNORED;
+        };
+    }
+}
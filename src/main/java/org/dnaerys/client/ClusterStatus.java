@@ -0,0 +1,80 @@
+package org.dnaerys.client;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import io.grpc.Context;
+import io.grpc.Status;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Completeness of cluster responses received within a scope, e.g. a single tool call, and the first
+ * failed call if any. Responses from an incomplete cluster (some nodes unreachable) carry incomplete_cluster,
+ * and most of them also carry affected, which tells whether unreachable nodes could change the result.
+ * <pre>
+ * ClusterStatus status = new ClusterStatus();
+ * long count = status.run(() -> client.countVariantsInRegion(...));
+ * if (status.affected()) ...
+ * </pre>
+ * Calls are tracked by {@link CircuitBreakerInterceptor} through gRPC Context of the calling thread.
+ */
+public class ClusterStatus {
+
+    static final Context.Key<ClusterStatus> KEY = Context.key("dnaerys-cluster-status");
+
+    private static final String INCOMPLETE_CLUSTER = "incomplete_cluster";
+    private static final String AFFECTED = "affected";
+
+    private volatile boolean incomplete;
+    private volatile boolean affected;
+    private volatile Status failure;
+
+    public <T> T run(Callable<T> call) throws Exception {
+        return Context.current().withValue(KEY, this).call(call);
+    }
+
+    // status of the current scope, or null outside of run()
+    static ClusterStatus current() {
+        return KEY.get();
+    }
+
+    static boolean incomplete(Object message) {
+        return message instanceof Message m && flag(m, INCOMPLETE_CLUSTER, false);
+    }
+
+    // responses without 'affected' (PRS, kinship, ...) are aggregates over all nodes
+    static boolean affected(Object message) {
+        return message instanceof Message m && flag(m, AFFECTED, true);
+    }
+
+    private static boolean flag(Message m, String name, boolean absent) {
+        Descriptors.FieldDescriptor field = m.getDescriptorForType().findFieldByName(name);
+        return field == null ? absent : (Boolean) m.getField(field);
+    }
+
+    void incomplete(boolean affected) {
+        this.incomplete = true;
+        if (affected) {
+            this.affected = true;
+        }
+    }
+
+    void failed(Status status) {
+        if (failure == null) {
+            failure = status;
+        }
+    }
+
+    public boolean incomplete() {
+        return incomplete;
+    }
+
+    public boolean affected() {
+        return affected;
+    }
+
+    // first failed call, null if all succeeded
+    public Status failure() {
+        return failure;
+    }
+}
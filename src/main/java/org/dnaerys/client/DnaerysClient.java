@@ -16,11 +16,23 @@
 
 package org.dnaerys.client;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.grpc.Context;
 import org.dnaerys.cluster.grpc.*;
 import org.dnaerys.client.entity.*;
 
@@ -28,9 +40,73 @@ public class DnaerysClient {
 
     final Integer MAX_RETURNED_ITEMS = 100;
 
+    // requests in flight at once for a tool call split into parts: chromosomes, chunks of samples, cohorts
+    private static final int SCAN_PARALLELISM = Math.max(1, ReadConfig.getInt("scan.parallelism", 4));
+    // samples per PRS request, when scores are asked for a list of samples
+    private static final int PRS_CHUNK_SIZE = Math.max(1, ReadConfig.getInt("prs.chunkSize", 500));
+
+    // relatedness of pairs computed so far, shared by all sessions
+    private static final KinshipCache kinshipCache = new KinshipCache(ReadConfig.getInt("kinship.cacheSize", 100_000));
+
+    // named sample sets of MCP sessions, over samples of the dataset interned on first use
+    private static final SampleSets sampleSets = new SampleSets(ReadConfig.getInt("sampleSets.maxSessions", 1024),
+                                                                ReadConfig.getInt("sampleSets.maxPerSession", 32));
+    private static final ReentrantLock sampleIndexLock = new ReentrantLock();
+    private static SampleIndex sampleIndex;
+
+    // filter arguments of a tool call, as given
+    private record AnnotationsKey(Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype,
+                   String feature, String variantType, String consequences, String alphaMissense, String clinSignificance,
+                   Boolean biallelicOnly) {}
+
+    // Agents tend to repeat the same filters across calls (e.g. paging, region by region), so built
+    // Annotations are kept in a small LRU shared by all sessions; they are immutable.
+    private static final int ANNOTATIONS_CACHE_SIZE = ReadConfig.getInt("annotations.cacheSize", 256);
+    private static final ReentrantLock annotationsLock = new ReentrantLock();
+    private static final Map<AnnotationsKey, Annotations> annotationsCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AnnotationsKey, Annotations> eldest) {
+            return size() > ANNOTATIONS_CACHE_SIZE;
+        }
+    };
+
     Annotations composeAnnotations(Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype,
                    String feature, String variantType, String consequences, String alphaMissense, String clinSignificance,
                    Boolean biallelicOnly) {
+        AnnotationsKey key = new AnnotationsKey(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+            variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+        annotationsLock.lock();
+        try {
+            Annotations cached = annotationsCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            annotationsLock.unlock();
+        }
+        // built outside of the lock; concurrent misses for the same key build equal instances
+        Annotations annotations = buildAnnotations(key);
+        annotationsLock.lock();
+        try {
+            annotationsCache.put(key, annotations);
+        } finally {
+            annotationsLock.unlock();
+        }
+        return annotations;
+    }
+
+    private static Annotations buildAnnotations(AnnotationsKey key) {
+        Float gnomadAfLessThan = key.gnomadAfLessThan();
+        Float gnomadAfGreaterThan = key.gnomadAfGreaterThan();
+        String impact = key.impact();
+        String biotype = key.biotype();
+        String feature = key.feature();
+        String variantType = key.variantType();
+        String consequences = key.consequences();
+        String alphaMissense = key.alphaMissense();
+        String clinSignificance = key.clinSignificance();
+        Boolean biallelicOnly = key.biallelicOnly();
+
         Annotations.Builder builder = Annotations.newBuilder();
 
         if (gnomadAfLessThan != null && gnomadAfLessThan > 0) {
@@ -452,10 +528,8 @@ public class DnaerysClient {
                 variants.addAll(response.next().getAllelesList());
             }
 
-            Gson gson = new Gson();
-
             for (Variant allele : variants) {
-                alleles.add(gson.toJson(allele));
+                alleles.add(VariantEncoder.toJson(allele));
             }
         } catch (Throwable th) {
             th.printStackTrace();
@@ -529,9 +603,8 @@ public class DnaerysClient {
                 variants.addAll(response.next().getAllelesList());
             }
 
-            Gson gson = new Gson();
             for (Variant allele : variants) {
-                alleles.add(gson.toJson(allele));
+                alleles.add(VariantEncoder.toJson(allele));
             }
         } catch (Throwable th) {
             th.printStackTrace();
@@ -545,12 +618,13 @@ public class DnaerysClient {
         return alleles;
     }
 
-    public long countSamplesInRegion(String chromosome, int start, int end, boolean selectHom, boolean selectHet,
+    public long countVariantsInBracket(String chromosome, int startMin, int startMax, int endMin,
+                   int endMax, boolean selectHom, boolean selectHet,
                    String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
                    Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
                    String variantType, String consequences, String alphaMissense, String clinSignificance) {
-        if (start < 0) return 0L;
-        if (end < start) return 0L;
+        if (startMin < 0 || endMin < 0) return 0L;
+        if (startMax < startMin || endMax < endMin || endMax < startMin) return 0L;
 
         RefAssembly assembly = RefAssembly.GRCh38;
         Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
@@ -562,7 +636,7 @@ public class DnaerysClient {
         Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
         Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
 
-        if (variantMaxLength < variantMinLength) { // fall back to defaults
+        if (variantMaxLength < variantMinLength ) { // fall back to defaults
             variantMinLength = 0;
             variantMaxLength = Integer.MAX_VALUE;
         }
@@ -573,13 +647,15 @@ public class DnaerysClient {
         try {
             GrpcChannel channel = GrpcChannel.getInstance();
 
-            SamplesInRegionRequest request =
-                SamplesInRegionRequest
+            CountAllelesInBracketRequest request =
+                CountAllelesInBracketRequest
                     .newBuilder()
                     .setAssembly(assembly)
                     .setChr(chr)
-                    .setStart(start)
-                    .setEnd(end)
+                    .setStartMin(startMin)
+                    .setStartMax(startMax)
+                    .setEndMin(endMin)
+                    .setEndMax(endMax)
                     .setAlt(alternateBases)
                     .setRef(referenceBases)
                     .setVariantMinLength(variantMinLength)
@@ -589,32 +665,36 @@ public class DnaerysClient {
                     .setAnn(annotations)
                     .build();
 
-            return channel.getBlockingStub().countSamplesInRegion(request).getCount();
+            return channel.getBlockingStub().countVariantsInBracket(request).getCount();
+
         } catch (Throwable th) {
             th.printStackTrace();
             Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
         }
+
         return 0L; // default
     }
 
-    public List<String> selectSamplesInRegion(String chromosome, int start, int end, boolean selectHom, boolean selectHet,
-                           String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
-                           Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
-                           String variantType, String consequences, String alphaMissense, String clinSignificance) {
-        if (start < 0) return List.of("{}");
-        if (end < start) return List.of("{}");
+    public long countVariantsInBracketInSample(String chromosome, int startMin, int startMax, int endMin,
+                   int endMax, String sample, boolean selectHom,
+                   boolean selectHet, String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength,
+                   Boolean biallelicOnly, Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype,
+                   String feature, String variantType, String consequences, String alphaMissense, String clinSignificance) {
+        if (startMin < 0 || endMin < 0) return 0L;
+        if (startMax < startMin || endMax < endMin || endMax < startMin) return 0L;
+        if (sample == null || sample.isEmpty()) return 0L;
 
         RefAssembly assembly = RefAssembly.GRCh38;
         Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
 
-        if (chr.equals(Chromosome.UNRECOGNIZED)) return List.of("{}");
+        if (chr.equals(Chromosome.UNRECOGNIZED)) return 0L;
 
         String referenceBases = refAllele == null ? "" : refAllele;
         String alternateBases = altAllele == null ? "" : altAllele;
         Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
         Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
 
-        if (variantMaxLength < variantMinLength) { // fall back to defaults
+        if (variantMaxLength < variantMinLength ) { // fall back to defaults
             variantMinLength = 0;
             variantMaxLength = Integer.MAX_VALUE;
         }
@@ -625,13 +705,16 @@ public class DnaerysClient {
         try {
             GrpcChannel channel = GrpcChannel.getInstance();
 
-            SamplesInRegionRequest request =
-                SamplesInRegionRequest
+            CountAllelesInBracketInSamplesRequest request =
+                CountAllelesInBracketInSamplesRequest
                     .newBuilder()
                     .setAssembly(assembly)
                     .setChr(chr)
-                    .setStart(start)
-                    .setEnd(end)
+                    .setStartMin(startMin)
+                    .setStartMax(startMax)
+                    .setEndMin(endMin)
+                    .setEndMax(endMax)
+                    .addSamples(sample)
                     .setAlt(alternateBases)
                     .setRef(referenceBases)
                     .setVariantMinLength(variantMinLength)
@@ -641,28 +724,24 @@ public class DnaerysClient {
                     .setAnn(annotations)
                     .build();
 
-            List<String> samples = new ArrayList<>();
-            samples.addAll(channel.getBlockingStub().selectSamplesInRegion(request).getSamplesList());
-            return samples;
+            return channel.getBlockingStub().countVariantsInBracketInSamples(request).getCount();
+
         } catch (Throwable th) {
             th.printStackTrace();
             Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
         }
 
-        return List.of("{}"); // default
+        return 0L; // default
     }
 
-    public List<String> selectDeNovo(String parent1, String parent2, String proband, String chromosome, int start, int end,
+    public List<String> selectVariantsInBracket(String chromosome, int startMin, int startMax, int endMin,
+                           int endMax, boolean selectHom, boolean selectHet,
                            String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
                            Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
                            String variantType, String consequences, String alphaMissense, String clinSignificance, Integer skip,
                            Integer limit) {
-        if (parent1 == null || parent1.isEmpty()) return List.of("{}");
-        if (parent2 == null || parent2.isEmpty()) return List.of("{}");
-        if (proband == null || proband.isEmpty()) return List.of("{}");
-
-        if (start < 0) return List.of("{}");
-        if (end < start) return List.of("{}");
+        if (startMin < 0 || endMin < 0) return List.of("{}");
+        if (startMax < startMin || endMax < endMin || endMax < startMin) return List.of("{}");
 
         if (skip == null || skip < 0) skip = 0;
         if (limit == null || limit < 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
@@ -691,33 +770,33 @@ public class DnaerysClient {
         try {
             GrpcChannel channel = GrpcChannel.getInstance();
 
-            DeNovoRequest request =
-                DeNovoRequest
+            AllelesInBracketRequest request =
+                AllelesInBracketRequest
                     .newBuilder()
-                    .setParent1(parent1)
-                    .setParent2(parent2)
-                    .setProband(proband)
                     .setAssembly(assembly)
                     .setChr(chr)
-                    .setStart(start)
-                    .setEnd(end)
+                    .setStartMin(startMin)
+                    .setStartMax(startMax)
+                    .setEndMin(endMin)
+                    .setEndMax(endMax)
                     .setAlt(alternateBases)
                     .setRef(referenceBases)
                     .setVariantMinLength(variantMinLength)
                     .setVariantMaxLength(variantMaxLength)
+                    .setHom(selectHom)
+                    .setHet(selectHet)
                     .setAnn(annotations)
                     .setLimit(limit)
                     .setSkip(skip)
                     .build();
 
-            Iterator<AllelesResponse> response = channel.getBlockingStub().selectDeNovo(request);
+            Iterator<AllelesResponse> response = channel.getBlockingStub().selectVariantsInBracket(request);
             while (response.hasNext()) {
                 variants.addAll(response.next().getAllelesList());
             }
 
-            Gson gson = new Gson();
             for (Variant allele : variants) {
-                alleles.add(gson.toJson(allele));
+                alleles.add(VariantEncoder.toJson(allele));
             }
         } catch (Throwable th) {
             th.printStackTrace();
@@ -731,17 +810,15 @@ public class DnaerysClient {
         return alleles;
     }
 
-    public List<String> selectHetDominant(String affectedParent, String unaffectedParent, String proband, String chromosome,
-                           int start, int end, String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength,
+    public List<String> selectVariantsInBracketInSample(String chromosome, int startMin, int startMax, int endMin,
+                           int endMax, String sample, boolean selectHom,
+                           boolean selectHet, String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength,
                            Boolean biallelicOnly, Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype,
                            String feature, String variantType, String consequences, String alphaMissense, String clinSignificance,
                            Integer skip, Integer limit) {
-        if (affectedParent == null || affectedParent.isEmpty()) return List.of("{}");
-        if (unaffectedParent == null || unaffectedParent.isEmpty()) return List.of("{}");
-        if (proband == null || proband.isEmpty()) return List.of("{}");
-
-        if (start < 0) return List.of("{}");
-        if (end < start) return List.of("{}");
+        if (startMin < 0 || endMin < 0) return List.of("{}");
+        if (startMax < startMin || endMax < endMin || endMax < startMin) return List.of("{}");
+        if (sample == null || sample.isEmpty()) return List.of("{}");
 
         if (skip == null || skip < 0) skip = 0;
         if (limit == null || limit < 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
@@ -770,33 +847,34 @@ public class DnaerysClient {
         try {
             GrpcChannel channel = GrpcChannel.getInstance();
 
-            HetDominantRequest request =
-                HetDominantRequest
+            AllelesInBracketInSamplesRequest request =
+                AllelesInBracketInSamplesRequest
                     .newBuilder()
-                    .setAffectedParent(affectedParent)
-                    .setUnaffectedParent(unaffectedParent)
-                    .setAffectedChild(proband)
                     .setAssembly(assembly)
                     .setChr(chr)
-                    .setStart(start)
-                    .setEnd(end)
+                    .setStartMin(startMin)
+                    .setStartMax(startMax)
+                    .setEndMin(endMin)
+                    .setEndMax(endMax)
+                    .addSamples(sample)
                     .setAlt(alternateBases)
                     .setRef(referenceBases)
                     .setVariantMinLength(variantMinLength)
                     .setVariantMaxLength(variantMaxLength)
+                    .setHom(selectHom)
+                    .setHet(selectHet)
                     .setAnn(annotations)
                     .setLimit(limit)
                     .setSkip(skip)
                     .build();
 
-            Iterator<AllelesResponse> response = channel.getBlockingStub().selectHetDominant(request);
+            Iterator<AllelesResponse> response = channel.getBlockingStub().selectVariantsInBracketInSamples(request);
             while (response.hasNext()) {
                 variants.addAll(response.next().getAllelesList());
             }
 
-            Gson gson = new Gson();
             for (Variant allele : variants) {
-                alleles.add(gson.toJson(allele));
+                alleles.add(VariantEncoder.toJson(allele));
             }
         } catch (Throwable th) {
             th.printStackTrace();
@@ -810,20 +888,77 @@ public class DnaerysClient {
         return alleles;
     }
 
-    public List<String> selectHomRecessive(String unaffectedParent1, String unaffectedParent2, String proband, String chromosome,
-                           int start, int end, String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength,
-                           Boolean biallelicOnly, Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype,
-                           String feature, String variantType, String consequences, String alphaMissense, String clinSignificance,
-                           Integer skip, Integer limit) {
-        if (unaffectedParent1 == null || unaffectedParent1.isEmpty()) return List.of("{}");
-        if (unaffectedParent2 == null || unaffectedParent2.isEmpty()) return List.of("{}");
-        if (proband == null || proband.isEmpty()) return List.of("{}");
+    // most significant first; ties broken by position for stable results across calls
+    static final Comparator<VariantWithStats> BY_PCHI2 = Comparator
+        .comparingDouble(VariantWithStats::getPchi2)
+        .thenComparingInt(v -> v.getAllele().getChrValue())
+        .thenComparingInt(v -> v.getAllele().getStart())
+        .thenComparing(v -> v.getAllele().getRef())
+        .thenComparing(v -> v.getAllele().getAlt());
+
+    static final Comparator<VariantWithStats> BY_PHWE = Comparator
+        .comparingDouble(VariantWithStats::getPhwe)
+        .thenComparingInt(v -> v.getAllele().getChrValue())
+        .thenComparingInt(v -> v.getAllele().getStart())
+        .thenComparing(v -> v.getAllele().getRef())
+        .thenComparing(v -> v.getAllele().getAlt());
+
+    // p-value of 0 means test was not applicable to a variant
+    private static boolean testable(float p) {
+        return p > 0 && Float.isFinite(p);
+    }
+
+    // identity of a variant regardless of statistics attached to it
+    private static List<Object> alleleKey(VariantWithStats v) {
+        Variant a = v.getAllele();
+        return List.of(a.getChrValue(), a.getStart(), a.getEnd(), a.getRef(), a.getAlt());
+    }
+
+    private static List<String> encode(List<VariantWithStats> variants) {
+        List<String> alleles = new ArrayList<>(variants.size());
+        for (VariantWithStats v : variants) {
+            alleles.add(VariantEncoder.toJson(v));
+        }
+        return alleles;
+    }
+
+    // keeps top-K of a WithStats stream
+    static List<VariantWithStats> topVariantsByPchi2(Iterator<AllelesWithStatsResponse> response, int k) {
+        TopK<VariantWithStats> top = new TopK<>(k, BY_PCHI2);
+        while (response.hasNext()) {
+            for (VariantWithStats v : response.next().getAllelesList()) {
+                if (testable(v.getPchi2())) {
+                    top.offer(v);
+                }
+            }
+        }
+        return top.sorted();
+    }
+
+    static List<String> topByPchi2(Iterator<AllelesWithStatsResponse> response, int k) {
+        return encode(topVariantsByPchi2(response, k));
+    }
 
+    // per node top-N lists come concatenated in a single response; merges them into global top-N
+    static List<VariantWithStats> mergeTopN(List<VariantWithStats> perNode, Comparator<VariantWithStats> order,
+                                            ToDoubleFunction<VariantWithStats> p, int n) {
+        List<VariantWithStats> testable = new ArrayList<>(perNode.size());
+        for (VariantWithStats v : perNode) {
+            if (testable((float) p.applyAsDouble(v))) testable.add(v);
+        }
+        return SortedRuns.topN(testable, order, n, DnaerysClient::alleleKey);
+    }
+
+    public List<String> associationInRegion(String chromosome, int start, int end, List<String> cases,
+                           String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
+                           Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
+                           String variantType, String consequences, String alphaMissense, String clinSignificance,
+                           Integer topK) {
         if (start < 0) return List.of("{}");
         if (end < start) return List.of("{}");
+        if (cases == null || cases.isEmpty()) return List.of("{}");
 
-        if (skip == null || skip < 0) skip = 0;
-        if (limit == null || limit < 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
+        if (topK == null || topK <= 0 || topK > MAX_RETURNED_ITEMS) topK = MAX_RETURNED_ITEMS;
 
         RefAssembly assembly = RefAssembly.GRCh38;
         Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
@@ -843,40 +978,90 @@ public class DnaerysClient {
         Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
                                                      variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
 
-        List<Variant> variants = new ArrayList<>();
         List<String> alleles = new ArrayList<>();
 
         try {
             GrpcChannel channel = GrpcChannel.getInstance();
 
-            HomRecessiveRequest request =
-                HomRecessiveRequest
+            // variants present in any of cases; statistics are computed against the rest of cohort as controls
+            AllelesInRegionInSamplesRequest request =
+                AllelesInRegionInSamplesRequest
                     .newBuilder()
-                    .setUnaffectedParent1(unaffectedParent1)
-                    .setUnaffectedParent2(unaffectedParent2)
-                    .setAffectedChild(proband)
                     .setAssembly(assembly)
                     .setChr(chr)
                     .setStart(start)
                     .setEnd(end)
+                    .addAllSamples(cases)
                     .setAlt(alternateBases)
                     .setRef(referenceBases)
                     .setVariantMinLength(variantMinLength)
                     .setVariantMaxLength(variantMaxLength)
+                    .setHom(true)
+                    .setHet(true)
                     .setAnn(annotations)
-                    .setLimit(limit)
-                    .setSkip(skip)
                     .build();
 
-            Iterator<AllelesResponse> response = channel.getBlockingStub().selectHomRecessive(request);
-            while (response.hasNext()) {
-                variants.addAll(response.next().getAllelesList());
-            }
+            Iterator<AllelesWithStatsResponse> response =
+                channel.getBlockingStub().selectVariantsInRegionInSamplesWithStats(request);
+            alleles.addAll(topByPchi2(response, topK));
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
 
-            Gson gson = new Gson();
-            for (Variant allele : variants) {
-                alleles.add(gson.toJson(allele));
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    public List<String> associationInRegions(String regions, List<String> cases,
+                           Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
+                           Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
+                           String variantType, String consequences, String alphaMissense, String clinSignificance,
+                           Integer topK) {
+        List<Region> parsed = Region.parse(regions);
+        if (parsed.isEmpty()) return List.of("{}");
+        if (cases == null || cases.isEmpty()) return List.of("{}");
+
+        if (topK == null || topK <= 0 || topK > MAX_RETURNED_ITEMS) topK = MAX_RETURNED_ITEMS;
+
+        RefAssembly assembly = RefAssembly.GRCh38;
+
+        Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
+        Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
+
+        if (variantMaxLength < variantMinLength) { // fall back to defaults
+            variantMinLength = 0;
+            variantMaxLength = Integer.MAX_VALUE;
+        }
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                                     variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+
+        List<String> alleles = new ArrayList<>();
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            AllelesInMultiRegionsInSamplesRequest.Builder builder =
+                AllelesInMultiRegionsInSamplesRequest
+                    .newBuilder()
+                    .setAssembly(assembly)
+                    .addAllSamples(cases)
+                    .setVariantMinLength(variantMinLength)
+                    .setVariantMaxLength(variantMaxLength)
+                    .setHom(true)
+                    .setHet(true)
+                    .setAnn(annotations);
+            for (Region region : parsed) {
+                builder.addChr(region.chr()).addStart(region.start()).addEnd(region.end()).addRef("").addAlt("");
             }
+
+            Iterator<AllelesWithStatsResponse> response =
+                channel.getBlockingStub().selectVariantsInMultiRegionsInSamplesWithStats(builder.build());
+            alleles.addAll(topByPchi2(response, topK));
         } catch (Throwable th) {
             th.printStackTrace();
             Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
@@ -889,29 +1074,1354 @@ public class DnaerysClient {
         return alleles;
     }
 
-    public String kinship(String sample1, String sample2) {
-        if (sample1 == null || sample1.isEmpty()) return "";
-        if (sample2 == null || sample2.isEmpty()) return "";
+    // single threaded computation on nodes when asked, or by default when cluster is under load
+    static boolean sequential(Boolean seq) {
+        return seq != null ? seq : GrpcChannel.getInstance().isBusy();
+    }
+
+    public List<String> topNchi2(List<String> cases, Integer n, Boolean seq) {
+        if (cases == null || cases.isEmpty()) return List.of("{}");
+        if (n == null || n <= 0 || n > MAX_RETURNED_ITEMS) n = MAX_RETURNED_ITEMS;
+
+        List<String> alleles = new ArrayList<>();
 
         try {
             GrpcChannel channel = GrpcChannel.getInstance();
 
-            KinshipDuoRequest request =
-                KinshipDuoRequest
+            // each node returns its own top-N, so cluster wide top-N is among them
+            TopNchi2Request request =
+                TopNchi2Request
                     .newBuilder()
-                    .setSample1(sample1)
-                    .setSample2(sample2)
-                    .setSeq(true)
+                    .setN(n)
+                    .addAllSamples(cases)
+                    .setSeq(sequential(seq))
                     .build();
 
-            List<Relatedness> response = channel.getBlockingStub().kinshipDuo(request).getRelList();
-            if (response.isEmpty()) return "";
-            return response.getFirst().getDegree().toString();
+            AllelesWithStatsResponse response = channel.getBlockingStub().topNchi2(request);
+            alleles.addAll(encode(mergeTopN(response.getAllelesList(), BY_PCHI2, VariantWithStats::getPchi2, n)));
         } catch (Throwable th) {
             th.printStackTrace();
             Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
         }
 
-        return ""; // default
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    public List<String> topNHWE(Integer n, Boolean seq) {
+        if (n == null || n <= 0 || n > MAX_RETURNED_ITEMS) n = MAX_RETURNED_ITEMS;
+
+        List<String> alleles = new ArrayList<>();
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            TopNHWERequest request =
+                TopNHWERequest
+                    .newBuilder()
+                    .setN(n)
+                    .setSeq(sequential(seq))
+                    .build();
+
+            AllelesWithStatsResponse response = channel.getBlockingStub().topNHWE(request);
+            alleles.addAll(encode(mergeTopN(response.getAllelesList(), BY_PHWE, VariantWithStats::getPhwe, n)));
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    // 1, 2, ..., 22, X, Y by default; empty list if any of chromosomes is not recognized
+    static List<Chromosome> chromosomes(String names) {
+        List<Chromosome> res = new ArrayList<>();
+        if (names == null || names.isBlank()) {
+            for (int i = Chromosome.CHR_1_VALUE; i <= Chromosome.CHR_Y_VALUE; i++) {
+                res.add(Chromosome.forNumber(i));
+            }
+            return res;
+        }
+        for (String name : names.split("[,;\\s]+")) {
+            if (name.isEmpty()) continue;
+            String contig = name.toUpperCase().startsWith("CHR") ? name.substring(3) : name;
+            Chromosome chr = ContigsMapping.contigName2GrpcChr(contig.toUpperCase());
+            if (chr == Chromosome.UNRECOGNIZED) return List.of();
+            if (!res.contains(chr)) res.add(chr);
+        }
+        return res;
+    }
+
+    public static int chromosomeCount(String names) {
+        return chromosomes(names).size();
+    }
+
+    /**
+     * Case/control association over whole chromosomes, one WithStats stream per chromosome with at most
+     * scan.parallelism of them in flight. Unlike TopNchi2, annotation filters apply. Scans run in the gRPC Context
+     * of the caller, so that their failures and incomplete cluster responses reach its ClusterStatus. A chromosome
+     * failed to scan fails the whole scan, as top-K without it is not the genome wide one; chromosomes not started
+     * yet are skipped then. onChromosomeDone is called once per chromosome scanned, serially.
+     */
+    public List<String> associationScan(List<String> cases, String chromosomes, Boolean biallelicOnly,
+                           Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String variantType,
+                           String consequences, Integer topK, Consumer<String> onChromosomeDone) {
+        if (cases == null || cases.isEmpty()) return List.of("{}");
+        List<Chromosome> chrs = chromosomes(chromosomes);
+        if (chrs.isEmpty()) return List.of("{}");
+
+        if (topK == null || topK <= 0 || topK > MAX_RETURNED_ITEMS) topK = MAX_RETURNED_ITEMS;
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, null, null,
+                                                     variantType, consequences, null, null, biallelicOnly);
+
+        int k = topK;
+        List<List<VariantWithStats>> perChromosome = new ArrayList<>();
+        List<Chromosome> failed = new ArrayList<>();
+        ReentrantLock done = new ReentrantLock();
+        Context context = Context.current();
+        try (ExecutorService pool = Executors.newFixedThreadPool(Math.min(SCAN_PARALLELISM, chrs.size()),
+                                                                 Thread.ofVirtual().factory())) {
+            for (Chromosome chr : chrs) {
+                pool.execute(context.wrap(() -> {
+                    done.lock();
+                    try {
+                        if (!failed.isEmpty()) return;
+                    } finally {
+                        done.unlock();
+                    }
+                    List<VariantWithStats> top = scanChromosome(chr, cases, annotations, k);
+                    done.lock();
+                    try {
+                        if (top == null) {
+                            failed.add(chr);
+                            return;
+                        }
+                        perChromosome.add(top);
+                        if (onChromosomeDone != null) onChromosomeDone.accept(chr.name().substring(4));
+                    } finally {
+                        done.unlock();
+                    }
+                }));
+            }
+        }
+        if (!failed.isEmpty()) {
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, "association scan failed on " + failed);
+            return List.of("{}");
+        }
+
+        List<String> alleles = encode(SortedRuns.merge(perChromosome, BY_PCHI2, k, DnaerysClient::alleleKey));
+
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    // null if the chromosome failed to scan
+    private List<VariantWithStats> scanChromosome(Chromosome chr, List<String> cases, Annotations annotations, int k) {
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            AllelesInRegionInSamplesRequest request =
+                AllelesInRegionInSamplesRequest
+                    .newBuilder()
+                    .setAssembly(RefAssembly.GRCh38)
+                    .setChr(chr)
+                    .setStart(1)
+                    .setEnd(Integer.MAX_VALUE)
+                    .addAllSamples(cases)
+                    .setHom(true)
+                    .setHet(true)
+                    .setAnn(annotations)
+                    .build();
+
+            return topVariantsByPchi2(channel.getBlockingStub().selectVariantsInRegionInSamplesWithStats(request), k);
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, chr + ": " + th.getMessage());
+            return null;
+        }
+    }
+
+    public long countSamplesInRegion(String chromosome, int start, int end, boolean selectHom, boolean selectHet,
+                   String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
+                   Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
+                   String variantType, String consequences, String alphaMissense, String clinSignificance) {
+        if (start < 0) return 0L;
+        if (end < start) return 0L;
+
+        RefAssembly assembly = RefAssembly.GRCh38;
+        Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
+
+        if (chr.equals(Chromosome.UNRECOGNIZED)) return 0L;
+
+        String referenceBases = refAllele == null ? "" : refAllele;
+        String alternateBases = altAllele == null ? "" : altAllele;
+        Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
+        Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
+
+        if (variantMaxLength < variantMinLength) { // fall back to defaults
+            variantMinLength = 0;
+            variantMaxLength = Integer.MAX_VALUE;
+        }
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                                     variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            SamplesInRegionRequest request =
+                SamplesInRegionRequest
+                    .newBuilder()
+                    .setAssembly(assembly)
+                    .setChr(chr)
+                    .setStart(start)
+                    .setEnd(end)
+                    .setAlt(alternateBases)
+                    .setRef(referenceBases)
+                    .setVariantMinLength(variantMinLength)
+                    .setVariantMaxLength(variantMaxLength)
+                    .setHom(selectHom)
+                    .setHet(selectHet)
+                    .setAnn(annotations)
+                    .build();
+
+            return channel.getBlockingStub().countSamplesInRegion(request).getCount();
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+        return 0L; // default
+    }
+
+    public List<String> selectSamplesInRegion(String chromosome, int start, int end, boolean selectHom, boolean selectHet,
+                           String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
+                           Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
+                           String variantType, String consequences, String alphaMissense, String clinSignificance) {
+        if (start < 0) return List.of("{}");
+        if (end < start) return List.of("{}");
+
+        RefAssembly assembly = RefAssembly.GRCh38;
+        Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
+
+        if (chr.equals(Chromosome.UNRECOGNIZED)) return List.of("{}");
+
+        String referenceBases = refAllele == null ? "" : refAllele;
+        String alternateBases = altAllele == null ? "" : altAllele;
+        Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
+        Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
+
+        if (variantMaxLength < variantMinLength) { // fall back to defaults
+            variantMinLength = 0;
+            variantMaxLength = Integer.MAX_VALUE;
+        }
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                                     variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            SamplesInRegionRequest request =
+                SamplesInRegionRequest
+                    .newBuilder()
+                    .setAssembly(assembly)
+                    .setChr(chr)
+                    .setStart(start)
+                    .setEnd(end)
+                    .setAlt(alternateBases)
+                    .setRef(referenceBases)
+                    .setVariantMinLength(variantMinLength)
+                    .setVariantMaxLength(variantMaxLength)
+                    .setHom(selectHom)
+                    .setHet(selectHet)
+                    .setAnn(annotations)
+                    .build();
+
+            List<String> samples = new ArrayList<>();
+            samples.addAll(channel.getBlockingStub().selectSamplesInRegion(request).getSamplesList());
+            return samples;
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return List.of("{}"); // default
+    }
+
+    public List<String> selectDeNovo(String parent1, String parent2, String proband, String chromosome, int start, int end,
+                           String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
+                           Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
+                           String variantType, String consequences, String alphaMissense, String clinSignificance, Integer skip,
+                           Integer limit) {
+        if (parent1 == null || parent1.isEmpty()) return List.of("{}");
+        if (parent2 == null || parent2.isEmpty()) return List.of("{}");
+        if (proband == null || proband.isEmpty()) return List.of("{}");
+
+        if (start < 0) return List.of("{}");
+        if (end < start) return List.of("{}");
+
+        if (skip == null || skip < 0) skip = 0;
+        if (limit == null || limit < 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
+
+        RefAssembly assembly = RefAssembly.GRCh38;
+        Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
+
+        if (chr.equals(Chromosome.UNRECOGNIZED)) return List.of("{}");
+
+        String referenceBases = refAllele == null ? "" : refAllele;
+        String alternateBases = altAllele == null ? "" : altAllele;
+        Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
+        Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
+
+        if (variantMaxLength < variantMinLength) { // fall back to defaults
+            variantMinLength = 0;
+            variantMaxLength = Integer.MAX_VALUE;
+        }
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                                     variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+
+        List<Variant> variants = new ArrayList<>();
+        List<String> alleles = new ArrayList<>();
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            DeNovoRequest request =
+                DeNovoRequest
+                    .newBuilder()
+                    .setParent1(parent1)
+                    .setParent2(parent2)
+                    .setProband(proband)
+                    .setAssembly(assembly)
+                    .setChr(chr)
+                    .setStart(start)
+                    .setEnd(end)
+                    .setAlt(alternateBases)
+                    .setRef(referenceBases)
+                    .setVariantMinLength(variantMinLength)
+                    .setVariantMaxLength(variantMaxLength)
+                    .setAnn(annotations)
+                    .setLimit(limit)
+                    .setSkip(skip)
+                    .build();
+
+            Iterator<AllelesResponse> response = channel.getBlockingStub().selectDeNovo(request);
+            while (response.hasNext()) {
+                variants.addAll(response.next().getAllelesList());
+            }
+
+            for (Variant allele : variants) {
+                alleles.add(VariantEncoder.toJson(allele));
+            }
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    public List<String> selectHetDominant(String affectedParent, String unaffectedParent, String proband, String chromosome,
+                           int start, int end, String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength,
+                           Boolean biallelicOnly, Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype,
+                           String feature, String variantType, String consequences, String alphaMissense, String clinSignificance,
+                           Integer skip, Integer limit) {
+        if (affectedParent == null || affectedParent.isEmpty()) return List.of("{}");
+        if (unaffectedParent == null || unaffectedParent.isEmpty()) return List.of("{}");
+        if (proband == null || proband.isEmpty()) return List.of("{}");
+
+        if (start < 0) return List.of("{}");
+        if (end < start) return List.of("{}");
+
+        if (skip == null || skip < 0) skip = 0;
+        if (limit == null || limit < 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
+
+        RefAssembly assembly = RefAssembly.GRCh38;
+        Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
+
+        if (chr.equals(Chromosome.UNRECOGNIZED)) return List.of("{}");
+
+        String referenceBases = refAllele == null ? "" : refAllele;
+        String alternateBases = altAllele == null ? "" : altAllele;
+        Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
+        Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
+
+        if (variantMaxLength < variantMinLength) { // fall back to defaults
+            variantMinLength = 0;
+            variantMaxLength = Integer.MAX_VALUE;
+        }
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                                     variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+
+        List<Variant> variants = new ArrayList<>();
+        List<String> alleles = new ArrayList<>();
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            HetDominantRequest request =
+                HetDominantRequest
+                    .newBuilder()
+                    .setAffectedParent(affectedParent)
+                    .setUnaffectedParent(unaffectedParent)
+                    .setAffectedChild(proband)
+                    .setAssembly(assembly)
+                    .setChr(chr)
+                    .setStart(start)
+                    .setEnd(end)
+                    .setAlt(alternateBases)
+                    .setRef(referenceBases)
+                    .setVariantMinLength(variantMinLength)
+                    .setVariantMaxLength(variantMaxLength)
+                    .setAnn(annotations)
+                    .setLimit(limit)
+                    .setSkip(skip)
+                    .build();
+
+            Iterator<AllelesResponse> response = channel.getBlockingStub().selectHetDominant(request);
+            while (response.hasNext()) {
+                variants.addAll(response.next().getAllelesList());
+            }
+
+            for (Variant allele : variants) {
+                alleles.add(VariantEncoder.toJson(allele));
+            }
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    public List<String> selectHomRecessive(String unaffectedParent1, String unaffectedParent2, String proband, String chromosome,
+                           int start, int end, String refAllele, String altAllele, Integer varMinLength, Integer varMaxLength,
+                           Boolean biallelicOnly, Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype,
+                           String feature, String variantType, String consequences, String alphaMissense, String clinSignificance,
+                           Integer skip, Integer limit) {
+        if (unaffectedParent1 == null || unaffectedParent1.isEmpty()) return List.of("{}");
+        if (unaffectedParent2 == null || unaffectedParent2.isEmpty()) return List.of("{}");
+        if (proband == null || proband.isEmpty()) return List.of("{}");
+
+        if (start < 0) return List.of("{}");
+        if (end < start) return List.of("{}");
+
+        if (skip == null || skip < 0) skip = 0;
+        if (limit == null || limit < 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
+
+        RefAssembly assembly = RefAssembly.GRCh38;
+        Chromosome chr = ContigsMapping.contigName2GrpcChr(chromosome);
+
+        if (chr.equals(Chromosome.UNRECOGNIZED)) return List.of("{}");
+
+        String referenceBases = refAllele == null ? "" : refAllele;
+        String alternateBases = altAllele == null ? "" : altAllele;
+        Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
+        Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
+
+        if (variantMaxLength < variantMinLength) { // fall back to defaults
+            variantMinLength = 0;
+            variantMaxLength = Integer.MAX_VALUE;
+        }
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                                     variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+
+        List<Variant> variants = new ArrayList<>();
+        List<String> alleles = new ArrayList<>();
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            HomRecessiveRequest request =
+                HomRecessiveRequest
+                    .newBuilder()
+                    .setUnaffectedParent1(unaffectedParent1)
+                    .setUnaffectedParent2(unaffectedParent2)
+                    .setAffectedChild(proband)
+                    .setAssembly(assembly)
+                    .setChr(chr)
+                    .setStart(start)
+                    .setEnd(end)
+                    .setAlt(alternateBases)
+                    .setRef(referenceBases)
+                    .setVariantMinLength(variantMinLength)
+                    .setVariantMaxLength(variantMaxLength)
+                    .setAnn(annotations)
+                    .setLimit(limit)
+                    .setSkip(skip)
+                    .build();
+
+            Iterator<AllelesResponse> response = channel.getBlockingStub().selectHomRecessive(request);
+            while (response.hasNext()) {
+                variants.addAll(response.next().getAllelesList());
+            }
+
+            for (Variant allele : variants) {
+                alleles.add(VariantEncoder.toJson(allele));
+            }
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    public String kinship(String sample1, String sample2) {
+        return kinship(sample1, sample2, true);
+    }
+
+    public String kinship(String sample1, String sample2, Boolean seq) {
+        if (sample1 == null || sample1.isEmpty()) return "";
+        if (sample2 == null || sample2.isEmpty()) return "";
+
+        KinshipCache.Kinship known = kinshipCache.get(sample1, sample2);
+        if (known != null) return known.degree().toString();
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            KinshipDuoRequest request =
+                KinshipDuoRequest
+                    .newBuilder()
+                    .setSample1(sample1)
+                    .setSample2(sample2)
+                    .setSeq(sequential(seq))
+                    .build();
+
+            KinshipResponse response = channel.getBlockingStub().kinshipDuo(request);
+            kinshipCache.putAll(response);
+            if (response.getRelList().isEmpty()) return "";
+            return response.getRelList().getFirst().getDegree().toString();
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return ""; // default
+    }
+
+    // degree takes precedence over threshold, as cluster accepts only one of them
+    // UNRECOGNIZED for an unknown degree, and for KINSHIP_UNSPECIFIED without a threshold to select by
+    static KinshipDegree kinshipDegree(String degree, Float threshold, KinshipDegree otherwise) {
+        if (degree != null && !degree.isBlank()) {
+            KinshipDegree d = KinshipDegreeMapper.fromString(degree);
+            return d == KinshipDegree.KINSHIP_UNSPECIFIED && threshold == null ? KinshipDegree.UNRECOGNIZED : d;
+        }
+        if (threshold != null && threshold > 0) return KinshipDegree.KINSHIP_UNSPECIFIED;
+        return otherwise;
+    }
+
+    static String relatedness(KinshipMatrix matrix) {
+        JsonArray related = new JsonArray();
+        for (Relatedness r : matrix.related()) {
+            JsonObject pair = new JsonObject();
+            pair.addProperty("sampleA", r.getSampleA());
+            pair.addProperty("sampleB", r.getSampleB());
+            pair.addProperty("degree", r.getDegree().toString());
+            pair.addProperty("phi_bwf", r.getPhiBwf());
+            related.add(pair);
+        }
+        JsonArray families = new JsonArray();
+        for (List<String> family : matrix.families()) {
+            JsonArray members = new JsonArray();
+            family.forEach(members::add);
+            families.add(members);
+        }
+        JsonObject json = new JsonObject();
+        json.addProperty("samples", matrix.samples());
+        json.addProperty("pairs_reported", matrix.pairs());
+        json.add("related", related);
+        json.add("families", families);
+        return json.toString();
+    }
+
+    /**
+     * Related pairs and families among all pairs of samples in a cohort and / or a list of samples,
+     * in a single Kinship request. Without degree or threshold, pairs up to third degree are requested,
+     * as all pairs of a large cohort would not fit a response.
+     */
+    public String kinshipInCohort(String cohort, List<String> samples, String degree, Float threshold, Boolean seq) {
+        boolean hasCohort = cohort != null && !cohort.isBlank();
+        boolean hasSamples = samples != null && samples.size() > 1;
+        if (!hasCohort && !hasSamples) return "{}";
+
+        KinshipDegree kinshipDegree = kinshipDegree(degree, threshold, KinshipDegree.THIRD_DEGREE);
+        if (kinshipDegree == KinshipDegree.UNRECOGNIZED) return "{}";
+        if (threshold != null && (threshold < 0 || threshold >= 0.5)) return "{}";
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            KinshipRequest.Builder request =
+                KinshipRequest
+                    .newBuilder()
+                    .setDegree(kinshipDegree)
+                    .setSeq(sequential(seq));
+            if (kinshipDegree == KinshipDegree.KINSHIP_UNSPECIFIED) request.setThreshold(threshold);
+            if (hasCohort) request.setCohortName(cohort.strip());
+            if (hasSamples) request.addAllSamples(samples);
+
+            KinshipResponse response = channel.getBlockingStub().kinship(request.build());
+            kinshipCache.putAll(response);
+            KinshipMatrix matrix = new KinshipMatrix();
+            for (Relatedness r : response.getRelList()) {
+                matrix.put(r);
+            }
+            return relatedness(matrix);
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return "{}"; // default
+    }
+
+    public String kinshipTrio(String sample1, String sample2, String sample3, String degree, Float threshold,
+                              Boolean seq) {
+        if (sample1 == null || sample1.isEmpty()) return "{}";
+        if (sample2 == null || sample2.isEmpty()) return "{}";
+        if (sample3 == null || sample3.isEmpty()) return "{}";
+
+        KinshipDegree kinshipDegree = kinshipDegree(degree, threshold, KinshipDegree.KINSHIP_UNSPECIFIED);
+        if (kinshipDegree == KinshipDegree.UNRECOGNIZED) return "{}";
+        if (threshold != null && (threshold < 0 || threshold >= 0.5)) return "{}";
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            KinshipTrioRequest.Builder request =
+                KinshipTrioRequest
+                    .newBuilder()
+                    .setSample1(sample1)
+                    .setSample2(sample2)
+                    .setSample3(sample3)
+                    .setDegree(kinshipDegree)
+                    .setSeq(sequential(seq));
+            if (kinshipDegree == KinshipDegree.KINSHIP_UNSPECIFIED && threshold != null) request.setThreshold(threshold);
+
+            KinshipResponse response = channel.getBlockingStub().kinshipTrio(request.build());
+            kinshipCache.putAll(response);
+            KinshipMatrix matrix = new KinshipMatrix();
+            for (Relatedness r : response.getRelList()) {
+                matrix.put(r);
+            }
+            return relatedness(matrix);
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return "{}"; // default
+    }
+
+    // directory VCF files may be read from by path; when not set, VCF is accepted as text only, so that
+    // remote sessions of a shared server cannot have it open (or probe for) arbitrary files of its host
+    private static final String VCF_DIR = ReadConfig.getString("vcf.dir", "");
+
+    // inline VCF text, or a path to a .vcf / .vcf.gz file under vcf.dir
+    static VcfFilter.Result readVcf(String vcf) throws IOException {
+        return readVcf(vcf, VCF_DIR);
+    }
+
+    static VcfFilter.Result readVcf(String vcf, String dir) throws IOException {
+        if (vcf.indexOf('\n') >= 0 || vcf.startsWith("#")) return VcfFilter.filter(vcf);
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalArgumentException("VCF paths are not accepted, vcf.dir is not set: " + vcf);
+        }
+        String name = vcf.strip().toLowerCase();
+        if (!name.endsWith(".vcf") && !name.endsWith(".vcf.gz") && !name.endsWith(".vcf.bgz")) {
+            throw new IllegalArgumentException("not a VCF file: " + vcf);
+        }
+        Path root = Path.of(dir.strip()).toRealPath();
+        Path file = root.resolve(vcf.strip()).normalize();
+        // checked before the file is touched, and again after symlinks are resolved
+        if (!file.startsWith(root) || !file.toRealPath().startsWith(root)) {
+            throw new IllegalArgumentException("VCF path is outside of vcf.dir: " + vcf);
+        }
+        return VcfFilter.filter(file.toRealPath());
+    }
+
+    /**
+     * Samples related to an external sample given as a single sample VCF. VCF is pre-filtered locally to
+     * what SampleKinship counts, see {@link VcfFilter}, so only a fraction of it is sent.
+     *
+     * @throws IllegalArgumentException when VCF path is not accepted or VCF cannot be read; not reported
+     *                                  as an empty json, which stands for no related samples
+     */
+    public String sampleKinship(String vcf, String cohort, String degree, Float threshold, Boolean seq) {
+        if (vcf == null || vcf.isBlank()) return "{}";
+
+        KinshipDegree kinshipDegree = kinshipDegree(degree, threshold, KinshipDegree.THIRD_DEGREE);
+        if (kinshipDegree == KinshipDegree.UNRECOGNIZED) return "{}";
+        if (threshold != null && (threshold < 0 || threshold >= 0.5)) return "{}";
+
+        VcfFilter.Result filtered;
+        try {
+            filtered = readVcf(vcf);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot read VCF: " + e.getMessage(), e);
+        }
+        if (filtered.accepted() == 0) return "{}";
+
+        try {
+
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            SampleKinshipRequest.Builder request =
+                SampleKinshipRequest
+                    .newBuilder()
+                    .setSampleVcf(filtered.vcf())
+                    .setDegree(kinshipDegree)
+                    .setSeq(sequential(seq));
+            if (kinshipDegree == KinshipDegree.KINSHIP_UNSPECIFIED) request.setThreshold(threshold);
+            if (cohort != null && !cohort.isBlank()) request.setCohortName(cohort.strip());
+
+            SampleKinshipResponse response = channel.getBlockingStub().sampleKinship(request.build());
+
+            List<RelatednessPerSample> hits = new ArrayList<>(response.getRelList());
+            hits.sort(Comparator.comparingDouble(RelatednessPerSample::getPhiBwf).reversed());
+            JsonArray related = new JsonArray();
+            for (RelatednessPerSample r : hits) {
+                JsonObject hit = new JsonObject();
+                hit.addProperty("sample", r.getSampleName());
+                hit.addProperty("degree", r.getDegree().toString());
+                hit.addProperty("phi_bwf", r.getPhiBwf());
+                hit.addProperty("common_loci", r.getCommonLoci());
+                hit.addProperty("nHetS1", r.getNHetS1());
+                hit.addProperty("nHetS2", r.getNHetS2());
+                hit.addProperty("nHetS1S2", r.getNHetS1S2());
+                hit.addProperty("nHomOp", r.getNHomOp());
+                related.add(hit);
+            }
+            JsonObject json = new JsonObject();
+            json.addProperty("accepted_snvs", response.getAcceptedSnvs());
+            json.addProperty("skipped_locally", filtered.skipped());
+            json.add("related", related);
+            return json.toString();
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return "{}"; // default
+    }
+
+    // runs parts of a call with at most scan.parallelism of them at once; results in order of parts,
+    // the first failure fails the call as merged result would be silently partial. Parts run in the gRPC Context
+    // of the caller, so that their failures and incomplete cluster responses reach its ClusterStatus
+    static <T> List<T> inParallel(List<Callable<T>> parts) throws Exception {
+        Context context = Context.current();
+        List<Callable<T>> wrapped = new ArrayList<>(parts.size());
+        for (Callable<T> part : parts) {
+            wrapped.add(context.wrap(part));
+        }
+        List<Future<T>> futures;
+        try (ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(SCAN_PARALLELISM, parts.size())),
+                                                                 Thread.ofVirtual().factory())) {
+            futures = pool.invokeAll(wrapped);
+        }
+        List<T> res = new ArrayList<>(futures.size());
+        for (Future<T> f : futures) {
+            try {
+                res.add(f.get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        return res;
+    }
+
+    public List<String> prsList() {
+        List<String> res = new ArrayList<>();
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+            DatasetInfoRequest request =
+                DatasetInfoRequest
+                    .newBuilder()
+                    .setReturnSamplesNames(false)
+                    .build();
+
+            for (PRS prs : channel.getBlockingStub().datasetInfo(request).getPrsList()) {
+                JsonObject json = new JsonObject();
+                json.addProperty("name", prs.getName());
+                json.addProperty("desc", prs.getDesc());
+                json.addProperty("cardinality", prs.getCardinality());
+                res.add(json.toString());
+            }
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        if (res.isEmpty()) {
+            res.add("{}");
+        }
+
+        return res;
+    }
+
+    private static JsonObject sampleScore(String sample, double score, ScoreDistribution distribution) {
+        JsonObject json = new JsonObject();
+        json.addProperty("sample", sample);
+        json.addProperty("score", score);
+        json.addProperty("percentile", Math.round(distribution.rank(score) * 10) / 10.0);
+        return json;
+    }
+
+    /**
+     * Distribution of a PRS (scores_sum, as 'sum' in plink --score) in a cohort and / or a list of samples,
+     * with highest and lowest scoring samples and percentile ranks of samples of interest, instead of
+     * a score per sample. Sample lists are sent in chunks of prs.chunkSize, concurrently.
+     */
+    public String prsScores(String prsName, String cohort, List<String> samples, Boolean dominant, Boolean recessive,
+                            List<String> rankSamples) {
+        if (prsName == null || prsName.isBlank()) return "{}";
+        boolean hasCohort = cohort != null && !cohort.isBlank();
+        boolean hasSamples = samples != null && !samples.isEmpty();
+        if (!hasCohort && !hasSamples) return "{}";
+        boolean isDominant = dominant != null && dominant;
+        boolean isRecessive = recessive != null && recessive;
+        if (isDominant && isRecessive) return "{}";
+
+        PRSRequest template =
+            PRSRequest
+                .newBuilder()
+                .setPrsName(prsName.strip())
+                .setDominant(isDominant)
+                .setRecessive(isRecessive)
+                .build();
+
+        List<Callable<PRSResponse>> parts = new ArrayList<>();
+        if (hasCohort) {
+            PRSRequest request = template.toBuilder().setCohortName(cohort.strip()).build();
+            parts.add(() -> GrpcChannel.getInstance().getBlockingStub().prs(request));
+        }
+        if (hasSamples) {
+            for (int from = 0; from < samples.size(); from += PRS_CHUNK_SIZE) {
+                PRSRequest request = template.toBuilder()
+                    .addAllSamples(samples.subList(from, Math.min(samples.size(), from + PRS_CHUNK_SIZE))).build();
+                parts.add(() -> GrpcChannel.getInstance().getBlockingStub().prs(request));
+            }
+        }
+
+        try {
+            // samples in both cohort and list, or listed twice, are counted once
+            Map<String, Float> scores = new LinkedHashMap<>();
+            int cardinality = 0;
+            for (PRSResponse response : inParallel(parts)) {
+                cardinality = Math.max(cardinality, response.getPrsCardinality());
+                for (SampleScore score : response.getSampleScoresList()) {
+                    scores.putIfAbsent(score.getSample(), score.getScoresSum());
+                }
+            }
+            if (scores.isEmpty()) return "{}";
+
+            double[] values = new double[scores.size()];
+            int i = 0;
+            for (float score : scores.values()) {
+                values[i++] = score;
+            }
+            ScoreDistribution distribution = new ScoreDistribution(values);
+
+            JsonObject percentiles = new JsonObject();
+            for (int p : new int[] {1, 5, 10, 25, 50, 75, 90, 95, 99}) {
+                percentiles.addProperty("p" + p, distribution.percentile(p));
+            }
+            List<Map.Entry<String, Float>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<String, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            JsonArray top = new JsonArray();
+            JsonArray bottom = new JsonArray();
+            for (int k = 0; k < Math.min(5, ranked.size()); k++) {
+                top.add(sampleScore(ranked.get(k).getKey(), ranked.get(k).getValue(), distribution));
+                Map.Entry<String, Float> low = ranked.get(ranked.size() - 1 - k);
+                bottom.add(sampleScore(low.getKey(), low.getValue(), distribution));
+            }
+            JsonArray requested = new JsonArray();
+            if (rankSamples != null) {
+                for (String sample : rankSamples) {
+                    Float score = scores.get(sample);
+                    if (score != null) requested.add(sampleScore(sample, score, distribution));
+                }
+            }
+
+            JsonObject json = new JsonObject();
+            json.addProperty("prs", prsName.strip());
+            json.addProperty("prs_cardinality", cardinality);
+            json.addProperty("dominant", isDominant);
+            json.addProperty("recessive", isRecessive);
+            json.addProperty("samples", distribution.size());
+            json.addProperty("mean", distribution.mean());
+            json.addProperty("sd", distribution.sd());
+            json.addProperty("min", distribution.min());
+            json.addProperty("max", distribution.max());
+            json.add("percentiles", percentiles);
+            json.add("highest", top);
+            json.add("lowest", bottom);
+            json.add("ranked", requested);
+            return json.toString();
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return "{}"; // default
+    }
+
+    // FstatX and SexMismatchCheck requests: one per cohort, all cohorts of dataset when neither cohorts nor samples
+    // are given, and one for a list of samples; null if any of arguments is invalid
+    private List<FstatXRequest> fstatRequests(String cohorts, List<String> samples, Float aafThreshold,
+                                              Float femaleThreshold, Float maleThreshold, Boolean includePar, Boolean seq) {
+        for (Float threshold : new Float[] {aafThreshold, femaleThreshold, maleThreshold}) {
+            if (threshold != null && (threshold < 0 || threshold > 1)) return null;
+        }
+        FstatXRequest.Builder template =
+            FstatXRequest
+                .newBuilder()
+                .setIncludePar(includePar != null && includePar)
+                .setSeq(sequential(seq));
+        if (aafThreshold != null) template.setAafThreshold(aafThreshold);
+        if (femaleThreshold != null) template.setFemaleThreshold(femaleThreshold);
+        if (maleThreshold != null) template.setMaleThreshold(maleThreshold);
+
+        List<String> names = new ArrayList<>();
+        if (cohorts != null) {
+            for (String name : cohorts.split("[,;]+")) {
+                if (!name.isBlank() && !names.contains(name.strip())) names.add(name.strip());
+            }
+        }
+        boolean hasSamples = samples != null && !samples.isEmpty();
+        if (names.isEmpty() && !hasSamples) {
+            DatasetInfoRequest info = DatasetInfoRequest.newBuilder().setReturnSamplesNames(false).build();
+            for (Cohort c : GrpcChannel.getInstance().getBlockingStub().datasetInfo(info).getCohortsList()) {
+                names.add(c.getCohortName());
+            }
+        }
+        List<FstatXRequest> requests = new ArrayList<>();
+        for (String name : names) {
+            requests.add(template.clone().setCohortName(name).build());
+        }
+        if (hasSamples) {
+            requests.add(template.clone().addAllSamples(samples).build());
+        }
+        return requests;
+    }
+
+    private static JsonObject sampleStat(SampleStat stat) {
+        JsonObject json = new JsonObject();
+        json.addProperty("sample", stat.getSample());
+        json.addProperty("reported_sex", stat.getReportedSex());
+        json.addProperty("observed_sex", stat.getObservedSex());
+        json.addProperty("f_stat", stat.getFStat());
+        return json;
+    }
+
+    private static JsonArray sampleStats(Collection<SampleStat> stats) {
+        JsonArray res = new JsonArray();
+        stats.stream().sorted(Comparator.comparing(SampleStat::getSample)).forEach(s -> res.add(sampleStat(s)));
+        return res;
+    }
+
+    /**
+     * Samples whose observed sex by F-statistics on X differs from reported, per cohort concurrently.
+     */
+    public String sexMismatchCheck(String cohorts, List<String> samples, Float aafThreshold, Float femaleThreshold,
+                                   Float maleThreshold, Boolean includePar, Boolean seq) {
+        try {
+            List<FstatXRequest> requests = fstatRequests(cohorts, samples, aafThreshold, femaleThreshold, maleThreshold,
+                                                         includePar, seq);
+            if (requests == null || requests.isEmpty()) return "{}";
+
+            List<Callable<SexMismatchResponse>> parts = new ArrayList<>();
+            for (FstatXRequest request : requests) {
+                parts.add(() -> GrpcChannel.getInstance().getBlockingStub().sexMismatchCheck(request));
+            }
+            // a sample in both a cohort and a list of samples is reported once
+            Map<String, SampleStat> males = new HashMap<>();
+            Map<String, SampleStat> females = new HashMap<>();
+            for (SexMismatchResponse response : inParallel(parts)) {
+                response.getMismatchMalesList().forEach(stat -> males.putIfAbsent(stat.getSample(), stat));
+                response.getMismatchFemalesList().forEach(stat -> females.putIfAbsent(stat.getSample(), stat));
+            }
+
+            JsonObject json = new JsonObject();
+            json.addProperty("requests", requests.size());
+            json.add("mismatch_males", sampleStats(males.values()));
+            json.add("mismatch_females", sampleStats(females.values()));
+            return json.toString();
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return "{}"; // default
+    }
+
+    private static JsonObject fstatSummary(Collection<SampleStat> stats, boolean lowest) {
+        JsonObject json = new JsonObject();
+        json.addProperty("samples", stats.size());
+        if (stats.isEmpty()) return json;
+        ScoreDistribution distribution = new ScoreDistribution(stats.stream().mapToDouble(SampleStat::getFStat).toArray());
+        json.addProperty("mean", distribution.mean());
+        json.addProperty("min", distribution.min());
+        for (int p : new int[] {1, 5, 50, 95, 99}) {
+            json.addProperty("p" + p, distribution.percentile(p));
+        }
+        json.addProperty("max", distribution.max());
+        // the tail towards the other sex, where mismatches are
+        Comparator<SampleStat> order = Comparator.comparingDouble(SampleStat::getFStat);
+        JsonArray tail = new JsonArray();
+        stats.stream().sorted(lowest ? order : order.reversed()).limit(5).forEach(s -> tail.add(sampleStat(s)));
+        json.add(lowest ? "lowest" : "highest", tail);
+        return json;
+    }
+
+    /**
+     * Distribution of F-statistics on X for reported males and females, per cohort concurrently.
+     */
+    public String fstatX(String cohorts, List<String> samples, Float aafThreshold, Boolean includePar, Boolean seq) {
+        try {
+            List<FstatXRequest> requests = fstatRequests(cohorts, samples, aafThreshold, null, null, includePar, seq);
+            if (requests == null || requests.isEmpty()) return "{}";
+
+            List<Callable<FstatXResponse>> parts = new ArrayList<>();
+            for (FstatXRequest request : requests) {
+                parts.add(() -> GrpcChannel.getInstance().getBlockingStub().fstatX(request));
+            }
+            Map<String, SampleStat> males = new HashMap<>();
+            Map<String, SampleStat> females = new HashMap<>();
+            for (FstatXResponse response : inParallel(parts)) {
+                response.getMalesList().forEach(stat -> males.putIfAbsent(stat.getSample(), stat));
+                response.getFemalesList().forEach(stat -> females.putIfAbsent(stat.getSample(), stat));
+            }
+            if (males.isEmpty() && females.isEmpty()) return "{}";
+
+            JsonObject json = new JsonObject();
+            json.addProperty("requests", requests.size());
+            json.add("males", fstatSummary(males.values(), true));
+            json.add("females", fstatSummary(females.values(), false));
+            return json.toString();
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return "{}"; // default
+    }
+
+    // built-in panels of the database, defined in GRCh37
+    static final Set<String> PANELS = Set.of("mito11", "mito374", "cancer104");
+
+    static final String PANEL_NOTE = "built-in panel is defined in GRCh37 while the dataset is GRCh38, " +
+        "variants may be off-target and panel genes may be missed; use selectVariantsInGenes for GRCh38 coordinates";
+
+    /**
+     * All variants of a built-in panel. Panel requests have no limit, so the stream is read up to the limit
+     * and then cancelled, instead of being drained.
+     * <p>
+     * Built-in panels are in GRCh37 coordinates, so the result, found variants or not, has a leading
+     * {"panel_assembly":"GRCh37","dataset_assembly":"GRCh38","off_target":true,...} element.
+     */
+    public List<String> selectVariantsInPanel(String panel, Integer limit) {
+        if (panel == null || !PANELS.contains(panel.strip().toLowerCase(Locale.ROOT))) return List.of("{}");
+        if (limit == null || limit <= 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
+
+        int max = limit;
+        List<String> alleles = new ArrayList<>();
+
+        try (Context.CancellableContext context = Context.current().withCancellation()) {
+            AllelesInPanelRequest request =
+                AllelesInPanelRequest
+                    .newBuilder()
+                    .setPanel(panel.strip().toLowerCase(Locale.ROOT))
+                    .build();
+
+            alleles.addAll(context.call(() -> {
+                List<String> res = new ArrayList<>();
+                Iterator<AllelesResponse> response = GrpcChannel.getInstance().getBlockingStub().selectVariantsInPanel(request);
+                while (res.size() < max && response.hasNext()) {
+                    for (Variant allele : response.next().getAllelesList()) {
+                        if (res.size() == max) break;
+                        res.add(VariantEncoder.toJson(allele));
+                    }
+                }
+                return res;
+            }));
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        JsonObject marker = new JsonObject();
+        marker.addProperty("panel_assembly", "GRCh37");
+        marker.addProperty("dataset_assembly", "GRCh38");
+        marker.addProperty("off_target", true);
+        marker.addProperty("note", PANEL_NOTE);
+        alleles.addFirst(marker.toString());
+
+        return alleles;
+    }
+
+    /**
+     * Regions of a user defined panel: genes resolved by the configured gene table, and regions as is.
+     * Empty if nothing is given or any of genes or regions is unknown or malformed.
+     */
+    static List<Region> panelRegions(String genes, String regions, GeneRegions table) {
+        boolean hasGenes = genes != null && !genes.isBlank();
+        boolean hasRegions = regions != null && !regions.isBlank();
+        List<Region> res = new ArrayList<>();
+        if (hasGenes) {
+            List<Region> resolved = table.resolve(genes);
+            if (resolved.isEmpty()) return List.of();
+            res.addAll(resolved);
+        }
+        if (hasRegions) {
+            List<Region> parsed = Region.parse(regions);
+            if (parsed.isEmpty()) return List.of();
+            res.addAll(parsed);
+        }
+        return res;
+    }
+
+    /**
+     * Variants in all samples in a user defined panel, in a single multi region request.
+     */
+    public List<String> selectVariantsInRegions(String genes, String regions, boolean selectHom, boolean selectHet,
+                           Integer varMinLength, Integer varMaxLength, Boolean biallelicOnly,
+                           Float gnomadAfLessThan, Float gnomadAfGreaterThan, String impact, String biotype, String feature,
+                           String variantType, String consequences, String alphaMissense, String clinSignificance, Integer skip,
+                           Integer limit) {
+        List<Region> parsed = panelRegions(genes, regions, GeneRegions.configured());
+        if (parsed.isEmpty()) return List.of("{}");
+
+        if (skip == null || skip < 0) skip = 0;
+        if (limit == null || limit < 0 || limit > MAX_RETURNED_ITEMS) limit = MAX_RETURNED_ITEMS;
+
+        RefAssembly assembly = RefAssembly.GRCh38;
+
+        Integer variantMinLength = varMinLength == null || varMinLength <= 0 ? 0 : varMinLength;
+        Integer variantMaxLength = varMaxLength == null || varMaxLength <= 0 ? 0 : varMaxLength;
+
+        if (variantMaxLength < variantMinLength) { // fall back to defaults
+            variantMinLength = 0;
+            variantMaxLength = Integer.MAX_VALUE;
+        }
+
+        Annotations annotations = composeAnnotations(gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                                     variantType, consequences, alphaMissense, clinSignificance, biallelicOnly);
+
+        List<String> alleles = new ArrayList<>();
+
+        try {
+            GrpcChannel channel = GrpcChannel.getInstance();
+
+            AllelesInMultiRegionsRequest.Builder builder =
+                AllelesInMultiRegionsRequest
+                    .newBuilder()
+                    .setAssembly(assembly)
+                    .setVariantMinLength(variantMinLength)
+                    .setVariantMaxLength(variantMaxLength)
+                    .setHom(selectHom)
+                    .setHet(selectHet)
+                    .setAnn(annotations)
+                    .setLimit(limit)
+                    .setSkip(skip);
+            for (Region region : parsed) {
+                builder.addChr(region.chr()).addStart(region.start()).addEnd(region.end()).addRef("").addAlt("");
+            }
+
+            Iterator<AllelesResponse> response = channel.getBlockingStub().selectVariantsInMultiRegions(builder.build());
+            while (response.hasNext()) {
+                for (Variant allele : response.next().getAllelesList()) {
+                    alleles.add(VariantEncoder.toJson(allele));
+                }
+            }
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        if (alleles.isEmpty()) {
+            alleles.add("{}");
+        }
+
+        return alleles;
+    }
+
+    static SampleIndex sampleIndex() {
+        sampleIndexLock.lock();
+        try {
+            if (sampleIndex == null) {
+                DatasetInfoRequest request = DatasetInfoRequest.newBuilder().setReturnSamplesNames(true).build();
+                sampleIndex = SampleIndex.of(GrpcChannel.getInstance().getBlockingStub().datasetInfo(request));
+            }
+            return sampleIndex;
+        } finally {
+            sampleIndexLock.unlock();
+        }
+    }
+
+    /**
+     * Defines a named sample set of a session: samples of a list and of cohorts of the dataset, all samples
+     * when neither is given, restricted to one sex if asked. Not defined if any of samples or cohorts is not known,
+     * reported back instead, so that a typo does not silently narrow the set.
+     */
+    public String defineSampleSet(String session, String name, List<String> samples, String cohorts, String sex) {
+        if (name == null || name.isBlank()) return "{}";
+        if (sex != null && !sex.isBlank() && !sex.equalsIgnoreCase("female") && !sex.equalsIgnoreCase("male")) return "{}";
+
+        try {
+            SampleIndex index = sampleIndex();
+            List<String> unknownSamples = new ArrayList<>();
+            List<String> unknownCohorts = new ArrayList<>();
+            BitSet set = index.of(samples == null ? List.of() : samples, unknownSamples);
+            boolean hasCohorts = false;
+            if (cohorts != null) {
+                for (String cohort : cohorts.split("[,;\\s]+")) {
+                    if (cohort.isEmpty()) continue;
+                    hasCohorts = true;
+                    BitSet members = index.cohort(cohort);
+                    if (members == null) unknownCohorts.add(cohort); else set.or(members);
+                }
+            }
+            if ((samples == null || samples.isEmpty()) && !hasCohorts) set = index.all();
+
+            JsonObject json = new JsonObject();
+            json.addProperty("name", name.strip());
+            if (!unknownSamples.isEmpty() || !unknownCohorts.isEmpty()) {
+                JsonArray us = new JsonArray();
+                unknownSamples.forEach(us::add);
+                JsonArray uc = new JsonArray();
+                unknownCohorts.forEach(uc::add);
+                json.add("unknown_samples", us);
+                json.add("unknown_cohorts", uc);
+                return json.toString();
+            }
+
+            if (sex != null && !sex.isBlank()) {
+                if (sex.equalsIgnoreCase("female")) set.and(index.females()); else set.andNot(index.females());
+            }
+            sampleSets.put(session, name.strip(), set);
+
+            BitSet females = index.females();
+            females.and(set);
+            json.addProperty("samples", set.cardinality());
+            json.addProperty("females", females.cardinality());
+            json.addProperty("males", set.cardinality() - females.cardinality());
+            return json.toString();
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+
+        return "{}"; // default
+    }
+
+    /** Keeps samples of a tool result as a named sample set; unknown and '{}' entries are skipped. */
+    public void saveSampleSet(String session, String name, List<String> samples) {
+        if (name == null || name.isBlank() || samples == null) return;
+        try {
+            sampleSets.put(session, name.strip(), sampleIndex().of(samples, null));
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+    }
+
+    public String sampleSets(String session) {
+        JsonObject json = new JsonObject();
+        sampleSets.sizes(session).forEach(json::addProperty);
+        return json.toString();
+    }
+
+    public boolean deleteSampleSet(String session, String name) {
+        return name != null && sampleSets.remove(session, name.strip());
+    }
+
+    public record Selection(List<String> samples, String cohorts) {}
+
+    /**
+     * Session sample sets among comma separated names expanded into samples, added to a list of samples;
+     * other names are left as cohorts of the dataset, for requests which take cohorts.
+     */
+    public Selection withSampleSets(String session, List<String> samples, String names) {
+        Set<String> res = new LinkedHashSet<>(samples == null ? List.of() : samples);
+        List<String> cohorts = new ArrayList<>();
+        if (names != null) {
+            for (String name : names.split("[,;]+")) {
+                if (name.isBlank()) continue;
+                BitSet set = sampleSets.get(session, name.strip());
+                if (set == null) {
+                    cohorts.add(name.strip());
+                } else {
+                    res.addAll(sampleIndex().names(set));
+                }
+            }
+        }
+        return new Selection(List.copyOf(res), String.join(",", cohorts));
+    }
+
+    /**
+     * As withSampleSets, for requests which take a single cohort: more than one cohort of the dataset is expanded
+     * into samples too. Null if any of names is neither a sample set nor a cohort.
+     */
+    public Selection withSampleSetsForCohort(String session, List<String> samples, String names) {
+        Selection selection = withSampleSets(session, samples, names);
+        if (!selection.cohorts().contains(",")) return selection;
+        List<String> expanded = samplesOf(session, samples, names);
+        return expanded == null ? null : new Selection(expanded, "");
+    }
+
+    /**
+     * Samples of a list, of session sample sets and of cohorts of the dataset, for requests which take samples only.
+     * Null if any of names is neither a sample set nor a cohort.
+     */
+    public List<String> samplesOf(String session, List<String> samples, String names) {
+        try {
+            Selection selection = withSampleSets(session, samples, names);
+            if (selection.cohorts().isEmpty()) return selection.samples();
+            SampleIndex index = sampleIndex();
+            Set<String> res = new LinkedHashSet<>(selection.samples());
+            for (String cohort : selection.cohorts().split(",")) {
+                BitSet members = index.cohort(cohort);
+                if (members == null) return null;
+                res.addAll(index.names(members));
+            }
+            return List.copyOf(res);
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Logger.getLogger(DnaerysClient.class.getName()).log(Level.SEVERE, th.getMessage());
+        }
+        return null;
     }
 }
@@ -0,0 +1,297 @@
+package org.dnaerys.client;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.dnaerys.cluster.grpc.*;
+
+/**
+ * Routes calls across several Dnaerys deployments (e.g. primary and replica), each with its own channel.
+ * <p>
+ * Every endpoint is probed with Health in background; probe round trip is smoothed into a latency estimate,
+ * and calls go to the healthy endpoint with the lowest latency. Current endpoint is kept unless another one
+ * is faster by more than SWITCH_RATIO, so that routing does not flap between deployments of similar latency.
+ * <p>
+ * An endpoint becomes unhealthy after 'maxFailures' consecutive UNAVAILABLE calls or probes, and healthy
+ * again after a successful probe. Outliers, whose latency exceeds 'outlierRatio' x latency of the fastest
+ * healthy endpoint, are ejected for 'ejectionMs'. When no endpoint is eligible, calls go to the one with
+ * the fewest failures rather than fail locally.
+ */
+public class EndpointRouter extends ManagedChannel {
+
+    private static final double ALPHA = 0.3;
+    private static final double SWITCH_RATIO = 1.2;
+
+    static class Endpoint {
+        final String target;
+        final ManagedChannel channel;
+        final DnaerysServiceGrpc.DnaerysServiceBlockingStub probe;
+        double latencyMs = Double.NaN;
+        boolean healthy = true;
+        int failures;
+        // nanoTime may be negative, so not ejected is 'now' rather than 0
+        long ejectedUntil = System.nanoTime();
+
+        Endpoint(String target, ManagedChannel channel) {
+            this.target = target;
+            this.channel = channel;
+            this.probe = DnaerysServiceGrpc.newBlockingStub(channel);
+        }
+
+        boolean eligible(long now) {
+            return healthy && now - ejectedUntil >= 0;
+        }
+    }
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final long probeIntervalMs;
+    private final long probeTimeoutMs;
+    private final int maxFailures;
+    private final double outlierRatio;
+    private final long ejectionNanos;
+    private final Thread prober;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Endpoint current;
+
+    /**
+     * @param channels channel per endpoint, keyed by target (host:port) in order of preference
+     */
+    public EndpointRouter(List<String> targets, List<ManagedChannel> channels, long probeIntervalMs, long probeTimeoutMs,
+                          int maxFailures, double outlierRatio, long ejectionMs) {
+        if (targets.isEmpty() || targets.size() != channels.size()) {
+            throw new IllegalArgumentException("Expected a channel per endpoint: " + targets);
+        }
+        for (int i = 0; i < targets.size(); i++) {
+            endpoints.add(new Endpoint(targets.get(i), channels.get(i)));
+        }
+        this.probeIntervalMs = probeIntervalMs;
+        this.probeTimeoutMs = probeTimeoutMs;
+        this.maxFailures = Math.max(1, maxFailures);
+        this.outlierRatio = outlierRatio;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMs);
+        this.current = endpoints.getFirst();
+        this.prober = probeIntervalMs > 0
+            ? Thread.ofVirtual().name("dnaerys-endpoint-probe").start(this::probeLoop)
+            : null;
+    }
+
+    private void probeLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                probeAll();
+                Thread.sleep(probeIntervalMs);
+            }
+        } catch (InterruptedException e) {
+            // router shut down
+        }
+    }
+
+    // probes all endpoints concurrently, so that an unresponsive one does not delay the others
+    void probeAll() throws InterruptedException {
+        List<Thread> probes = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            probes.add(Thread.ofVirtual().start(() -> probe(endpoint)));
+        }
+        for (Thread probe : probes) {
+            probe.join();
+        }
+        lock.lock();
+        try {
+            reselect();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void probe(Endpoint endpoint) {
+        long started = System.nanoTime();
+        try {
+            endpoint.probe.withDeadlineAfter(probeTimeoutMs, TimeUnit.MILLISECONDS)
+                .health(HealthRequest.getDefaultInstance());
+            double ms = (System.nanoTime() - started) / 1e6;
+            lock.lock();
+            try {
+                endpoint.latencyMs = Double.isNaN(endpoint.latencyMs) ? ms : endpoint.latencyMs + ALPHA * (ms - endpoint.latencyMs);
+                endpoint.healthy = true;
+                endpoint.failures = 0;
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                // a probe timing out is as bad as a failed one
+                if (++endpoint.failures >= maxFailures) {
+                    endpoint.healthy = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // under lock
+    private void reselect() {
+        long now = System.nanoTime();
+        double best = Double.NaN;
+        for (Endpoint e : endpoints) {
+            if (e.healthy && !Double.isNaN(e.latencyMs) && (Double.isNaN(best) || e.latencyMs < best)) {
+                best = e.latencyMs;
+            }
+        }
+        for (Endpoint e : endpoints) {
+            if (e.eligible(now) && e.latencyMs > outlierRatio * best) {
+                e.ejectedUntil = now + ejectionNanos;
+            }
+        }
+
+        Endpoint next = null;
+        for (Endpoint e : endpoints) {
+            if (e.eligible(now) && (next == null || faster(e, next))) {
+                next = e;
+            }
+        }
+        if (next == null) {
+            for (Endpoint e : endpoints) {
+                if (next == null || e.failures < next.failures) {
+                    next = e;
+                }
+            }
+        }
+        // latency not measured yet is no evidence for keeping current endpoint over one with measured latency
+        Endpoint previous = current;
+        if (previous != next && previous.eligible(now)
+                && (Double.isNaN(next.latencyMs)
+                    || !Double.isNaN(previous.latencyMs) && previous.latencyMs <= SWITCH_RATIO * next.latencyMs)) {
+            return;
+        }
+        current = next;
+    }
+
+    // endpoints not probed yet keep their order of preference
+    private static boolean faster(Endpoint a, Endpoint b) {
+        return !Double.isNaN(a.latencyMs) && (Double.isNaN(b.latencyMs) || a.latencyMs < b.latencyMs);
+    }
+
+    private void failed(Endpoint endpoint) {
+        lock.lock();
+        try {
+            if (++endpoint.failures >= maxFailures && endpoint.healthy) {
+                endpoint.healthy = false;
+                reselect();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void succeeded(Endpoint endpoint) {
+        if (endpoint.failures == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            endpoint.failures = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // target of endpoint currently receiving calls
+    public String selected() {
+        return current.target;
+    }
+
+    boolean ejected(String target) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            return endpoints.stream().anyMatch(e -> e.target.equals(target) && now - e.ejectedUntil < 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        Endpoint endpoint = current;
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(endpoint.channel.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (status.getCode() == Status.Code.UNAVAILABLE) {
+                            failed(endpoint);
+                        } else if (status.isOk()) {
+                            succeeded(endpoint);
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    @Override
+    public String authority() {
+        return current.channel.authority();
+    }
+
+    @Override
+    public ConnectivityState getState(boolean requestConnection) {
+        return current.channel.getState(requestConnection);
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+        if (prober != null) {
+            prober.interrupt();
+        }
+        endpoints.forEach(e -> e.channel.shutdown());
+        return this;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+        if (prober != null) {
+            prober.interrupt();
+        }
+        endpoints.forEach(e -> e.channel.shutdownNow());
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return endpoints.stream().allMatch(e -> e.channel.isShutdown());
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return endpoints.stream().allMatch(e -> e.channel.isTerminated());
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Endpoint e : endpoints) {
+            if (!e.channel.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package org.dnaerys.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Gene symbol to GRCh38 region table, for panels given as lists of genes.
+ * <p>
+ * Read once from a tab or whitespace separated file (symbol, chromosome, start, end, 1-based inclusive, e.g.
+ * an Ensembl BioMart export), set by 'genes.file' in config. Lines starting with '#' and malformed lines are
+ * skipped. Symbols are case insensitive; a gene on several contigs (e.g. PAR genes on X and Y) keeps all of them.
+ */
+public final class GeneRegions {
+
+    private final Map<String, List<Region>> genes;
+
+    private GeneRegions(Map<String, List<Region>> genes) {
+        this.genes = genes;
+    }
+
+    // read on first use, with the lock held while the file is read, so that concurrent first callers share one read
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static GeneRegions configured;
+
+    /** Table from 'genes.file' in config; empty if not set or not readable. */
+    public static GeneRegions configured() {
+        lock.lock();
+        try {
+            if (configured == null) {
+                configured = fromConfig();
+            }
+            return configured;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static GeneRegions fromConfig() {
+        String file = ReadConfig.getString("genes.file", "");
+        if (file.isBlank()) return new GeneRegions(Map.of());
+        try {
+            return read(Path.of(file.strip()));
+        } catch (IOException | RuntimeException e) {
+            Logger.getLogger(GeneRegions.class.getName()).log(Level.SEVERE, "genes.file: " + e.getMessage());
+            return new GeneRegions(Map.of());
+        }
+    }
+
+    public static GeneRegions read(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    public static GeneRegions read(String text) {
+        try {
+            return read(new BufferedReader(new StringReader(text)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // not thrown by StringReader
+        }
+    }
+
+    public static GeneRegions read(BufferedReader reader) throws IOException {
+        Map<String, List<Region>> genes = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("#") || line.isBlank()) continue;
+            String[] f = line.strip().split("\\s+");
+            if (f.length < 4) continue;
+            List<Region> region = Region.parse(f[1] + ":" + f[2] + "-" + f[3]);
+            if (region.isEmpty()) continue;
+            List<Region> regions = genes.computeIfAbsent(f[0].toUpperCase(Locale.ROOT), k -> new ArrayList<>(1));
+            if (!regions.contains(region.getFirst())) regions.add(region.getFirst());
+        }
+        return new GeneRegions(genes);
+    }
+
+    /** Empty list if the gene is not known. */
+    public List<Region> get(String symbol) {
+        return genes.getOrDefault(symbol.strip().toUpperCase(Locale.ROOT), List.of());
+    }
+
+    public int size() {
+        return genes.size();
+    }
+
+    /**
+     * Regions of a list of genes separated by commas, semicolons or whitespace. Returns an empty list if any
+     * of genes is not known, so that a typo does not silently narrow a panel.
+     */
+    public List<Region> resolve(String symbols) {
+        List<Region> res = new ArrayList<>();
+        if (symbols == null) return res;
+        for (String symbol : symbols.split("[,;\\s]+")) {
+            if (symbol.isEmpty()) continue;
+            List<Region> regions = get(symbol);
+            if (regions.isEmpty()) return List.of();
+            res.addAll(regions);
+        }
+        return res;
+    }
+}
@@ -1,19 +1,32 @@
 package org.dnaerys.client;
 
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
 import io.grpc.Grpc;
 import io.grpc.InsecureChannelCredentials;
 import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
 import io.grpc.TlsChannelCredentials;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
 
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
 
 import org.dnaerys.cluster.grpc.*;
 
 
 public class GrpcChannel {
     private final ManagedChannel channel;
+    private final ChannelSettings settings;
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker breaker;
     private final DnaerysServiceGrpc.DnaerysServiceBlockingStub blockingStub;
 
     // Private constructor prevents instantiation
@@ -21,7 +34,41 @@ public class GrpcChannel {
         String hostname = ReadConfig.getProp().getProperty("dnaerysHost");
         String grpcPort = ReadConfig.getProp().getProperty("dnaerysGRPCPort");
         String ssl = ReadConfig.getProp().getProperty("ssl");
+        String endpoints = ReadConfig.getString("dnaerysEndpoints", "");
 
+        // Creates a communication channel to the server, known as a Channel. Channels are thread-safe
+        // and reusable. It is common to create channels at the beginning of application and reuse them
+        // until the application shuts down.
+
+        this.settings = ChannelSettings.fromConfig();
+        if (endpoints.isBlank()) {
+            this.channel = newChannel(hostname, grpcPort, ssl.equalsIgnoreCase("true"), settings);
+        } else {
+            // dnaerysEndpoints=host1:port1,host2:port2 takes precedence over dnaerysHost/dnaerysGRPCPort
+            List<String> targets = new ArrayList<>();
+            List<ManagedChannel> channels = new ArrayList<>();
+            for (String endpoint : endpoints.split(",")) {
+                String target = endpoint.trim();
+                if (target.isEmpty()) continue;
+                int colon = target.lastIndexOf(':');
+                targets.add(target);
+                channels.add(colon < 0
+                    ? newChannel(target, grpcPort, ssl.equalsIgnoreCase("true"), settings)
+                    : newChannel(target.substring(0, colon), target.substring(colon + 1), ssl.equalsIgnoreCase("true"), settings));
+            }
+            this.channel = new EndpointRouter(targets, channels,
+                ReadConfig.getLong("endpoints.probeIntervalMs", 5_000),
+                ReadConfig.getLong("endpoints.probeTimeoutMs", 2_000),
+                ReadConfig.getInt("endpoints.maxFailures", 3),
+                ReadConfig.getDouble("endpoints.outlierRatio", 3.0),
+                ReadConfig.getLong("endpoints.ejectionMs", 30_000));
+        }
+        this.limiter = newLimiter();
+        this.breaker = newBreaker();
+        this.blockingStub = newBlockingStub(this.channel, this.limiter, this.breaker, this.settings);
+    }
+
+    private static ManagedChannel newChannel(String hostname, String grpcPort, boolean ssl, ChannelSettings settings) {
         int port = 7443; // default
         try {
             port = Integer.parseInt(grpcPort);
@@ -29,11 +76,8 @@ public class GrpcChannel {
             System.err.println("Invalid port value in config: " + grpcPort + ". Falling back to default values");
         }
 
-        // Creates a communication channel to the server, known as a Channel. Channels are thread-safe
-        // and reusable. It is common to create channels at the beginning of application and reuse them
-        // until the application shuts down.
-
-        if (ssl.equalsIgnoreCase("true")) {
+        ManagedChannelBuilder<?> builder;
+        if (ssl) {
             System.err.println("Database host: " + hostname + ":" + grpcPort + " via TLS gRPC");
             // TrustManager that trusts all certificates
             TrustManager[] trustAllCerts = new TrustManager[]{
@@ -47,22 +91,134 @@ public class GrpcChannel {
             TlsChannelCredentials.Builder tlsBuilder = TlsChannelCredentials.newBuilder();
             tlsBuilder.trustManager(trustAllCerts[0]); // Use relaxed trust manager
 
-            channel = Grpc.newChannelBuilderForAddress(hostname, port, tlsBuilder.build()).build();
-            this.blockingStub = DnaerysServiceGrpc.newBlockingStub(this.channel);
+            builder = Grpc.newChannelBuilderForAddress(hostname, port, tlsBuilder.build());
         } else {
             System.err.println("Database host: " + hostname + ":" + grpcPort + " via plain gRPC");
-            this.channel = Grpc.newChannelBuilderForAddress(hostname, port, InsecureChannelCredentials.create()).build();
-            this.blockingStub = DnaerysServiceGrpc.newBlockingStub(this.channel);
+            builder = Grpc.newChannelBuilderForAddress(hostname, port, InsecureChannelCredentials.create());
+        }
+        return ServiceConfig.fromConfig().apply(settings.apply(builder)).build();
+    }
+
+    // Wraps an already built channel, e.g. in-process channel to a fake cluster in tests
+    GrpcChannel(ManagedChannel channel) {
+        this.channel = channel;
+        this.settings = ChannelSettings.fromConfig();
+        this.limiter = newLimiter();
+        this.breaker = newBreaker();
+        this.blockingStub = newBlockingStub(this.channel, this.limiter, this.breaker, this.settings);
+    }
+
+    // null when disabled with limiter.enabled=false
+    private static AdaptiveLimiter newLimiter() {
+        if (!ReadConfig.getBoolean("limiter.enabled", true)) {
+            return null;
+        }
+        return new AdaptiveLimiter(
+            ReadConfig.getInt("limiter.initialLimit", 20),
+            ReadConfig.getInt("limiter.minLimit", 4),
+            ReadConfig.getInt("limiter.maxLimit", 512),
+            ReadConfig.getDouble("limiter.tolerance", 2.0),
+            ReadConfig.getLong("limiter.maxWaitMs", 60_000),
+            ReadConfig.getLong("limiter.agingMs", 2_000));
+    }
+
+    private static CircuitBreaker newBreaker() {
+        return new CircuitBreaker(
+            ReadConfig.getBoolean("breaker.enabled", true),
+            ReadConfig.getInt("breaker.window", 50),
+            ReadConfig.getInt("breaker.minCalls", 20),
+            ReadConfig.getDouble("breaker.failureRate", 0.5),
+            ReadConfig.getInt("breaker.incompleteStreak", 20),
+            ReadConfig.getLong("breaker.openMs", 10_000),
+            ReadConfig.getInt("breaker.halfOpenCalls", 3));
+    }
+
+    private static DnaerysServiceGrpc.DnaerysServiceBlockingStub newBlockingStub(ManagedChannel channel, AdaptiveLimiter limiter,
+                                                                                 CircuitBreaker breaker, ChannelSettings settings) {
+        List<ClientInterceptor> interceptors = new ArrayList<>();
+        if (limiter != null) {
+            interceptors.add(new AdaptiveLimitInterceptor(limiter));
         }
+        // last one runs first: open breaker rejects calls before they wait for an in-flight slot
+        interceptors.add(new CircuitBreakerInterceptor(breaker));
+        return settings.apply(DnaerysServiceGrpc.newBlockingStub(ClientInterceptors.intercept(channel, interceptors)));
     }
 
-    // Singleton
-    private static class ResourceHolder {
-        private static final GrpcChannel INSTANCE = new GrpcChannel();
+    // reads limiter of current instance without building one
+    private static double gauge(ToIntFunction<AdaptiveLimiter> value) {
+        GrpcChannel current = override != null ? override : INSTANCE.get();
+        return current == null || current.limiter == null ? Double.NaN : value.applyAsInt(current.limiter);
+    }
+
+    // Singleton. Lazily built without locks: class init lock of holder idiom or synchronized
+    // would pin virtual threads calling in concurrently, which is why shared state of this client
+    // is guarded by ReentrantLocks elsewhere. Channel is connected lazily, so an instance built by
+    // a thread which lost the race is cheap to discard.
+    private static final AtomicReference<GrpcChannel> INSTANCE = new AtomicReference<>();
+
+    // when set, takes precedence over configured channel
+    private static volatile GrpcChannel override;
+
+    static {
+        Gauge.builder("dnaerys.client.limit", () -> gauge(AdaptiveLimiter::limit))
+            .description("Adaptive limit of in-flight requests to Dnaerys cluster")
+            .register(Metrics.globalRegistry);
+        Gauge.builder("dnaerys.client.inflight", () -> gauge(AdaptiveLimiter::inFlight))
+            .description("Requests in flight to Dnaerys cluster")
+            .register(Metrics.globalRegistry);
     }
 
     public static GrpcChannel getInstance() {
-        return ResourceHolder.INSTANCE;
+        GrpcChannel o = override;
+        if (o != null) {
+            return o;
+        }
+        GrpcChannel instance = INSTANCE.get();
+        if (instance == null) {
+            GrpcChannel candidate = new GrpcChannel();
+            if (INSTANCE.compareAndSet(null, candidate)) {
+                instance = candidate;
+            } else {
+                candidate.channel.shutdownNow();
+                instance = INSTANCE.get();
+            }
+        }
+        return instance;
+    }
+
+    // routes all subsequent calls through provided channel; null restores configured channel
+    static void override(ManagedChannel channel) {
+        override = channel == null ? null : new GrpcChannel(channel);
+    }
+
+    /**
+     * Builds the channel, connects and checks cluster health, so that first query does not pay
+     * for DNS, TCP, TLS and HTTP/2 setup.
+     *
+     * @return round trip of Health request in ms
+     * @throws io.grpc.StatusRuntimeException if cluster does not respond within timeout
+     */
+    public static long warmUp(long timeoutMs) {
+        GrpcChannel instance = getInstance();
+        long started = System.nanoTime();
+        instance.channel.getState(true);
+        instance.blockingStub
+            .withDeadlineAfter(timeoutMs, TimeUnit.MILLISECONDS)
+            .withWaitForReady()
+            .health(HealthRequest.getDefaultInstance());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    /**
+     * Whether cluster is under load as seen by this client: requests wait for an in-flight slot, or at least
+     * half of the adaptive limit is in use. Always false with limiter disabled.
+     */
+    public boolean isBusy() {
+        return limiter != null && (limiter.waiting() > 0 || 2 * limiter.inFlight() >= limiter.limit());
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
     }
 
     public DnaerysServiceGrpc.DnaerysServiceBlockingStub getBlockingStub() {
@@ -0,0 +1,82 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.KinshipDegree;
+import org.dnaerys.cluster.grpc.KinshipResponse;
+import org.dnaerys.cluster.grpc.Relatedness;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Relatedness of sample pairs already computed by the cluster, LRU bounded.
+ * <p>
+ * Kinship is symmetric, so pairs are keyed regardless of order: (A, B) answers a later (B, A). Filled by
+ * KinshipDuo answers and by every pair reported in cohort and trio Kinship answers. Answers from an incomplete
+ * cluster are not kept, as they are computed over a part of variants only. Pairs not reported (filtered out by
+ * degree) are not known to be unrelated and are not kept either.
+ */
+public final class KinshipCache {
+
+    public record Kinship(KinshipDegree degree, float phiBwf) {}
+
+    private record Pair(String a, String b) {
+        static Pair of(String s1, String s2) {
+            return s1.compareTo(s2) <= 0 ? new Pair(s1, s2) : new Pair(s2, s1);
+        }
+    }
+
+    private final int maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Pair, Kinship> pairs;
+
+    public KinshipCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.pairs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Pair, Kinship> eldest) {
+                return size() > KinshipCache.this.maxSize;
+            }
+        };
+    }
+
+    /** Null if the pair is not known. */
+    public Kinship get(String sample1, String sample2) {
+        Pair key = Pair.of(sample1, sample2);
+        lock.lock();
+        try {
+            return pairs.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(Relatedness r) {
+        if (maxSize <= 0 || r.getSampleA().equals(r.getSampleB())) return;
+        if (r.getDegree() == KinshipDegree.KINSHIP_UNSPECIFIED || r.getDegree() == KinshipDegree.UNRECOGNIZED) return;
+        Pair key = Pair.of(r.getSampleA(), r.getSampleB());
+        Kinship value = new Kinship(r.getDegree(), r.getPhiBwf());
+        lock.lock();
+        try {
+            pairs.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putAll(KinshipResponse response) {
+        if (response.getIncompleteCluster()) return;
+        for (Relatedness r : response.getRelList()) {
+            put(r);
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pairs.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.KinshipDegree;
+import org.dnaerys.cluster.grpc.Relatedness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pairwise relatedness of samples, as reported by Kinship queries.
+ * <p>
+ * Pairs are kept in a lower triangular layout, pair (i, j) with i &lt; j at j * (j - 1) / 2 + i, so that
+ * samples can be added in any order without moving what is stored: a byte of degree and a float of phi_bwf
+ * per pair, ~25 MB for all pairs of 3202 samples, instead of a proto message per pair. Pairs never
+ * reported (e.g. filtered out by degree) are KINSHIP_UNSPECIFIED. Not thread safe.
+ */
+public final class KinshipMatrix {
+
+    private final Map<String, Integer> index = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private byte[] degrees = new byte[0];
+    private float[] phi = new float[0];
+    private int pairs;
+
+    public void put(Relatedness r) {
+        put(r.getSampleA(), r.getSampleB(), r.getDegree(), r.getPhiBwf());
+    }
+
+    public void put(String a, String b, KinshipDegree degree, float phiBwf) {
+        if (a.equals(b) || degree == KinshipDegree.UNRECOGNIZED || degree == KinshipDegree.KINSHIP_UNSPECIFIED) return;
+        int p = pair(indexOf(a), indexOf(b));
+        if (degrees[p] == 0) pairs++;
+        degrees[p] = (byte) degree.getNumber();
+        phi[p] = phiBwf;
+    }
+
+    /** KINSHIP_UNSPECIFIED if the pair was not reported. */
+    public KinshipDegree degree(String a, String b) {
+        Integer i = index.get(a);
+        Integer j = index.get(b);
+        if (i == null || j == null || i.equals(j)) return KinshipDegree.KINSHIP_UNSPECIFIED;
+        return KinshipDegree.forNumber(degrees[pair(i, j)]);
+    }
+
+    /** NaN if the pair was not reported. */
+    public float phi(String a, String b) {
+        Integer i = index.get(a);
+        Integer j = index.get(b);
+        if (i == null || j == null || i.equals(j) || degrees[pair(i, j)] == 0) return Float.NaN;
+        return phi[pair(i, j)];
+    }
+
+    public int samples() {
+        return names.size();
+    }
+
+    /** Number of pairs reported. */
+    public int pairs() {
+        return pairs;
+    }
+
+    /** Reported pairs up to third degree, closest first. */
+    public List<Relatedness> related() {
+        List<Relatedness> res = new ArrayList<>();
+        for (int j = 1; j < names.size(); j++) {
+            for (int i = 0; i < j; i++) {
+                int p = pair(i, j);
+                if (isRelated(degrees[p])) {
+                    res.add(Relatedness.newBuilder()
+                        .setSampleA(names.get(i))
+                        .setSampleB(names.get(j))
+                        .setDegree(KinshipDegree.forNumber(degrees[p]))
+                        .setPhiBwf(phi[p])
+                        .build());
+                }
+            }
+        }
+        res.sort(Comparator.comparingDouble(Relatedness::getPhiBwf).reversed()
+            .thenComparing(Relatedness::getSampleA).thenComparing(Relatedness::getSampleB));
+        return res;
+    }
+
+    /**
+     * Connected components of samples related up to third degree, with union-find; largest first,
+     * samples within a family in order they were first seen. Unrelated samples are not included.
+     */
+    public List<List<String>> families() {
+        int n = names.size();
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        for (int j = 1; j < n; j++) {
+            for (int i = 0; i < j; i++) {
+                if (!isRelated(degrees[pair(i, j)])) continue;
+                int ri = root(parent, i);
+                int rj = root(parent, j);
+                if (ri == rj) continue;
+                if (size[ri] < size[rj]) {
+                    int t = ri;
+                    ri = rj;
+                    rj = t;
+                }
+                parent[rj] = ri;
+                size[ri] += size[rj];
+            }
+        }
+        Map<Integer, List<String>> byRoot = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            int r = root(parent, i);
+            if (size[r] > 1) byRoot.computeIfAbsent(r, k -> new ArrayList<>()).add(names.get(i));
+        }
+        List<List<String>> res = new ArrayList<>(byRoot.values());
+        res.sort(Comparator.<List<String>>comparingInt(List::size).reversed().thenComparing(f -> f.getFirst()));
+        return res;
+    }
+
+    private static boolean isRelated(byte degree) {
+        return degree >= KinshipDegree.TWINS_MONOZYGOTIC_VALUE && degree <= KinshipDegree.THIRD_DEGREE_VALUE;
+    }
+
+    // with path halving
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private int indexOf(String sample) {
+        Integer i = index.get(sample);
+        if (i != null) return i;
+        int n = names.size();
+        long capacity = (long) (n + 1) * n / 2;
+        if (capacity > Integer.MAX_VALUE - 8) throw new IllegalStateException("too many samples: " + (n + 1));
+        if (capacity > degrees.length) {
+            int grown = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, 2L * degrees.length));
+            degrees = Arrays.copyOf(degrees, grown);
+            phi = Arrays.copyOf(phi, grown);
+        }
+        index.put(sample, n);
+        names.add(sample);
+        return n;
+    }
+
+    private static int pair(int a, int b) {
+        int i = Math.min(a, b);
+        int j = Math.max(a, b);
+        return (int) ((long) j * (j - 1) / 2 + i);
+    }
+}
@@ -57,10 +57,73 @@ public class ReadConfig {
             pd.setProperty("ssl","true");
             return pd;
         }
+
+        // system properties take precedence, e.g. java -DdnaerysHost=localhost -jar ...
+        for (String key : p.stringPropertyNames()) {
+            String value = System.getProperty(key);
+            if (value != null) {
+                p.setProperty(key, value);
+            }
+        }
         return p;
     }
 
     public static Properties getProp() {
         return prop;
     }
+
+    /**
+     * Returns value for a key, system property takes precedence over config file.
+     */
+    public static String getString(String key, String defaultValue) {
+        return System.getProperty(key, prop.getProperty(key, defaultValue));
+    }
+
+    /**
+     * Returns integer value for a key, system property takes precedence over config file.
+     * Falls back to default value when key is missing or value is malformed.
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = System.getProperty(key, prop.getProperty(key));
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value in config: " + key + "=" + value + ". Falling back to default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = System.getProperty(key, prop.getProperty(key));
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value in config: " + key + "=" + value + ". Falling back to default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = System.getProperty(key, prop.getProperty(key));
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value in config: " + key + "=" + value + ". Falling back to default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = System.getProperty(key, prop.getProperty(key));
+        return value == null ? defaultValue : value.trim().equalsIgnoreCase("true");
+    }
 }
\ No newline at end of file
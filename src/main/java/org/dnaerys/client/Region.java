@@ -0,0 +1,38 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.Chromosome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Genomic region, 1-based, inclusive.
+ */
+public record Region(Chromosome chr, int start, int end) {
+
+    private static final Pattern REGION = Pattern.compile("(?:chr)?([0-9]{1,2}|X|Y|MT|M):([0-9]{1,10})-([0-9]{1,10})",
+        Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Parses a list of regions in a form of 17:43044295-43125483, separated by commas, semicolons or whitespace.
+     * Returns an empty list if any of regions is malformed, so that a typo does not silently narrow a query.
+     */
+    public static List<Region> parse(String regions) {
+        List<Region> res = new ArrayList<>();
+        if (regions == null) return res;
+        for (String token : regions.split("[,;\\s]+")) {
+            if (token.isEmpty()) continue;
+            Matcher m = REGION.matcher(token);
+            if (!m.matches()) return List.of();
+            String contig = m.group(1).toUpperCase();
+            Chromosome chr = ContigsMapping.contigName2GrpcChr(contig.equals("M") ? "MT" : contig);
+            long start = Long.parseLong(m.group(2));
+            long end = Long.parseLong(m.group(3));
+            if (chr == Chromosome.UNRECOGNIZED || start < 1 || end < start || end > Integer.MAX_VALUE) return List.of();
+            res.add(new Region(chr, (int) start, (int) end));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,51 @@
+package org.dnaerys.client;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Call rejected locally, before anything is sent: closes with the given status once started.
+ * <p>
+ * Close is delivered on the executor of the call, not from within start, as gRPC listeners must not be
+ * called re-entrantly. Blocking stubs always set one; calls without it are closed on a virtual thread.
+ */
+final class RejectedCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+
+    private final Status status;
+    private final Executor executor;
+
+    RejectedCall(Status status, CallOptions callOptions) {
+        this.status = status;
+        this.executor = executor(callOptions);
+    }
+
+    static Executor executor(CallOptions callOptions) {
+        Executor executor = callOptions.getExecutor();
+        return executor != null ? executor : Thread.ofVirtual()::start;
+    }
+
+    @Override
+    public void start(Listener<RespT> responseListener, Metadata headers) {
+        executor.execute(() -> responseListener.onClose(status, new Metadata()));
+    }
+
+    @Override
+    public void request(int numMessages) {
+    }
+
+    @Override
+    public void cancel(String message, Throwable cause) {
+    }
+
+    @Override
+    public void halfClose() {
+    }
+
+    @Override
+    public void sendMessage(ReqT message) {
+    }
+}
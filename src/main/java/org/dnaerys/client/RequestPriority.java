@@ -0,0 +1,35 @@
+package org.dnaerys.client;
+
+/**
+ * Priority of requests waiting for an in-flight slot, see {@link AdaptiveLimiter}.
+ * Cheap interactive requests go ahead of large scans.
+ */
+public enum RequestPriority {
+    // dataset metadata and health
+    INFO,
+    // single value aggregations
+    COUNT,
+    // paginated selections
+    SELECT,
+    // cohort wide computations and scans
+    HEAVY;
+
+    /**
+     * Derives priority from full gRPC method name, e.g. dnaerys.DnaerysService/CountVariantsInRegion
+     */
+    public static RequestPriority of(String fullMethodName) {
+        String method = fullMethodName.substring(fullMethodName.lastIndexOf('/') + 1);
+        if (method.equals("Health") || method.equals("ClusterNodes") || method.equals("DatasetInfo")) {
+            return INFO;
+        }
+        if (method.startsWith("Count") || method.equals("KinshipDuo") || method.equals("Beacon")) {
+            return COUNT;
+        }
+        if (method.startsWith("Kinship") || method.equals("SampleKinship") || method.equals("Prs") ||
+            method.equals("FstatX") || method.equals("SexMismatchCheck") || method.startsWith("TopN") ||
+            method.endsWith("WithStats")) {
+            return HEAVY;
+        }
+        return SELECT;
+    }
+}
@@ -0,0 +1,103 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.Cohort;
+import org.dnaerys.cluster.grpc.DatasetInfoResponse;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples of the dataset interned to indices, so that sample sets are bitsets over them: ~400 bytes for any
+ * subset of 3202 samples, instead of a list of names. Cohorts and sex of DatasetInfo are kept as bitsets too.
+ * Immutable; bitsets returned are copies.
+ */
+public final class SampleIndex {
+
+    private final List<String> names;
+    private final Map<String, Integer> index;
+    private final Map<String, BitSet> cohorts;
+    private final BitSet females;
+
+    private SampleIndex(List<String> names, Map<String, BitSet> cohorts, BitSet females) {
+        this.names = List.copyOf(names);
+        this.index = new HashMap<>(names.size() * 2);
+        for (int i = 0; i < names.size(); i++) {
+            index.putIfAbsent(names.get(i), i);
+        }
+        this.cohorts = cohorts;
+        this.females = females;
+    }
+
+    /** From DatasetInfo with sample names. */
+    public static SampleIndex of(DatasetInfoResponse info) {
+        List<String> names = new ArrayList<>(info.getSamplesTotal());
+        Map<String, BitSet> cohorts = new LinkedHashMap<>();
+        BitSet females = new BitSet();
+        for (Cohort c : info.getCohortsList()) {
+            BitSet cohort = cohorts.computeIfAbsent(c.getCohortName(), k -> new BitSet());
+            for (String sample : c.getFemaleSamplesNamesList()) {
+                females.set(names.size());
+                cohort.set(names.size());
+                names.add(sample);
+            }
+            for (String sample : c.getMaleSamplesNamesList()) {
+                cohort.set(names.size());
+                names.add(sample);
+            }
+        }
+        return new SampleIndex(names, cohorts, females);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /** -1 if the sample is not known. */
+    public int indexOf(String sample) {
+        return index.getOrDefault(sample, -1);
+    }
+
+    /** Set of samples; unknown samples are added to 'unknown' if given. */
+    public BitSet of(Collection<String> samples, Collection<String> unknown) {
+        BitSet res = new BitSet(names.size());
+        for (String sample : samples) {
+            int i = indexOf(sample);
+            if (i >= 0) res.set(i); else if (unknown != null) unknown.add(sample);
+        }
+        return res;
+    }
+
+    /** Null if the cohort is not known. */
+    public BitSet cohort(String name) {
+        BitSet cohort = cohorts.get(name);
+        return cohort == null ? null : (BitSet) cohort.clone();
+    }
+
+    public List<String> cohorts() {
+        return List.copyOf(cohorts.keySet());
+    }
+
+    public BitSet females() {
+        return (BitSet) females.clone();
+    }
+
+    public BitSet all() {
+        BitSet all = new BitSet(names.size());
+        all.set(0, names.size());
+        return all;
+    }
+
+    /** Names of samples in a set, in index order. */
+    public List<String> names(BitSet samples) {
+        List<String> res = new ArrayList<>(samples.cardinality());
+        for (int i = samples.nextSetBit(0); i >= 0 && i < names.size(); i = samples.nextSetBit(i + 1)) {
+            res.add(names.get(i));
+        }
+        return res;
+    }
+}
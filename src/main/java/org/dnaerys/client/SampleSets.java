@@ -0,0 +1,82 @@
+package org.dnaerys.client;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Named sample sets of MCP sessions, as bitsets over {@link SampleIndex}.
+ * <p>
+ * Sets are private to a session and LRU bounded both per session and in number of sessions, as sessions are
+ * not reliably closed by clients. Redefining a name replaces the set. Bitsets are copied in and out.
+ */
+public final class SampleSets {
+
+    private final int maxSessions;
+    private final int maxPerSession;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Map<String, BitSet>> sessions;
+
+    public SampleSets(int maxSessions, int maxPerSession) {
+        this.maxSessions = maxSessions;
+        this.maxPerSession = maxPerSession;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, BitSet>> eldest) {
+                return size() > SampleSets.this.maxSessions;
+            }
+        };
+    }
+
+    public void put(String session, String name, BitSet samples) {
+        if (maxSessions <= 0 || maxPerSession <= 0) return;
+        BitSet copy = (BitSet) samples.clone();
+        lock.lock();
+        try {
+            sessions.computeIfAbsent(session, k -> new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BitSet> eldest) {
+                    return size() > SampleSets.this.maxPerSession;
+                }
+            }).put(name, copy);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Null if the set is not defined in the session. */
+    public BitSet get(String session, String name) {
+        lock.lock();
+        try {
+            Map<String, BitSet> sets = sessions.get(session);
+            BitSet samples = sets == null ? null : sets.get(name);
+            return samples == null ? null : (BitSet) samples.clone();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean remove(String session, String name) {
+        lock.lock();
+        try {
+            Map<String, BitSet> sets = sessions.get(session);
+            return sets != null && sets.remove(name) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Set names of a session with number of samples in each, least recently used first. */
+    public Map<String, Integer> sizes(String session) {
+        Map<String, Integer> res = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            Map<String, BitSet> sets = sessions.get(session);
+            if (sets != null) sets.forEach((name, samples) -> res.put(name, samples.cardinality()));
+        } finally {
+            lock.unlock();
+        }
+        return res;
+    }
+}
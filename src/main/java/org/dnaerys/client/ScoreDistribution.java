@@ -0,0 +1,89 @@
+package org.dnaerys.client;
+
+import java.util.Arrays;
+
+/**
+ * Empirical distribution of per sample scores, for summaries in place of raw scores.
+ * <p>
+ * Percentiles are linearly interpolated between closest ranks (as R type 7 and numpy default).
+ * Percentile rank of a score is the share of scores below it plus half of the share equal to it,
+ * in percent, so ties are ranked in the middle and the median sample of an odd cohort is at 50.
+ */
+public final class ScoreDistribution {
+
+    private final double[] sorted;
+
+    public ScoreDistribution(double[] scores) {
+        if (scores.length == 0) throw new IllegalArgumentException("no scores");
+        this.sorted = scores.clone();
+        Arrays.sort(this.sorted);
+    }
+
+    public int size() {
+        return sorted.length;
+    }
+
+    public double min() {
+        return sorted[0];
+    }
+
+    public double max() {
+        return sorted[sorted.length - 1];
+    }
+
+    public double mean() {
+        double sum = 0;
+        for (double s : sorted) {
+            sum += s;
+        }
+        return sum / sorted.length;
+    }
+
+    /** Sample standard deviation; 0 for a single score. */
+    public double sd() {
+        if (sorted.length < 2) return 0;
+        double mean = mean();
+        double ss = 0;
+        for (double s : sorted) {
+            ss += (s - mean) * (s - mean);
+        }
+        return Math.sqrt(ss / (sorted.length - 1));
+    }
+
+    /** p in [0, 100]. */
+    public double percentile(double p) {
+        double h = (sorted.length - 1) * Math.max(0, Math.min(100, p)) / 100;
+        int lo = (int) Math.floor(h);
+        int hi = Math.min(lo + 1, sorted.length - 1);
+        return sorted[lo] + (h - lo) * (sorted[hi] - sorted[lo]);
+    }
+
+    /** Percentile rank of a score, in [0, 100]. */
+    public double rank(double score) {
+        int below = lowerBound(score);
+        int equal = upperBound(score) - below;
+        return 100.0 * (below + 0.5 * equal) / sorted.length;
+    }
+
+    // first index with sorted[i] >= score
+    private int lowerBound(double score) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < score) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // first index with sorted[i] > score
+    private int upperBound(double score) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= score) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
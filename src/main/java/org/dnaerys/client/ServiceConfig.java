@@ -0,0 +1,154 @@
+package org.dnaerys.client;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.dnaerys.cluster.grpc.*;
+
+/**
+ * gRPC service config of the channel to Dnaerys cluster: retries of transient failures and,
+ * optionally, hedging of unary counts. Read from dnaerys.properties.
+ *
+ * <pre>
+ * retry.enabled=true                  retry read RPCs failed with one of retry.statusCodes
+ * retry.maxAttempts=3                 attempts including the original one
+ * retry.initialBackoffMs=200          randomized exponential backoff between attempts
+ * retry.maxBackoffMs=5000
+ * retry.backoffMultiplier=2.0
+ * retry.statusCodes=UNAVAILABLE       comma separated status codes
+ * retry.heavy=false                   also retry cohort-wide analyses (kinship, PRS, TopN, ...)
+ * hedging.enabled=false               send unary counts again if no response within hedging.delayMs
+ * hedging.maxAttempts=2
+ * hedging.delayMs=500
+ * retry.throttling.maxTokens=10       retries and hedges stop when more than half of tokens are spent,
+ * retry.throttling.tokenRatio=0.1     each failure takes 1 token, each success returns tokenRatio
+ * </pre>
+ *
+ * All Dnaerys RPCs are reads, so they are safe to repeat. Streaming calls are retried only until
+ * the first response arrives. Retries and hedges happen inside the channel, below
+ * {@link AdaptiveLimitInterceptor}, and take no extra in-flight slots; throttling keeps them
+ * from amplifying load on a struggling cluster.
+ */
+public class ServiceConfig {
+
+    private final boolean retry;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final double backoffMultiplier;
+    private final List<String> statusCodes;
+    private final boolean retryHeavy;
+    private final boolean hedging;
+    private final int hedgingMaxAttempts;
+    private final long hedgingDelayMs;
+    private final int throttlingMaxTokens;
+    private final double throttlingTokenRatio;
+
+    public ServiceConfig(boolean retry, int maxAttempts, long initialBackoffMs, long maxBackoffMs, double backoffMultiplier,
+                         List<String> statusCodes, boolean retryHeavy, boolean hedging, int hedgingMaxAttempts,
+                         long hedgingDelayMs, int throttlingMaxTokens, double throttlingTokenRatio) {
+        this.retry = retry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.backoffMultiplier = backoffMultiplier;
+        this.statusCodes = statusCodes;
+        this.retryHeavy = retryHeavy;
+        this.hedging = hedging;
+        this.hedgingMaxAttempts = hedgingMaxAttempts;
+        this.hedgingDelayMs = hedgingDelayMs;
+        this.throttlingMaxTokens = throttlingMaxTokens;
+        this.throttlingTokenRatio = throttlingTokenRatio;
+    }
+
+    static ServiceConfig fromConfig() {
+        List<String> codes = new ArrayList<>();
+        for (String code : ReadConfig.getString("retry.statusCodes", "UNAVAILABLE").split(",")) {
+            if (!code.isBlank()) {
+                codes.add(code.trim().toUpperCase());
+            }
+        }
+        return new ServiceConfig(
+            ReadConfig.getBoolean("retry.enabled", true),
+            ReadConfig.getInt("retry.maxAttempts", 3),
+            ReadConfig.getLong("retry.initialBackoffMs", 200),
+            ReadConfig.getLong("retry.maxBackoffMs", 5_000),
+            ReadConfig.getDouble("retry.backoffMultiplier", 2.0),
+            codes,
+            ReadConfig.getBoolean("retry.heavy", false),
+            ReadConfig.getBoolean("hedging.enabled", false),
+            ReadConfig.getInt("hedging.maxAttempts", 2),
+            ReadConfig.getLong("hedging.delayMs", 500),
+            ReadConfig.getInt("retry.throttling.maxTokens", 10),
+            ReadConfig.getDouble("retry.throttling.tokenRatio", 0.1));
+    }
+
+    public ManagedChannelBuilder<?> apply(ManagedChannelBuilder<?> builder) {
+        if (!retry && !hedging) {
+            return builder.disableRetry();
+        }
+        // retry and hedging attempts above this are silently capped by the channel
+        int attempts = Math.max(retry ? maxAttempts : 1, hedging ? hedgingMaxAttempts : 1);
+        return builder.defaultServiceConfig(toMap())
+                      .maxRetryAttempts(attempts)
+                      .enableRetry();
+    }
+
+    /**
+     * Service config in the form accepted by ManagedChannelBuilder.defaultServiceConfig():
+     * JSON-like maps and lists, numbers as Double, durations as strings.
+     */
+    Map<String, Object> toMap() {
+        List<Object> retried = new ArrayList<>();
+        List<Object> hedged = new ArrayList<>();
+        for (MethodDescriptor<?, ?> method : DnaerysServiceGrpc.getServiceDescriptor().getMethods()) {
+            String name = method.getFullMethodName();
+            if (hedging && method.getType() == MethodDescriptor.MethodType.UNARY
+                    && RequestPriority.of(name) == RequestPriority.COUNT) {
+                // a method can have either retry or hedging policy
+                hedged.add(methodName(method));
+            } else if (retry && (retryHeavy || RequestPriority.of(name) != RequestPriority.HEAVY)) {
+                retried.add(methodName(method));
+            }
+        }
+
+        List<Object> methodConfig = new ArrayList<>();
+        if (!retried.isEmpty()) {
+            Map<String, Object> policy = new LinkedHashMap<>();
+            policy.put("maxAttempts", (double) maxAttempts);
+            policy.put("initialBackoff", seconds(initialBackoffMs));
+            policy.put("maxBackoff", seconds(maxBackoffMs));
+            policy.put("backoffMultiplier", backoffMultiplier);
+            policy.put("retryableStatusCodes", new ArrayList<Object>(statusCodes));
+            methodConfig.add(Map.of("name", retried, "retryPolicy", policy));
+        }
+        if (!hedged.isEmpty()) {
+            Map<String, Object> policy = new LinkedHashMap<>();
+            policy.put("maxAttempts", (double) hedgingMaxAttempts);
+            policy.put("hedgingDelay", seconds(hedgingDelayMs));
+            policy.put("nonFatalStatusCodes", new ArrayList<Object>(statusCodes));
+            methodConfig.add(Map.of("name", hedged, "hedgingPolicy", policy));
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("methodConfig", methodConfig);
+        config.put("retryThrottling", Map.of(
+            "maxTokens", (double) throttlingMaxTokens,
+            "tokenRatio", throttlingTokenRatio));
+        return config;
+    }
+
+    private static Map<String, Object> methodName(MethodDescriptor<?, ?> method) {
+        return Map.of("service", method.getServiceName(), "method", method.getBareMethodName());
+    }
+
+    private static String seconds(long ms) {
+        return String.format(Locale.ROOT, "%.3fs", ms / 1000.0);
+    }
+}
@@ -0,0 +1,71 @@
+package org.dnaerys.client;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * K-way merge of sorted lists into global top-N.
+ * <p>
+ * Cluster answers top-N queries with per node lists concatenated into a single response, each list sorted
+ * but with no marker where one ends and the next begins. Natural runs (maximal non-decreasing sequences)
+ * recover these lists: a node boundary either starts a new run or continues the previous one, and in both
+ * cases merged order is correct. Merge costs O(N log K) and stops as soon as N distinct elements are taken.
+ */
+public final class SortedRuns {
+
+    private SortedRuns() {
+    }
+
+    /** Splits a list into maximal non-decreasing runs. */
+    public static <T> List<List<T>> runs(List<T> items, Comparator<? super T> order) {
+        List<List<T>> res = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= items.size(); i++) {
+            if (i == items.size() || order.compare(items.get(i - 1), items.get(i)) > 0) {
+                if (i > from) res.add(items.subList(from, i));
+                from = i;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * First n elements of sorted lists in merged order. Elements with equal keys are taken once,
+     * the first one in merged order wins.
+     */
+    public static <T> List<T> merge(List<? extends List<T>> sorted, Comparator<? super T> order, int n,
+                                    Function<? super T, ?> key) {
+        record Cursor<E>(List<E> list, int pos) {
+            E head() {
+                return list.get(pos);
+            }
+        }
+        PriorityQueue<Cursor<T>> heap = new PriorityQueue<>(Math.max(1, sorted.size()),
+            (a, b) -> order.compare(a.head(), b.head()));
+        for (List<T> list : sorted) {
+            if (!list.isEmpty()) heap.add(new Cursor<>(list, 0));
+        }
+        List<T> res = new ArrayList<>(Math.min(n, 1024));
+        Set<Object> taken = new HashSet<>();
+        while (res.size() < n && !heap.isEmpty()) {
+            Cursor<T> cursor = heap.poll();
+            T head = cursor.head();
+            if (taken.add(key.apply(head))) res.add(head);
+            if (cursor.pos() + 1 < cursor.list().size()) {
+                heap.add(new Cursor<>(cursor.list(), cursor.pos() + 1));
+            }
+        }
+        return res;
+    }
+
+    /** Top n of concatenated sorted lists, see {@link #runs} and {@link #merge}. */
+    public static <T> List<T> topN(List<T> concatenated, Comparator<? super T> order, int n,
+                                   Function<? super T, ?> key) {
+        return merge(runs(concatenated, order), order, n, key);
+    }
+}
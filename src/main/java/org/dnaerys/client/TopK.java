@@ -0,0 +1,50 @@
+package org.dnaerys.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K smallest elements of a stream by a comparator, in O(K) memory.
+ * <p>
+ * Heap is ordered in reverse, so its head is the worst element kept and is replaced
+ * when a better one arrives. Not thread safe, one instance per call.
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+    private long offered;
+
+    public TopK(int k, Comparator<? super T> order) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive: " + k);
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+    }
+
+    public void offer(T element) {
+        offered++;
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (order.compare(element, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    /** Number of elements offered so far, kept or not. */
+    public long offered() {
+        return offered;
+    }
+
+    /** Elements kept, best first. */
+    public List<T> sorted() {
+        List<T> res = new ArrayList<>(heap);
+        res.sort(order);
+        return Collections.unmodifiableList(res);
+    }
+}
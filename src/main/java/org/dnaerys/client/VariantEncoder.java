@@ -0,0 +1,120 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.Variant;
+import org.dnaerys.cluster.grpc.VariantWithStats;
+
+/**
+ * JSON encoding of variants in tool results, without reflection.
+ * <p>
+ * Field names and values are those Gson produced by reflection over generated protobuf classes
+ * (protobuf field names with trailing underscore, chromosome as enum number), minus protobuf internals
+ * (memoized size and hash code, unknown fields), so results stay the same for agents, are deterministic,
+ * and need no reflection registration in native image.
+ */
+public final class VariantEncoder {
+
+    private VariantEncoder() {}
+
+    public static String toJson(Variant v) {
+        return variant(new StringBuilder(256), v).toString();
+    }
+
+    /** Variant with virtual cohort counters and statistics, variant itself nested as 'allele_'. */
+    public static String toJson(VariantWithStats v) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append('{');
+        variant(field(sb, "allele_"), v.getAllele());
+        sb.append(',');
+        number(field(sb, "vaf_"), v.getVaf());
+        sb.append(',');
+        number(field(sb, "vac_"), v.getVac());
+        sb.append(',');
+        field(sb, "van_").append(v.getVan());
+        sb.append(',');
+        field(sb, "vhomc_").append(v.getVhomc());
+        sb.append(',');
+        field(sb, "vhetc_").append(v.getVhetc());
+        sb.append(',');
+        field(sb, "vhomfc_").append(v.getVhomfc());
+        sb.append(',');
+        field(sb, "vhetfc_").append(v.getVhetfc());
+        sb.append(',');
+        number(field(sb, "phwe_"), v.getPhwe());
+        sb.append(',');
+        number(field(sb, "pchi2_"), v.getPchi2());
+        sb.append(',');
+        number(field(sb, "or_"), v.getOr());
+        sb.append(',');
+        number(field(sb, "ibc_"), v.getIbc());
+        return sb.append('}').toString();
+    }
+
+    private static StringBuilder variant(StringBuilder sb, Variant v) {
+        sb.append('{');
+        field(sb, "chr_").append(v.getChrValue());
+        sb.append(',');
+        field(sb, "start_").append(v.getStart());
+        sb.append(',');
+        field(sb, "end_").append(v.getEnd());
+        sb.append(',');
+        string(field(sb, "ref_"), v.getRef());
+        sb.append(',');
+        string(field(sb, "alt_"), v.getAlt());
+        sb.append(',');
+        number(field(sb, "af_"), v.getAf());
+        sb.append(',');
+        number(field(sb, "ac_"), v.getAc());
+        sb.append(',');
+        field(sb, "an_").append(v.getAn());
+        sb.append(',');
+        field(sb, "homc_").append(v.getHomc());
+        sb.append(',');
+        field(sb, "hetc_").append(v.getHetc());
+        sb.append(',');
+        field(sb, "misc_").append(v.getMisc());
+        sb.append(',');
+        field(sb, "homfc_").append(v.getHomfc());
+        sb.append(',');
+        field(sb, "hetfc_").append(v.getHetfc());
+        sb.append(',');
+        field(sb, "misfc_").append(v.getMisfc());
+        sb.append(',');
+        number(field(sb, "gnomadAf_"), v.getGnomadAf());
+        return sb.append('}');
+    }
+
+    private static StringBuilder field(StringBuilder sb, String name) {
+        return sb.append('"').append(name).append("\":");
+    }
+
+    // as Gson: shortest representation which round trips float, e.g. 0.1 and 3.0
+    private static void number(StringBuilder sb, float value) {
+        if (Float.isFinite(value)) {
+            sb.append(value);
+        } else {
+            sb.append("null");
+        }
+    }
+
+    private static void string(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
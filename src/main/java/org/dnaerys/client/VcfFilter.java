@@ -0,0 +1,121 @@
+package org.dnaerys.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reduces a single sample VCF to what SampleKinship counts, in one streaming pass.
+ * <p>
+ * Only autosomal biallelic SNVs with a fully called diploid genotype of the first sample are kept, each as
+ * a minimal record (no ID, QUAL, FILTER, INFO or other FORMAT fields), under a minimal header. Input is read
+ * line by line, gzip is detected by magic bytes, so a whole genome VCF is never held in memory, only the
+ * accepted records of it.
+ */
+public final class VcfFilter {
+
+    public record Result(String vcf, int accepted, int skipped) {}
+
+    private static final String SAMPLE = "SAMPLE";
+
+    private VcfFilter() {}
+
+    public static Result filter(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            InputStream buffered = new BufferedInputStream(in, 1 << 16);
+            buffered.mark(2);
+            boolean gzip = buffered.read() == 0x1f && buffered.read() == 0x8b;
+            buffered.reset();
+            InputStream data = gzip ? new GZIPInputStream(buffered, 1 << 16) : buffered;
+            return filter(new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8), 1 << 16));
+        }
+    }
+
+    public static Result filter(String text) {
+        try {
+            return filter(new BufferedReader(new StringReader(text)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // not thrown by StringReader
+        }
+    }
+
+    public static Result filter(BufferedReader reader) throws IOException {
+        StringBuilder vcf = new StringBuilder();
+        boolean header = false;
+        int accepted = 0;
+        int skipped = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("##") || line.isBlank()) continue;
+            String[] f = line.split("\t", 11);
+            if (line.startsWith("#")) {
+                if (!header) vcf.append(header(f.length > 9 ? f[9] : SAMPLE));
+                header = true;
+                continue;
+            }
+            String gt = f.length > 9 ? genotype(f[8], f[9]) : null;
+            if (gt == null || !isAutosome(f[0]) || !isBase(f[3]) || !isBase(f[4])) {
+                skipped++;
+                continue;
+            }
+            vcf.append(f[0]).append('\t').append(f[1]).append("\t.\t")
+                .append(f[3].toUpperCase()).append('\t').append(f[4].toUpperCase())
+                .append("\t.\t.\t.\tGT\t").append(gt).append('\n');
+            accepted++;
+        }
+        if (!header) vcf.insert(0, header(SAMPLE));
+        return new Result(vcf.toString(), accepted, skipped);
+    }
+
+    private static String header(String sample) {
+        return "##fileformat=VCFv4.2\n#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\t" + sample + "\n";
+    }
+
+    // 1..22, with or without 'chr'
+    static boolean isAutosome(String chrom) {
+        String c = chrom.regionMatches(true, 0, "chr", 0, 3) ? chrom.substring(3) : chrom;
+        if (c.isEmpty() || c.length() > 2) return false;
+        for (int i = 0; i < c.length(); i++) {
+            if (c.charAt(i) < '0' || c.charAt(i) > '9') return false;
+        }
+        int n = Integer.parseInt(c);
+        return n >= 1 && n <= 22;
+    }
+
+    // single base, so that multiallelic ALT (with comma), indels and symbolic alleles are rejected
+    private static boolean isBase(String allele) {
+        if (allele.length() != 1) return false;
+        char c = Character.toUpperCase(allele.charAt(0));
+        return c == 'A' || c == 'C' || c == 'G' || c == 'T';
+    }
+
+    // GT of the sample as 0/1, 1|1 etc.; null if missing, not diploid or refers to other than the first ALT
+    private static String genotype(String format, String sample) {
+        int index = 0;
+        int from = 0;
+        while (true) {
+            int to = format.indexOf(':', from);
+            String key = to < 0 ? format.substring(from) : format.substring(from, to);
+            if (key.equals("GT")) break;
+            if (to < 0) return null;
+            index++;
+            from = to + 1;
+        }
+        String[] values = sample.split(":", index + 2);
+        if (values.length <= index) return null;
+        String gt = values[index];
+        if (gt.length() != 3) return null;
+        char a = gt.charAt(0);
+        char sep = gt.charAt(1);
+        char b = gt.charAt(2);
+        if ((a != '0' && a != '1') || (b != '0' && b != '1') || (sep != '/' && sep != '|')) return null;
+        return gt;
+    }
+}
@@ -2,24 +2,14 @@ package org.dnaerys.client.entity;
 
 import org.dnaerys.cluster.grpc.AlphaMissense;
 
-public class AlphaMissenseMapper {
-    public static AlphaMissense fromString(String am) {
-        if (am == null) return AlphaMissense.UNRECOGNIZED;
-
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = am
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+import java.util.Map;
 
-        String prefix = "AM_";
-        String amNormalized = prefix + normalized;
+public class AlphaMissenseMapper {
+    // AM_ prefix is optional: likely_benign or am_likely_benign
+    private static final EnumLookup<AlphaMissense> LOOKUP =
+        new EnumLookup<>(AlphaMissense.class, AlphaMissense.UNRECOGNIZED, "AM_", Map.of());
 
-        try {
-            return AlphaMissense.valueOf(amNormalized);
-        } catch (IllegalArgumentException e) {
-            return AlphaMissense.UNRECOGNIZED;
-        }
+    public static AlphaMissense fromString(String am) {
+        return LOOKUP.get(am);
     }
 }
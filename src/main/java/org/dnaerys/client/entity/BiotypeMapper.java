@@ -2,21 +2,17 @@ package org.dnaerys.client.entity;
 
 import org.dnaerys.cluster.grpc.BioType;
 
-public class BiotypeMapper {
-    public static BioType fromString(String biotype) {
-        if (biotype == null) return BioType.UNRECOGNIZED;
+import java.util.Map;
 
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = biotype
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+public class BiotypeMapper {
+    // Ensembl spellings
+    private static final EnumLookup<BioType> LOOKUP =
+        new EnumLookup<>(BioType.class, BioType.UNRECOGNIZED, null, Map.of(
+            "misc_RNA", BioType.MISCRNA,
+            "vault_RNA", BioType.VAULTRNA,
+            "NMD", BioType.NONSENSE_MEDIATED_DECAY));
 
-        try {
-            return BioType.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return BioType.UNRECOGNIZED;
-        }
+    public static BioType fromString(String biotype) {
+        return LOOKUP.get(biotype);
     }
-}
\ No newline at end of file
+}
@@ -2,21 +2,18 @@ package org.dnaerys.client.entity;
 
 import org.dnaerys.cluster.grpc.ClinSignificance;
 
-public class ClinSigMapper {
-    public static ClinSignificance fromString(String clinSig) {
-        if (clinSig == null) return ClinSignificance.UNRECOGNIZED;
+import java.util.Map;
 
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = clinSig
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+public class ClinSigMapper {
+    // ClinVar spellings; benign is CLNSIG_BENIGN in the enum
+    private static final EnumLookup<ClinSignificance> LOOKUP =
+        new EnumLookup<>(ClinSignificance.class, ClinSignificance.UNRECOGNIZED, null, Map.of(
+            "benign", ClinSignificance.CLNSIG_BENIGN,
+            "VUS", ClinSignificance.UNCERTAIN_SIGNIFICANCE,
+            "conflicting_interpretations_of_pathogenicity", ClinSignificance.CONFLICTING_INTERPRETATIONS,
+            "conflicting_classifications_of_pathogenicity", ClinSignificance.CONFLICTING_INTERPRETATIONS));
 
-        try {
-            return ClinSignificance.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return ClinSignificance.UNRECOGNIZED;
-        }
+    public static ClinSignificance fromString(String clinSig) {
+        return LOOKUP.get(clinSig);
     }
-}
\ No newline at end of file
+}
@@ -2,21 +2,20 @@ package org.dnaerys.client.entity;
 
 import org.dnaerys.cluster.grpc.Consequence;
 
-public class ConsequencesMapper {
-    public static Consequence fromString(String so) {
-        if (so == null) return Consequence.UNRECOGNIZED;
+import java.util.Map;
 
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = so
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+public class ConsequencesMapper {
+    // SO terms starting with digits, and common short names
+    private static final EnumLookup<Consequence> LOOKUP =
+        new EnumLookup<>(Consequence.class, Consequence.UNRECOGNIZED, null, Map.of(
+            "5_prime_UTR_variant", Consequence.FIVE_PRIME_UTR_VARIANT,
+            "3_prime_UTR_variant", Consequence.THREE_PRIME_UTR_VARIANT,
+            "missense", Consequence.MISSENSE_VARIANT,
+            "synonymous", Consequence.SYNONYMOUS_VARIANT,
+            "frameshift", Consequence.FRAMESHIFT_VARIANT,
+            "nonsense", Consequence.STOP_GAINED));
 
-        try {
-            return Consequence.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return Consequence.UNRECOGNIZED;
-        }
+    public static Consequence fromString(String so) {
+        return LOOKUP.get(so);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package org.dnaerys.client.entity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Case-insensitive lookup of protobuf enum constants by name, used by mappers of filter values.
+ * <p>
+ * Table is built once per enum from its constants, with an optional prefix made optional (AM_LIKELY_BENIGN
+ * is found by 'likely benign' as well), and with synonyms (e.g. ClinVar and VEP spellings which differ
+ * from constant names). Keys are normalized the same way as input: trimmed, upper case, underscores
+ * instead of spaces and dashes. Unknown names map to the given default without throwing.
+ */
+public final class EnumLookup<E extends Enum<E>> {
+
+    private final Map<String, E> table;
+    private final E unrecognized;
+
+    public EnumLookup(Class<E> type, E unrecognized, String prefix, Map<String, E> synonyms) {
+        Map<String, E> t = new HashMap<>();
+        for (E e : type.getEnumConstants()) {
+            if (e == unrecognized) continue;
+            t.put(e.name(), e);
+            if (prefix != null && e.name().startsWith(prefix)) {
+                t.putIfAbsent(e.name().substring(prefix.length()), e);
+            }
+        }
+        synonyms.forEach((name, e) -> t.put(normalize(name), e));
+        this.table = Map.copyOf(t);
+        this.unrecognized = unrecognized;
+    }
+
+    public EnumLookup(Class<E> type, E unrecognized) {
+        this(type, unrecognized, null, Map.of());
+    }
+
+    public E get(String name) {
+        if (name == null) return unrecognized;
+        return table.getOrDefault(normalize(name), unrecognized);
+    }
+
+    // uppercase, underscores instead of spaces or dashes
+    static String normalize(String name) {
+        String s = name.strip();
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char n = (c == ' ' || c == '-') ? '_' : Character.toUpperCase(c);
+            if (n != c && sb == null) {
+                sb = new StringBuilder(s.length()).append(s, 0, i);
+            }
+            if (sb != null) sb.append(n);
+        }
+        return sb == null ? s : sb.toString();
+    }
+}
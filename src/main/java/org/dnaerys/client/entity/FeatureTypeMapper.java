@@ -2,21 +2,16 @@ package org.dnaerys.client.entity;
 
 import org.dnaerys.cluster.grpc.FeatureType;
 
-public class FeatureTypeMapper {
-    public static FeatureType fromString(String feature) {
-        if (feature == null) return FeatureType.UNRECOGNIZED;
+import java.util.Map;
 
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = feature
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+public class FeatureTypeMapper {
+    // snake case spellings
+    private static final EnumLookup<FeatureType> LOOKUP =
+        new EnumLookup<>(FeatureType.class, FeatureType.UNRECOGNIZED, null, Map.of(
+            "regulatory_feature", FeatureType.REGULATORYFEATURE,
+            "motif_feature", FeatureType.MOTIFFEATURE));
 
-        try {
-            return FeatureType.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return FeatureType.UNRECOGNIZED;
-        }
+    public static FeatureType fromString(String feature) {
+        return LOOKUP.get(feature);
     }
-}
\ No newline at end of file
+}
@@ -3,20 +3,9 @@ package org.dnaerys.client.entity;
 import org.dnaerys.cluster.grpc.Impact;
 
 public class ImpactMapper {
-    public static Impact fromString(String impact) {
-        if (impact == null) return Impact.UNRECOGNIZED;
-
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = impact
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+    private static final EnumLookup<Impact> LOOKUP = new EnumLookup<>(Impact.class, Impact.UNRECOGNIZED);
 
-        try {
-            return Impact.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return Impact.UNRECOGNIZED;
-        }
+    public static Impact fromString(String impact) {
+        return LOOKUP.get(impact);
     }
-}
\ No newline at end of file
+}
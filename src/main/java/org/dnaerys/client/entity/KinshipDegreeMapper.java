@@ -0,0 +1,19 @@
+package org.dnaerys.client.entity;
+
+import org.dnaerys.cluster.grpc.KinshipDegree;
+
+import java.util.Map;
+
+public class KinshipDegreeMapper {
+    private static final EnumLookup<KinshipDegree> LOOKUP =
+        new EnumLookup<>(KinshipDegree.class, KinshipDegree.UNRECOGNIZED, null, Map.of(
+            "TWINS", KinshipDegree.TWINS_MONOZYGOTIC,
+            "DUPLICATE", KinshipDegree.TWINS_MONOZYGOTIC,
+            "FIRST", KinshipDegree.FIRST_DEGREE,
+            "SECOND", KinshipDegree.SECOND_DEGREE,
+            "THIRD", KinshipDegree.THIRD_DEGREE));
+
+    public static KinshipDegree fromString(String degree) {
+        return LOOKUP.get(degree);
+    }
+}
@@ -3,20 +3,9 @@ package org.dnaerys.client.entity;
 import org.dnaerys.cluster.grpc.PolyPhen;
 
 public class PolyPhenMapper {
-    public static PolyPhen fromString(String polyPhen) {
-        if (polyPhen == null) return PolyPhen.UNRECOGNIZED;
-
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = polyPhen
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+    private static final EnumLookup<PolyPhen> LOOKUP = new EnumLookup<>(PolyPhen.class, PolyPhen.UNRECOGNIZED);
 
-        try {
-            return PolyPhen.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return PolyPhen.UNRECOGNIZED;
-        }
+    public static PolyPhen fromString(String polyPhen) {
+        return LOOKUP.get(polyPhen);
     }
-}
\ No newline at end of file
+}
@@ -2,21 +2,23 @@ package org.dnaerys.client.entity;
 
 import org.dnaerys.cluster.grpc.SIFT;
 
+import java.util.Set;
+
 public class SIFTMapper {
-    public static SIFT fromString(String sift) {
-        if (sift == null) return SIFT.UNRECOGNIZED;
+    private static final EnumLookup<SIFT> LOOKUP = new EnumLookup<>(SIFT.class, SIFT.UNRECOGNIZED);
 
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = sift
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+    // VEP low confidence predictions have no terms of their own in the database; mapping them to
+    // TOLERATED / DELETERIOUS would widen a low confidence filter into a full confidence one
+    private static final Set<String> LOW_CONFIDENCE = Set.of("TOLERATED_LOW_CONFIDENCE", "DELETERIOUS_LOW_CONFIDENCE");
 
-        try {
-            return SIFT.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return SIFT.UNRECOGNIZED;
+    /**
+     * @throws IllegalArgumentException for VEP low confidence predictions, which cannot be selected separately
+     */
+    public static SIFT fromString(String sift) {
+        if (sift != null && LOW_CONFIDENCE.contains(EnumLookup.normalize(sift))) {
+            throw new IllegalArgumentException("SIFT low confidence predictions are not distinguished in the database: "
+                + sift + ". Use TOLERATED or DELETERIOUS, which include low confidence ones.");
         }
+        return LOOKUP.get(sift);
     }
-}
\ No newline at end of file
+}
@@ -2,21 +2,22 @@ package org.dnaerys.client.entity;
 
 import org.dnaerys.cluster.grpc.VariantType;
 
-public class VariantTypeMapper {
-    public static VariantType fromString(String vt) {
-        if (vt == null) return VariantType.UNRECOGNIZED;
+import java.util.Map;
 
-        // Normalize input: uppercase, underscores instead of spaces or dashes
-        String normalized = vt
-            .trim()
-            .toUpperCase()
-            .replace(' ', '_')
-            .replace('-', '_');
+public class VariantTypeMapper {
+    // VCF and common abbreviations
+    private static final EnumLookup<VariantType> LOOKUP =
+        new EnumLookup<>(VariantType.class, VariantType.UNRECOGNIZED, null, Map.of(
+            "SNP", VariantType.SNV,
+            "MNV", VariantType.SUBSTITUTION,
+            "INS", VariantType.INSERTION,
+            "DEL", VariantType.DELETION,
+            "DUP", VariantType.DUPLICATION,
+            "INV", VariantType.INVERSION,
+            "CNV", VariantType.COPY_NUMBER_VARIATION,
+            "STR", VariantType.SHORT_TANDEM_REPEAT_VARIATION));
 
-        try {
-            return VariantType.valueOf(normalized);
-        } catch (IllegalArgumentException e) {
-            return VariantType.UNRECOGNIZED;
-        }
+    public static VariantType fromString(String vt) {
+        return LOOKUP.get(vt);
     }
-}
\ No newline at end of file
+}
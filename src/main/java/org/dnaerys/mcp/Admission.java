@@ -0,0 +1,20 @@
+package org.dnaerys.mcp;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tool calls are admitted by {@link AdmissionInterceptor} under limits of a given query class.
+ * Session is taken from McpConnection parameter of the tool method.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Admission {
+    @Nonbinding QueryClass value();
+}
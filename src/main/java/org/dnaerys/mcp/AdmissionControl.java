@@ -0,0 +1,170 @@
+package org.dnaerys.mcp;
+
+import io.quarkiverse.mcp.server.ToolCallException;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.dnaerys.client.ReadConfig;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control in front of DnaerysClient.
+ * <p>
+ * Each query class has a gate with global and per-session in-flight limits. Calls above the limits wait
+ * in a bounded queue (also bounded per session) for up to a timeout, and are rejected with a "busy"
+ * tool error when the queue is full or the timeout expires. A session looping over thousands of samples
+ * thus holds at most its own quota and cannot starve other sessions.
+ */
+@ApplicationScoped
+public class AdmissionControl {
+
+    private final Map<QueryClass, Gate> gates = new EnumMap<>(QueryClass.class);
+
+    public AdmissionControl() {
+        for (QueryClass qc : QueryClass.values()) {
+            String prefix = qc.configPrefix();
+            gates.put(qc, new Gate(qc.name(),
+                ReadConfig.getInt(prefix + "maxInFlight", qc.maxInFlight),
+                ReadConfig.getInt(prefix + "maxInFlightPerSession", qc.maxInFlightPerSession),
+                ReadConfig.getInt(prefix + "maxQueued", qc.maxQueued),
+                ReadConfig.getInt(prefix + "maxQueuedPerSession", qc.maxQueuedPerSession),
+                ReadConfig.getLong(prefix + "timeoutMs", qc.timeoutMs)));
+        }
+    }
+
+    public Gate gate(QueryClass queryClass) {
+        return gates.get(queryClass);
+    }
+
+    public static class Gate {
+        private final String name;
+        private final int maxInFlight;
+        private final int maxInFlightPerSession;
+        private final int maxQueued;
+        private final int maxQueuedPerSession;
+        private final long timeoutMs;
+
+        // queued callers park on released and all recheck admissibility on every release, as per session
+        // limits may admit any of them
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<String, Counts> sessions = new HashMap<>();
+        private int inFlight;
+        private int queued;
+
+        private static class Counts {
+            int inFlight;
+            int queued;
+        }
+
+        public Gate(String name, int maxInFlight, int maxInFlightPerSession, int maxQueued, int maxQueuedPerSession, long timeoutMs) {
+            this.name = name;
+            this.maxInFlight = maxInFlight;
+            this.maxInFlightPerSession = maxInFlightPerSession;
+            this.maxQueued = maxQueued;
+            this.maxQueuedPerSession = maxQueuedPerSession;
+            this.timeoutMs = timeoutMs;
+        }
+
+        /**
+         * Blocks until the call is admitted for a session.
+         *
+         * @throws ToolCallException when queue is full, wait times out or waiting thread is interrupted
+         */
+        public void acquire(String session) {
+            lock.lock();
+            try {
+                Counts s = sessions.computeIfAbsent(session, k -> new Counts());
+                try {
+                    if (!admissible(s)) {
+                        if (s.queued >= maxQueuedPerSession) {
+                            throw busy("too many " + name + " queries pending in this session (in flight: " +
+                                s.inFlight + ", queued: " + s.queued + ")");
+                        }
+                        if (queued >= maxQueued) {
+                            throw busy("too many " + name + " queries pending (queued: " + queued + ")");
+                        }
+                        await(s);
+                    }
+                } catch (ToolCallException e) {
+                    forgetIfIdle(session, s);
+                    throw e;
+                }
+                s.inFlight++;
+                inFlight++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void await(Counts s) {
+            queued++;
+            s.queued++;
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+                while (!admissible(s)) {
+                    if (nanos <= 0) {
+                        throw busy(name + " query waited " + timeoutMs + " ms for admission");
+                    }
+                    nanos = released.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ToolCallException("Query cancelled while waiting for admission");
+            } finally {
+                queued--;
+                s.queued--;
+            }
+        }
+
+        public void release(String session) {
+            lock.lock();
+            try {
+                Counts s = sessions.get(session);
+                s.inFlight--;
+                inFlight--;
+                forgetIfIdle(session, s);
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean admissible(Counts s) {
+            return inFlight < maxInFlight && s.inFlight < maxInFlightPerSession;
+        }
+
+        // per-session state does not outlive session's last call
+        private void forgetIfIdle(String session, Counts s) {
+            if (s.inFlight == 0 && s.queued == 0) {
+                sessions.remove(session);
+            }
+        }
+
+        private ToolCallException busy(String reason) {
+            return new ToolCallException("Server is busy: " + reason + ". Retry later or reduce the number of parallel calls.");
+        }
+
+        public int inFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int queued() {
+            lock.lock();
+            try {
+                return queued;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
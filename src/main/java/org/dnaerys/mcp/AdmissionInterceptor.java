@@ -0,0 +1,49 @@
+package org.dnaerys.mcp;
+
+import io.quarkiverse.mcp.server.McpConnection;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Admits tool calls annotated with {@link Admission} through {@link AdmissionControl}.
+ * MCP session is identified by McpConnection argument of the tool method; calls without it share one session.
+ */
+@Admission(QueryClass.INFO)
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class AdmissionInterceptor {
+
+    private static final String NO_SESSION = "";
+
+    @Inject
+    AdmissionControl admissionControl;
+
+    @AroundInvoke
+    Object admit(InvocationContext ctx) throws Exception {
+        Admission admission = ctx.getInterceptorBinding(Admission.class);
+        AdmissionControl.Gate gate = admissionControl.gate(admission.value());
+        String session = session(ctx.getParameters());
+        gate.acquire(session);
+        try {
+            return ctx.proceed();
+        } finally {
+            gate.release(session);
+        }
+    }
+
+    static String session(Object[] parameters) {
+        for (Object p : parameters) {
+            if (p instanceof McpConnection connection) {
+                return connection.id();
+            }
+        }
+        return NO_SESSION;
+    }
+
+    static String session(McpConnection connection) {
+        return connection == null ? NO_SESSION : connection.id();
+    }
+}
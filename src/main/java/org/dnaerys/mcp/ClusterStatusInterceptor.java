@@ -0,0 +1,74 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.grpc.Status;
+import io.quarkiverse.mcp.server.ToolCallException;
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.dnaerys.client.ClusterStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks cluster calls made by a tool and reflects their status in the tool result, so that agents
+ * can tell partial results from authoritative ones.
+ * <ul>
+ *   <li>failed calls, including ones rejected by an open circuit breaker, become tool errors
+ *       instead of empty results</li>
+ *   <li>results possibly affected by unreachable nodes are marked: list results get a leading
+ *       {"incomplete_cluster":true,"affected":true,...} element, JSON objects get the same fields,
+ *       scalars become a tool error carrying the partial value</li>
+ * </ul>
+ * Results from an incomplete cluster which unreachable nodes could not affect are returned as is.
+ */
+@Admission(QueryClass.INFO)
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION + 10)
+public class ClusterStatusInterceptor {
+
+    static final String NOTE = "some cluster nodes are unreachable, result may be incomplete";
+
+    @AroundInvoke
+    Object track(InvocationContext ctx) throws Exception {
+        ClusterStatus status = new ClusterStatus();
+        Object result = status.run(ctx::proceed);
+        Status failure = status.failure();
+        if (failure != null) {
+            throw new ToolCallException("Dnaerys cluster request failed: " + failure.getCode()
+                + (failure.getDescription() == null ? "" : " (" + failure.getDescription() + ")"));
+        }
+        return status.affected() ? mark(result) : result;
+    }
+
+    static Object mark(Object result) {
+        if (result instanceof List<?> list) {
+            List<Object> marked = new ArrayList<>(list.size() + 1);
+            marked.add(marker().toString());
+            marked.addAll(list);
+            return marked;
+        }
+        if (result instanceof String s) {
+            try {
+                if (JsonParser.parseString(s) instanceof JsonObject json) {
+                    marker().entrySet().forEach(e -> json.add(e.getKey(), e.getValue()));
+                    return json.toString();
+                }
+            } catch (RuntimeException ignored) {
+                // not JSON, reported as a scalar below
+            }
+        }
+        throw new ToolCallException("Incomplete result from Dnaerys cluster: " + result + " (" + NOTE + ")");
+    }
+
+    private static JsonObject marker() {
+        JsonObject marker = new JsonObject();
+        marker.addProperty("incomplete_cluster", true);
+        marker.addProperty("affected", true);
+        marker.addProperty("note", NOTE);
+        return marker;
+    }
+}
@@ -17,13 +17,22 @@
 package org.dnaerys.mcp;
 
 import org.dnaerys.client.DnaerysClient;
+import org.dnaerys.client.GrpcChannel;
+import org.dnaerys.client.ReadConfig;
+import io.quarkiverse.mcp.server.McpConnection;
+import io.quarkiverse.mcp.server.Progress;
+import io.quarkiverse.mcp.server.ProgressTracker;
 import io.quarkiverse.mcp.server.Tool;
 import io.quarkiverse.mcp.server.ToolArg;
+import io.quarkiverse.mcp.server.ToolCallException;
 import io.quarkus.logging.Log;
 import io.quarkus.runtime.Startup;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 @SuppressWarnings("unused")
 @ApplicationScoped
@@ -32,45 +41,111 @@ public class OneKGPMCPServer {
     private final DnaerysClient client = new DnaerysClient();
 
     @Startup
-    void init() { Log.info("Starting Dnaerys OneKGP MCP server..."); }
+    void init() {
+        Log.info("Starting Dnaerys OneKGP MCP server...");
+        // connects to the cluster in background, without delaying MCP initialization
+        Thread.ofVirtual().name("dnaerys-warmup").start(OneKGPMCPServer::warmUp);
+    }
+
+    private static void warmUp() {
+        long timeoutMs = ReadConfig.getLong("warmup.timeoutMs", 10_000);
+        try {
+            Log.infof("Dnaerys cluster warm-up: Health in %d ms", GrpcChannel.warmUp(timeoutMs));
+        } catch (Exception e) {
+            Log.warnf("Dnaerys cluster warm-up failed within %d ms: %s", timeoutMs, e.getMessage());
+        }
+    }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of samples in 1000 Genomes Project")
-    public Long countSamplesTotal() {
+    public Long countSamplesTotal(McpConnection connection) {
         return client.countSamplesTotal();
     }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of female samples in 1000 Genomes Project")
-    public Long countFemaleSamplesTotal() {
+    public Long countFemaleSamplesTotal(McpConnection connection) {
         return client.countFemaleSamplesTotal();
     }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of male samples in 1000 Genomes Project")
-    public Long countMaleSamplesTotal() {
+    public Long countMaleSamplesTotal(McpConnection connection) {
         return client.countMaleSamplesTotal();
     }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns all sample ID in 1000 Genomes Project")
-    public List<String> sampleIds() {
+    public List<String> sampleIds(McpConnection connection) {
         return client.samplesIds();
     }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns all female samples ID in 1000 Genomes Project")
-    public List<String> femaleSamplesIds() {
+    public List<String> femaleSamplesIds(McpConnection connection) {
         return client.femaleSamplesIds();
     }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns all male samples ID in 1000 Genomes Project")
-    public List<String> maleSamplesIds() {
+    public List<String> maleSamplesIds(McpConnection connection) {
         return client.maleSamplesIds();
     }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
+    @Tool(description = "Defines a named sample set in 1000 Genomes Project for this session, so that a large group of " +
+                        "samples (a population, a case group, affected family members) is given by name to later tools " +
+                        "instead of a list of sample IDs: caseCohorts of association tools, cohort of kinshipInCohort and " +
+                        "polygenicRiskScore, cohorts of sexMismatchCheck and fstatX. " +
+                        "A set is the union of sampleIds and cohorts (populations), all samples if neither is given, " +
+                        "optionally restricted to one sex. Samples found by selectSamplesWithVariants and similar tools " +
+                        "can be kept as a set with their saveAs argument. Redefining a name replaces the set. " +
+                        "Returns a json with name and number of samples, females and males; if any of sample IDs or " +
+                        "cohorts is not known, the set is not defined and unknown_samples and unknown_cohorts are returned. " +
+                        "Returns an empty json if input is invalid.")
+    public String defineSampleSet(
+                            @ToolArg(description = "name of the sample set") String name,
+                            @ToolArg(description = "comma separated list of sample IDs", required = false) String sampleIds,
+                            @ToolArg(description = "comma separated list of cohort names", required = false) String cohorts,
+                            @ToolArg(description = "female or male", required = false) String sex,
+                            McpConnection connection) {
+        return client.defineSampleSet(AdmissionInterceptor.session(connection), name, samples(sampleIds), cohorts, sex);
+    }
+
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
+    @Tool(description = "Returns sample sets defined in this session, as a json of set names with number of samples in each.")
+    public String sampleSets(McpConnection connection) {
+        return client.sampleSets(AdmissionInterceptor.session(connection));
+    }
+
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
+    @Tool(description = "Deletes a sample set defined in this session. Returns true if the set was defined.")
+    public Boolean deleteSampleSet(
+                            @ToolArg(description = "name of the sample set") String name,
+                            McpConnection connection) {
+        return client.deleteSampleSet(AdmissionInterceptor.session(connection), name);
+    }
+
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of variants in 1000 Genomes Project")
-    public Long variantsTotal() {
+    public Long variantsTotal(McpConnection connection) {
         return client.variantsTotal();
     }
 
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of nodes in database cluster")
-    public Long nodesTotal() {
+    public Long nodesTotal(McpConnection connection) {
         return client.nodesTotal();
     }
 
@@ -89,6 +164,8 @@ public class OneKGPMCPServer {
      *     iterated variants one-by-one. Perhaps, depends on context.
      */
 
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of variants in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
@@ -164,7 +241,8 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = true;
         return client.countVariantsInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
@@ -172,6 +250,8 @@ public class OneKGPMCPServer {
                                             biotype, feature, variantType, consequences, alphaMissense, clinSignificance);
     }
 
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of Homozygous variants in a region 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
@@ -247,7 +327,8 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = false;
         return client.countVariantsInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
@@ -255,6 +336,8 @@ public class OneKGPMCPServer {
                                             biotype, feature, variantType, consequences, alphaMissense, clinSignificance);
     }
 
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of Heterozygous variants in a region 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
@@ -330,7 +413,8 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = false;
         boolean selectHet = true;
         return client.countVariantsInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
@@ -338,6 +422,8 @@ public class OneKGPMCPServer {
                                             biotype, feature, variantType, consequences, alphaMissense, clinSignificance);
     }
 
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of variants in sample in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
@@ -415,7 +501,8 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = true;
         return client.countVariantsInRegionInSample(chromosome, start, end, sampleId, selectHom, selectHet, refAllele, altAllele,
@@ -424,6 +511,8 @@ public class OneKGPMCPServer {
                                                     clinSignificance);
     }
 
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of Homozygous variants in sample in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
@@ -501,7 +590,8 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = false;
         return client.countVariantsInRegionInSample(chromosome, start, end, sampleId, selectHom, selectHet, refAllele, altAllele,
@@ -510,6 +600,8 @@ public class OneKGPMCPServer {
                                                     clinSignificance);
     }
 
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
     @Tool(description = "Returns number of Heterozygous variants in sample in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
@@ -587,7 +679,8 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = false;
         boolean selectHet = true;
         return client.countVariantsInRegionInSample(chromosome, start, end, sampleId, selectHom, selectHet, refAllele, altAllele,
@@ -596,6 +689,8 @@ public class OneKGPMCPServer {
                                                     clinSignificance);
     }
 
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
     @Tool(description = "Returns variants in a region in 1000 Genomes Project. " +
                         "Returns an empty json if no variants are found (empty json is NOT an error). " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
@@ -675,7 +770,8 @@ public class OneKGPMCPServer {
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
                             @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = true;
         return client.selectVariantsInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
@@ -683,6 +779,8 @@ public class OneKGPMCPServer {
                                              feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
     }
 
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
     @Tool(description = "Returns only Homozygous variants in a region in 1000 Genomes Project. " +
                         "Returns an empty json if no variants are found (empty json is NOT an error). " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
@@ -762,7 +860,8 @@ public class OneKGPMCPServer {
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
                             @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = false;
         return client.selectVariantsInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
@@ -770,6 +869,8 @@ public class OneKGPMCPServer {
                                              feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
     }
 
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
     @Tool(description = "Returns only Heterozygous variants in a region in 1000 Genomes Project. " +
                         "Returns an empty json if no variants are found (empty json is NOT an error). " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
@@ -849,7 +950,8 @@ public class OneKGPMCPServer {
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
                             @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
         boolean selectHom = false;
         boolean selectHet = true;
         return client.selectVariantsInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
@@ -857,6 +959,8 @@ public class OneKGPMCPServer {
                                              feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
     }
 
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
     @Tool(description = "Returns variants in sample in a region in 1000 Genomes Project. " +
                         "Returns an empty json if no variants are found (empty json is NOT an error). " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
@@ -938,7 +1042,8 @@ public class OneKGPMCPServer {
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
                             @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = true;
         return client.selectVariantsInRegionInSample(chromosome, start, end, sampleId, selectHom, selectHet, refAllele, altAllele,
@@ -947,6 +1052,8 @@ public class OneKGPMCPServer {
                                                      clinSignificance, skip, limit);
     }
 
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
     @Tool(description = "Returns only Homozygous variants in sample in a region in 1000 Genomes Project. " +
                         "Returns an empty json if no variants are found (empty json is NOT an error). " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
@@ -1028,7 +1135,8 @@ public class OneKGPMCPServer {
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
                             @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = false;
         return client.selectVariantsInRegionInSample(chromosome, start, end, sampleId, selectHom, selectHet, refAllele, altAllele,
@@ -1037,6 +1145,8 @@ public class OneKGPMCPServer {
                                                      clinSignificance, skip, limit);
     }
 
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
     @Tool(description = "Returns only Heterozygous variants in sample in a region in 1000 Genomes Project. " +
                         "Returns an empty json if no variants are found (empty json is NOT an error). " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
@@ -1118,7 +1228,8 @@ public class OneKGPMCPServer {
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
                             @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
         boolean selectHom = false;
         boolean selectHet = true;
         return client.selectVariantsInRegionInSample(chromosome, start, end, sampleId, selectHom, selectHet, refAllele, altAllele,
@@ -1127,8 +1238,13 @@ public class OneKGPMCPServer {
                                                      clinSignificance, skip, limit);
     }
 
-    @Tool(description = "Returns number of samples which have Homozygous or Heterozygous variants in a region in 1000 Genomes Project. " +
-                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns number of variants in a bracket in 1000 Genomes Project. " +
+                        "A bracket is defined by chromosome ID and ranges of variant start and end coordinates in GRCh38 assembly: " +
+                        "only variants with startMin <= start <= startMax and endMin <= end <= endMax are selected. " +
+                        "Bracket queries are intended for structural variants (deletions, duplications, inversions etc.) with imprecise breakpoints " +
+                        "and are much cheaper than selecting all variants in a wide region and filtering them afterwards. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
                         "Optional filtering by gnomAD AF. " +
@@ -1141,10 +1257,12 @@ public class OneKGPMCPServer {
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
                         "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
-    public Long countSamplesWithVariants(
+    public Long countVariantsInBracket(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
-                            @ToolArg(description = "start of region") int start,
-                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "minimal start position of variant") int startMin,
+                            @ToolArg(description = "maximal start position of variant") int startMax,
+                            @ToolArg(description = "minimal end position of variant") int endMin,
+                            @ToolArg(description = "maximal end position of variant") int endMax,
                             @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
                             @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
                             @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
@@ -1202,17 +1320,25 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = true;
-        return client.countSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
-                                           variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
-                                           feature, variantType, consequences, alphaMissense, clinSignificance);
+        return client.countVariantsInBracket(chromosome, startMin, startMax, endMin, endMax,
+                                            selectHom, selectHet, refAllele, altAllele, variantMinLength,
+                                            variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact,
+                                            biotype, feature, variantType, consequences, alphaMissense, clinSignificance);
     }
 
-    @Tool(description = "Returns number of samples which have Homozygous variants in a region in 1000 Genomes Project. " +
-                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns number of variants in sample in a bracket in 1000 Genomes Project. " +
+                        "A bracket is defined by chromosome ID and ranges of variant start and end coordinates in GRCh38 assembly: " +
+                        "only variants with startMin <= start <= startMax and endMin <= end <= endMax are selected. " +
+                        "Bracket queries are intended for structural variants (deletions, duplications, inversions etc.) with imprecise breakpoints " +
+                        "and are much cheaper than selecting all variants in a wide region and filtering them afterwards. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
+                        "Sample is defined by sample ID. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
                         "Optional filtering by gnomAD AF. " +
                         "Optional filtering by VEP impact terms. " +
@@ -1224,10 +1350,13 @@ public class OneKGPMCPServer {
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
                         "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
-    public Long countSamplesWithHomVariants(
+    public Long countVariantsInBracketInSample(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
-                            @ToolArg(description = "start of region") int start,
-                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "minimal start position of variant") int startMin,
+                            @ToolArg(description = "maximal start position of variant") int startMax,
+                            @ToolArg(description = "minimal end position of variant") int endMin,
+                            @ToolArg(description = "maximal end position of variant") int endMax,
+                            @ToolArg(description = "sample id") String sampleId,
                             @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
                             @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
                             @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
@@ -1285,16 +1414,25 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
         boolean selectHom = true;
-        boolean selectHet = false;
-        return client.countSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
-                                           variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
-                                           feature, variantType, consequences, alphaMissense, clinSignificance);
+        boolean selectHet = true;
+        return client.countVariantsInBracketInSample(chromosome, startMin, startMax, endMin, endMax,
+                                                    sampleId, selectHom, selectHet, refAllele, altAllele,
+                                                    variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
+                                                    impact, biotype, feature, variantType, consequences, alphaMissense,
+                                                    clinSignificance);
     }
 
-    @Tool(description = "Returns number of samples which have Heterozygous variants in a region in 1000 Genomes Project. " +
-                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns variants in a bracket in 1000 Genomes Project. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "A bracket is defined by chromosome ID and ranges of variant start and end coordinates in GRCh38 assembly: " +
+                        "only variants with startMin <= start <= startMax and endMin <= end <= endMax are selected. " +
+                        "Bracket queries are intended for structural variants (deletions, duplications, inversions etc.) with imprecise breakpoints " +
+                        "and are much cheaper than selecting all variants in a wide region and filtering them afterwards. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
                         "Optional filtering by gnomAD AF. " +
@@ -1306,11 +1444,14 @@ public class OneKGPMCPServer {
                         "Optional filtering by AlphaMissense class. " +
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
-                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
-    public Long countSamplesWithHetVariants(
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
+    public List<String> selectVariantsInBracket(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
-                            @ToolArg(description = "start of region") int start,
-                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "minimal start position of variant") int startMin,
+                            @ToolArg(description = "maximal start position of variant") int startMax,
+                            @ToolArg(description = "minimal end position of variant") int endMin,
+                            @ToolArg(description = "maximal end position of variant") int endMax,
                             @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
                             @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
                             @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
@@ -1368,18 +1509,28 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
-        boolean selectHom = false;
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
+        boolean selectHom = true;
         boolean selectHet = true;
-        return client.countSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
-                                           variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
-                                           feature, variantType, consequences, alphaMissense, clinSignificance);
+        return client.selectVariantsInBracket(chromosome, startMin, startMax, endMin, endMax,
+                                             selectHom, selectHet, refAllele, altAllele, variantMinLength,
+                                             variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
+                                             feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
     }
 
-    @Tool(description = "Returns unique samples which have Homozygous or Heterozygous variants in a region in 1000 Genomes Project. " +
-                        "Returns an empty json if no samples are found (empty json is NOT an error). " +
-                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns variants in sample in a bracket in 1000 Genomes Project. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "A bracket is defined by chromosome ID and ranges of variant start and end coordinates in GRCh38 assembly: " +
+                        "only variants with startMin <= start <= startMax and endMin <= end <= endMax are selected. " +
+                        "Bracket queries are intended for structural variants (deletions, duplications, inversions etc.) with imprecise breakpoints " +
+                        "and are much cheaper than selecting all variants in a wide region and filtering them afterwards. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
+                        "Sample is defined by sample ID. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
                         "Optional filtering by gnomAD AF. " +
                         "Optional filtering by VEP impact terms. " +
@@ -1390,11 +1541,15 @@ public class OneKGPMCPServer {
                         "Optional filtering by AlphaMissense class. " +
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
-                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
-    public List<String> selectSamplesWithVariants(
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
+    public List<String> selectVariantsInBracketInSample(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
-                            @ToolArg(description = "start of region") int start,
-                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "minimal start position of variant") int startMin,
+                            @ToolArg(description = "maximal start position of variant") int startMax,
+                            @ToolArg(description = "minimal end position of variant") int endMin,
+                            @ToolArg(description = "maximal end position of variant") int endMax,
+                            @ToolArg(description = "sample id") String sampleId,
                             @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
                             @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
                             @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
@@ -1452,33 +1607,44 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
         boolean selectHom = true;
         boolean selectHet = true;
-        return client.selectSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
-                                            variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
-                                            feature, variantType, consequences, alphaMissense, clinSignificance);
+        return client.selectVariantsInBracketInSample(chromosome, startMin, startMax, endMin, endMax,
+                                                     sampleId, selectHom, selectHet, refAllele, altAllele,
+                                                     variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
+                                                     impact, biotype, feature, variantType, consequences, alphaMissense,
+                                                     clinSignificance, skip, limit);
     }
 
-    @Tool(description = "Returns unique samples which have Homozygous variants in a region in 1000 Genomes Project. " +
-                        "Returns an empty json if no samples are found (empty json is NOT an error). " +
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Case/control allelic association test for variants in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
-                        "Optional ALT and REF alleles can be provided as selection parameters. " +
-                        "Optional filtering by gnomAD AF. " +
-                        "Optional filtering by VEP impact terms. " +
-                        "Optional filtering by VEP biotypes terms. " +
-                        "Optional filtering by VEP feature types terms. " +
-                        "Optional filtering by Sequence Ontology Variant Classes (types) terms. " +
-                        "Optional filtering by Sequence Ontology variant consequences. " +
-                        "Optional filtering by AlphaMissense class. " +
-                        "Optional filtering by ClinVar Clinical Significance annotations. " +
-                        "Optional filtering biallelic variants. " +
-                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
-    public List<String> selectSamplesWithHomVariants(
+                        "Cases are provided as a list of sample IDs and/or as names of sample sets (see defineSampleSet) or cohorts, " +
+                        "controls are all other samples in 1000 Genomes Project. " +
+                        "Only variants present in at least one case are tested. " +
+                        "Returns up to topK variants with the most significant p-value in Pearson's chi-squared test (pchi2_), " +
+                        "most significant first, with odds ratio (or_), allele frequency and counts within cases (vaf_, vac_, van_, " +
+                        "vhomc_, vhetc_) and the variant itself (allele_). Statistics are computed in the database; " +
+                        "variants outside of the test domain are skipped. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "Optional filtering by gnomAD AF, VEP impact, biotypes and feature types, Sequence Ontology Variant Classes " +
+                        "and consequences, AlphaMissense class, ClinVar Clinical Significance and biallelic variants, " +
+                        "as in selectVariantsInRegion. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "P-values are not corrected for multiple testing.")
+    public List<String> associationInRegion(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
                             @ToolArg(description = "start of region") int start,
                             @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "comma separated list of sample IDs of cases", required = false) String caseSamples,
+                            @ToolArg(description = "comma separated list of names of sample sets defined by defineSampleSet " +
+                                "or of cohorts (populations) of cases, added to caseSamples", required = false) String caseCohorts,
                             @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
                             @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
                             @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
@@ -1536,16 +1702,206 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
-        boolean selectHom = true;
-        boolean selectHet = false;
-        return client.selectSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
-                                            variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
-                                            feature, variantType, consequences, alphaMissense, clinSignificance);
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of most significant variants to return, max 100", required = false) Integer topK,
+                            McpConnection connection) {
+        return client.associationInRegion(chromosome, start, end, cases(caseSamples, caseCohorts, connection), refAllele, altAllele,
+                                          variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan,
+                                          gnomadAfGreaterThan, impact, biotype, feature, variantType, consequences,
+                                          alphaMissense, clinSignificance, topK);
     }
 
-    @Tool(description = "Returns unique samples which have Heterozygous variants in a region in 1000 Genomes Project. " +
-                        "Returns an empty json if no samples are found (empty json is NOT an error). " +
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Case/control allelic association test for variants in multiple regions (e.g. genes of a pathway) " +
+                        "in 1000 Genomes Project, in a single request. " +
+                        "Regions are given as a list of chromosome:start-end in GRCh38 assembly, e.g. '17:43044295-43125483, 13:32315508-32400268'. " +
+                        "Cases are provided as a list of sample IDs and/or as names of sample sets (see defineSampleSet) or cohorts, " +
+                        "controls are all other samples in 1000 Genomes Project. " +
+                        "Only variants present in at least one case are tested. " +
+                        "Returns up to topK variants with the most significant p-value in Pearson's chi-squared test (pchi2_), " +
+                        "most significant first, with odds ratio (or_), allele frequency and counts within cases (vaf_, vac_, van_, " +
+                        "vhomc_, vhetc_) and the variant itself (allele_). Statistics are computed in the database; " +
+                        "variants outside of the test domain are skipped. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "Optional filtering by gnomAD AF, VEP impact, biotypes and feature types, Sequence Ontology Variant Classes " +
+                        "and consequences, AlphaMissense class, ClinVar Clinical Significance and biallelic variants, " +
+                        "as in selectVariantsInRegion. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "P-values are not corrected for multiple testing.")
+    public List<String> associationInRegions(
+                            @ToolArg(description = "comma separated list of regions, each as chromosome:start-end, " +
+                                "e.g. 17:43044295-43125483") String regions,
+                            @ToolArg(description = "comma separated list of sample IDs of cases", required = false) String caseSamples,
+                            @ToolArg(description = "comma separated list of names of sample sets defined by defineSampleSet " +
+                                "or of cohorts (populations) of cases, added to caseSamples", required = false) String caseCohorts,
+                            @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
+                            @ToolArg(description = "maximal variant length", required = false) Integer variantMaxLength,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of VEP biotypes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "PROCESSED_TRANSCRIPT, LNCRNA, ANTISENSE, MACRO_LNCRNA, NON_CODING, RETAINED_INTRON, " +
+                                "SENSE_INTRONIC, SENSE_OVERLAPPING, LINCRNA, NCRNA, MIRNA, MISCRNA, PIRNA, RRNA, SIRNA, " +
+                                "SNRNA, SNORNA, TRNA, VAULTRNA, PROTEIN_CODING, PSEUDOGENE, IG_PSEUDOGENE, READTHROUGH, " +
+                                "STOP_CODON_READTHROUGH, TEC, TR_GENE, IG_GENE, NONSENSE_MEDIATED_DECAY",
+                                required = false) String biotype,
+                            @ToolArg(description = "A comma separated list of VEP feature types terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT, REGULATORYFEATURE, MOTIFFEATURE",
+                                required = false) String feature,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "SNV, INSERTION, DELETION, INDEL, SUBSTITUTION, INVERSION, TRANSLOCATION, DUPLICATION, SEQUENCE_ALTERATION",
+                                required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT_ABLATION, SPLICE_ACCEPTOR_VARIANT, SPLICE_DONOR_VARIANT, STOP_GAINED, FRAMESHIFT_VARIANT, " +
+                                "STOP_LOST, START_LOST, TRANSCRIPT_AMPLIFICATION, INFRAME_INSERTION, INFRAME_DELETION, MISSENSE_VARIANT, " +
+                                "PROTEIN_ALTERING_VARIANT, SPLICE_REGION_VARIANT, INCOMPLETE_TERMINAL_CODON_VARIANT, START_RETAINED_VARIANT, " +
+                                "STOP_RETAINED_VARIANT, SYNONYMOUS_VARIANT, CODING_SEQUENCE_VARIANT, MATURE_MIRNA_VARIANT, FIVE_PRIME_UTR_VARIANT, " +
+                                "THREE_PRIME_UTR_VARIANT, NON_CODING_TRANSCRIPT_EXON_VARIANT, INTRON_VARIANT, NMD_TRANSCRIPT_VARIANT, " +
+                                "NON_CODING_TRANSCRIPT_VARIANT, UPSTREAM_GENE_VARIANT, DOWNSTREAM_GENE_VARIANT, TFBS_ABLATION, TFBS_AMPLIFICATION, " +
+                                "TF_BINDING_SITE_VARIANT, REGULATORY_REGION_ABLATION, REGULATORY_REGION_AMPLIFICATION, FEATURE_ELONGATION, " +
+                                "REGULATORY_REGION_VARIANT, FEATURE_TRUNCATION, INTERGENIC_VARIANT, SPLICE_POLYPYRIMIDINE_TRACT_VARIANT, " +
+                                "SPLICE_DONOR_5TH_BASE_VARIANT, SPLICE_DONOR_REGION_VARIANT, CODING_TRANSCRIPT_VARIANT, SEQUENCE_VARIANT",
+                                required = false) String consequences,
+                            @ToolArg(description = "A comma separated list of AlphaMissense classes. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "LIKELY_BENIGN, LIKELY_PATHOGENIC, AMBIGUOUS",
+                                required = false) String alphaMissense,
+                            @ToolArg(description = "A comma separated list of ClinVar Clinical Significance annotations. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "CLNSIG_BENIGN, LIKELY_BENIGN, UNCERTAIN_SIGNIFICANCE, LIKELY_PATHOGENIC, PATHOGENIC, " +
+                                "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
+                                "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
+                                "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of most significant variants to return, max 100", required = false) Integer topK,
+                            McpConnection connection) {
+        return client.associationInRegions(regions, cases(caseSamples, caseCohorts, connection), variantMinLength, variantMaxLength,
+                                           biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                           variantType, consequences, alphaMissense, clinSignificance, topK);
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Genome wide case/control allelic association test in 1000 Genomes Project. " +
+                        "Cases are provided as a list of sample IDs and/or as names of sample sets (see defineSampleSet) or cohorts, " +
+                        "controls are all other samples in 1000 Genomes Project. " +
+                        "Returns up to n variants with the most significant p-value in Pearson's chi-squared test (pchi2_) " +
+                        "across the whole genome, most significant first, with odds ratio (or_), allele frequency and counts " +
+                        "within cases (vaf_, vac_, van_, vhomc_, vhetc_) and the variant itself (allele_). " +
+                        "Statistics are computed in the database; no filtering is available, " +
+                        "use associationScan to restrict variants by annotations. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "P-values are not corrected for multiple testing.")
+    public List<String> topAssociatedVariants(
+                            @ToolArg(description = "comma separated list of sample IDs of cases", required = false) String caseSamples,
+                            @ToolArg(description = "comma separated list of names of sample sets defined by defineSampleSet " +
+                                "or of cohorts (populations) of cases, added to caseSamples", required = false) String caseCohorts,
+                            @ToolArg(description = "number of most significant variants to return, max 100", required = false) Integer n,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        return client.topNchi2(cases(caseSamples, caseCohorts, connection), n, sequential);
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Variants with the strongest deviation from Hardy-Weinberg Equilibrium in 1000 Genomes Project, " +
+                        "genome wide, e.g. for QC of genotyping artefacts. " +
+                        "Only biallelic SNVs on autosomes and X chromosome are tested. " +
+                        "Returns up to n variants with the most significant HWE p-value (phwe_), most significant first, " +
+                        "with inbreeding coefficient (ibc_) and the variant itself (allele_). " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error).")
+    public List<String> topHweDeviations(
+                            @ToolArg(description = "number of variants to return, max 100", required = false) Integer n,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        return client.topNHWE(n, sequential);
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Case/control allelic association test over whole chromosomes in 1000 Genomes Project, " +
+                        "with filtering of variants, e.g. rare missense variants only. " +
+                        "Scans chromosome by chromosome and reports progress; slower than topAssociatedVariants, " +
+                        "which should be preferred when no filtering is needed. " +
+                        "Cases are provided as a list of sample IDs and/or as names of sample sets (see defineSampleSet) or cohorts, " +
+                        "controls are all other samples in 1000 Genomes Project. " +
+                        "Only variants present in at least one case are tested. " +
+                        "Returns up to topK variants with the most significant p-value in Pearson's chi-squared test (pchi2_), " +
+                        "most significant first, in the same format as associationInRegion. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "P-values are not corrected for multiple testing.")
+    public List<String> associationScan(
+                            @ToolArg(description = "comma separated list of sample IDs of cases", required = false) String caseSamples,
+                            @ToolArg(description = "comma separated list of names of sample sets defined by defineSampleSet " +
+                                "or of cohorts (populations) of cases, added to caseSamples", required = false) String caseCohorts,
+                            @ToolArg(description = "comma separated list of chromosome IDs to scan, e.g. 1, 2, X; " +
+                                "default is all chromosomes except MT", required = false) String chromosomes,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms, " +
+                                "as in associationInRegion", required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences, " +
+                                "as in associationInRegion", required = false) String consequences,
+                            @ToolArg(description = "number of most significant variants to return, max 100", required = false) Integer topK,
+                            Progress progress,
+                            McpConnection connection) {
+        List<String> cases = cases(caseSamples, caseCohorts, connection);
+        Consumer<String> onChromosomeDone = null;
+        if (progress.token().isPresent()) {
+            ProgressTracker tracker = progress.trackerBuilder()
+                .setTotal(DnaerysClient.chromosomeCount(chromosomes))
+                .setMessageBuilder(done -> "chromosomes scanned: " + done)
+                .build();
+            onChromosomeDone = chr -> tracker.advanceAndForget();
+        }
+        return client.associationScan(cases, chromosomes, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
+                                      impact, variantType, consequences, topK, onChromosomeDone);
+    }
+
+    // cases from sample IDs, sample sets of the session and cohorts of the dataset; empty if any name is neither
+    private List<String> cases(String ids, String cohorts, McpConnection connection) {
+        List<String> cases = client.samplesOf(AdmissionInterceptor.session(connection), samples(ids), cohorts);
+        return cases == null ? List.of() : cases;
+    }
+
+    // comma or whitespace separated sample IDs
+    static List<String> samples(String ids) {
+        if (ids == null) return List.of();
+        return Arrays.stream(ids.split("[,;\\s]+")).filter(id -> !id.isEmpty()).distinct().toList();
+    }
+
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns number of samples which have Homozygous or Heterozygous variants in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
@@ -1559,7 +1915,7 @@ public class OneKGPMCPServer {
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
                         "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
-    public List<String> selectSamplesWithHetVariants(
+    public Long countSamplesWithVariants(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
                             @ToolArg(description = "start of region") int start,
                             @ToolArg(description = "end of region") int end,
@@ -1620,20 +1976,20 @@ public class OneKGPMCPServer {
                                 "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
-                                required = false) String clinSignificance) {
-        boolean selectHom = false;
+                                required = false) String clinSignificance,
+                            McpConnection connection) {
+        boolean selectHom = true;
         boolean selectHet = true;
-        return client.selectSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele,
-                                            variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
-                                            impact, biotype, feature, variantType, consequences, alphaMissense,
-                                            clinSignificance);
+        return client.countSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
+                                           variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
+                                           feature, variantType, consequences, alphaMissense, clinSignificance);
     }
 
-    @Tool(description = "Returns De Novo variants in a proband in trio in a region in 1000 Genomes Project. " +
-                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns number of samples which have Homozygous variants in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
-                        "Parents and proband samples are defined by sample ID. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
                         "Optional filtering by gnomAD AF. " +
                         "Optional filtering by VEP impact terms. " +
@@ -1644,12 +2000,8 @@ public class OneKGPMCPServer {
                         "Optional filtering by AlphaMissense class. " +
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
-                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
-                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
-    public List<String> deNovoInTrio(
-                            @ToolArg(description = "sample id for parent 1") String parent1,
-                            @ToolArg(description = "sample id for parent 2") String parent2,
-                            @ToolArg(description = "sample id for proband") String proband,
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
+    public Long countSamplesWithHomVariants(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
                             @ToolArg(description = "start of region") int start,
                             @ToolArg(description = "end of region") int end,
@@ -1711,18 +2063,19 @@ public class OneKGPMCPServer {
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
-                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
-        return client.selectDeNovo(parent1, parent2, proband, chromosome, start, end, refAllele, altAllele, variantMinLength,
-                                   variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
-                                   variantType, consequences, alphaMissense, clinSignificance, skip, limit);
+                            McpConnection connection) {
+        boolean selectHom = true;
+        boolean selectHet = false;
+        return client.countSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
+                                           variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
+                                           feature, variantType, consequences, alphaMissense, clinSignificance);
     }
 
-    @Tool(description = "Returns heterozygous dominant variants in affected child in a trio in a region in 1000 Genomes Project. " +
-                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns number of samples which have Heterozygous variants in a region in 1000 Genomes Project. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
-                        "Parents and proband samples are defined by sample ID. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
                         "Optional filtering by gnomAD AF. " +
                         "Optional filtering by VEP impact terms. " +
@@ -1733,12 +2086,8 @@ public class OneKGPMCPServer {
                         "Optional filtering by AlphaMissense class. " +
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
-                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
-                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
-    public List<String> hetDominantInTrio(
-                            @ToolArg(description = "sample id for affected parent") String affectedParent,
-                            @ToolArg(description = "sample id for unaffected parent") String unaffectedParent,
-                            @ToolArg(description = "sample id for proband") String proband,
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
+    public Long countSamplesWithHetVariants(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
                             @ToolArg(description = "start of region") int start,
                             @ToolArg(description = "end of region") int end,
@@ -1800,18 +2149,22 @@ public class OneKGPMCPServer {
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
-                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
-        return client.selectHetDominant(affectedParent, unaffectedParent, proband, chromosome, start, end, refAllele, altAllele,
-                                        variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
-                                        impact, biotype, feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
+                            McpConnection connection) {
+        boolean selectHom = false;
+        boolean selectHet = true;
+        return client.countSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele, variantMinLength,
+                                           variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype,
+                                           feature, variantType, consequences, alphaMissense, clinSignificance);
     }
 
-    @Tool(description = "Returns homozygous recessive variants in affected child in a trio in a region in 1000 Genomes Project. " +
-                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns unique samples which have Homozygous or Heterozygous variants in a region in 1000 Genomes Project. " +
+                        "Returns an empty json if no samples are found (empty json is NOT an error). " +
+                        "Samples found can be kept as a named sample set with saveAs, for later tools which take " +
+                        "sample sets, as defineSampleSet does. " +
                         "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
                         "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
-                        "Parents and proband samples are defined by sample ID. " +
                         "Optional ALT and REF alleles can be provided as selection parameters. " +
                         "Optional filtering by gnomAD AF. " +
                         "Optional filtering by VEP impact terms. " +
@@ -1822,12 +2175,8 @@ public class OneKGPMCPServer {
                         "Optional filtering by AlphaMissense class. " +
                         "Optional filtering by ClinVar Clinical Significance annotations. " +
                         "Optional filtering biallelic variants. " +
-                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
-                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
-    public List<String> homRecessiveInTrio(
-                            @ToolArg(description = "sample id for unaffected parent 1") String unaffectedParent1,
-                            @ToolArg(description = "sample id for unaffected parent 2") String unaffectedParent2,
-                            @ToolArg(description = "sample id for proband") String proband,
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
+    public List<String> selectSamplesWithVariants(
                             @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
                             @ToolArg(description = "start of region") int start,
                             @ToolArg(description = "end of region") int end,
@@ -1889,17 +2238,750 @@ public class OneKGPMCPServer {
                                 "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
                                 "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
                                 required = false) String clinSignificance,
-                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
-                            @ToolArg(description = "limit items in returned result", required = false) Integer limit) {
-        return client.selectHomRecessive(unaffectedParent1, unaffectedParent2, proband, chromosome, start, end, refAllele, altAllele,
-                                         variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
-                                         impact, biotype, feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
+                            @ToolArg(description = "name of a sample set to keep samples found as", required = false) String saveAs,
+                            McpConnection connection) {
+        boolean selectHom = true;
+        boolean selectHet = true;
+        List<String> samples = client.selectSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele,
+                                                            variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan,
+                                                            gnomadAfGreaterThan, impact, biotype, feature, variantType,
+                                                            consequences, alphaMissense, clinSignificance);
+        client.saveSampleSet(AdmissionInterceptor.session(connection), saveAs, samples);
+        return samples;
     }
 
-    @Tool(description = "Returns degree of relatedness (kinship) between samples in 1000 Genomes Project. " +
-                        "Samples are defined by sample ID.")
-    public String kinship(  @ToolArg(description = "sample id 1") String sample1,
-                            @ToolArg(description = "sample id 2") String sample2 ) {
-        return client.kinship(sample1, sample2);
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns unique samples which have Homozygous variants in a region in 1000 Genomes Project. " +
+                        "Returns an empty json if no samples are found (empty json is NOT an error). " +
+                        "Samples found can be kept as a named sample set with saveAs, for later tools which take " +
+                        "sample sets, as defineSampleSet does. " +
+                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+                        "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
+                        "Optional ALT and REF alleles can be provided as selection parameters. " +
+                        "Optional filtering by gnomAD AF. " +
+                        "Optional filtering by VEP impact terms. " +
+                        "Optional filtering by VEP biotypes terms. " +
+                        "Optional filtering by VEP feature types terms. " +
+                        "Optional filtering by Sequence Ontology Variant Classes (types) terms. " +
+                        "Optional filtering by Sequence Ontology variant consequences. " +
+                        "Optional filtering by AlphaMissense class. " +
+                        "Optional filtering by ClinVar Clinical Significance annotations. " +
+                        "Optional filtering biallelic variants. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
+    public List<String> selectSamplesWithHomVariants(
+                            @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
+                            @ToolArg(description = "start of region") int start,
+                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
+                            @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
+                            @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
+                            @ToolArg(description = "maximal variant length", required = false) Integer variantMaxLength,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of VEP biotypes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "PROCESSED_TRANSCRIPT, LNCRNA, ANTISENSE, MACRO_LNCRNA, NON_CODING, RETAINED_INTRON, " +
+                                "SENSE_INTRONIC, SENSE_OVERLAPPING, LINCRNA, NCRNA, MIRNA, MISCRNA, PIRNA, RRNA, SIRNA, " +
+                                "SNRNA, SNORNA, TRNA, VAULTRNA, PROTEIN_CODING, PSEUDOGENE, IG_PSEUDOGENE, READTHROUGH, " +
+                                "STOP_CODON_READTHROUGH, TEC, TR_GENE, IG_GENE, NONSENSE_MEDIATED_DECAY",
+                                required = false) String biotype,
+                            @ToolArg(description = "A comma separated list of VEP feature types terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT, REGULATORYFEATURE, MOTIFFEATURE",
+                                required = false) String feature,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "SNV, INSERTION, DELETION, INDEL, SUBSTITUTION, INVERSION, TRANSLOCATION, DUPLICATION, SEQUENCE_ALTERATION",
+                                required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT_ABLATION, SPLICE_ACCEPTOR_VARIANT, SPLICE_DONOR_VARIANT, STOP_GAINED, FRAMESHIFT_VARIANT, " +
+                                "STOP_LOST, START_LOST, TRANSCRIPT_AMPLIFICATION, INFRAME_INSERTION, INFRAME_DELETION, MISSENSE_VARIANT, " +
+                                "PROTEIN_ALTERING_VARIANT, SPLICE_REGION_VARIANT, INCOMPLETE_TERMINAL_CODON_VARIANT, START_RETAINED_VARIANT, " +
+                                "STOP_RETAINED_VARIANT, SYNONYMOUS_VARIANT, CODING_SEQUENCE_VARIANT, MATURE_MIRNA_VARIANT, FIVE_PRIME_UTR_VARIANT, " +
+                                "THREE_PRIME_UTR_VARIANT, NON_CODING_TRANSCRIPT_EXON_VARIANT, INTRON_VARIANT, NMD_TRANSCRIPT_VARIANT, " +
+                                "NON_CODING_TRANSCRIPT_VARIANT, UPSTREAM_GENE_VARIANT, DOWNSTREAM_GENE_VARIANT, TFBS_ABLATION, TFBS_AMPLIFICATION, " +
+                                "TF_BINDING_SITE_VARIANT, REGULATORY_REGION_ABLATION, REGULATORY_REGION_AMPLIFICATION, FEATURE_ELONGATION, " +
+                                "REGULATORY_REGION_VARIANT, FEATURE_TRUNCATION, INTERGENIC_VARIANT, SPLICE_POLYPYRIMIDINE_TRACT_VARIANT, " +
+                                "SPLICE_DONOR_5TH_BASE_VARIANT, SPLICE_DONOR_REGION_VARIANT, CODING_TRANSCRIPT_VARIANT, SEQUENCE_VARIANT",
+                                required = false) String consequences,
+                            @ToolArg(description = "A comma separated list of AlphaMissense classes. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "LIKELY_BENIGN, LIKELY_PATHOGENIC, AMBIGUOUS",
+                                required = false) String alphaMissense,
+                            @ToolArg(description = "A comma separated list of ClinVar Clinical Significance annotations. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "CLNSIG_BENIGN, LIKELY_BENIGN, UNCERTAIN_SIGNIFICANCE, LIKELY_PATHOGENIC, PATHOGENIC, " +
+                                "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
+                                "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
+                                "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "name of a sample set to keep samples found as", required = false) String saveAs,
+                            McpConnection connection) {
+        boolean selectHom = true;
+        boolean selectHet = false;
+        List<String> samples = client.selectSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele,
+                                                            variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan,
+                                                            gnomadAfGreaterThan, impact, biotype, feature, variantType,
+                                                            consequences, alphaMissense, clinSignificance);
+        client.saveSampleSet(AdmissionInterceptor.session(connection), saveAs, samples);
+        return samples;
+    }
+
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns unique samples which have Heterozygous variants in a region in 1000 Genomes Project. " +
+                        "Returns an empty json if no samples are found (empty json is NOT an error). " +
+                        "Samples found can be kept as a named sample set with saveAs, for later tools which take " +
+                        "sample sets, as defineSampleSet does. " +
+                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+                        "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
+                        "Optional ALT and REF alleles can be provided as selection parameters. " +
+                        "Optional filtering by gnomAD AF. " +
+                        "Optional filtering by VEP impact terms. " +
+                        "Optional filtering by VEP biotypes terms. " +
+                        "Optional filtering by VEP feature types terms. " +
+                        "Optional filtering by Sequence Ontology Variant Classes (types) terms. " +
+                        "Optional filtering by Sequence Ontology variant consequences. " +
+                        "Optional filtering by AlphaMissense class. " +
+                        "Optional filtering by ClinVar Clinical Significance annotations. " +
+                        "Optional filtering biallelic variants. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction.")
+    public List<String> selectSamplesWithHetVariants(
+                            @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
+                            @ToolArg(description = "start of region") int start,
+                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
+                            @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
+                            @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
+                            @ToolArg(description = "maximal variant length", required = false) Integer variantMaxLength,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of VEP biotypes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "PROCESSED_TRANSCRIPT, LNCRNA, ANTISENSE, MACRO_LNCRNA, NON_CODING, RETAINED_INTRON, " +
+                                "SENSE_INTRONIC, SENSE_OVERLAPPING, LINCRNA, NCRNA, MIRNA, MISCRNA, PIRNA, RRNA, SIRNA, " +
+                                "SNRNA, SNORNA, TRNA, VAULTRNA, PROTEIN_CODING, PSEUDOGENE, IG_PSEUDOGENE, READTHROUGH, " +
+                                "STOP_CODON_READTHROUGH, TEC, TR_GENE, IG_GENE, NONSENSE_MEDIATED_DECAY",
+                                required = false) String biotype,
+                            @ToolArg(description = "A comma separated list of VEP feature types terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT, REGULATORYFEATURE, MOTIFFEATURE",
+                                required = false) String feature,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "SNV, INSERTION, DELETION, INDEL, SUBSTITUTION, INVERSION, TRANSLOCATION, DUPLICATION, SEQUENCE_ALTERATION",
+                                required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT_ABLATION, SPLICE_ACCEPTOR_VARIANT, SPLICE_DONOR_VARIANT, STOP_GAINED, FRAMESHIFT_VARIANT, " +
+                                "STOP_LOST, START_LOST, TRANSCRIPT_AMPLIFICATION, INFRAME_INSERTION, INFRAME_DELETION, MISSENSE_VARIANT, " +
+                                "PROTEIN_ALTERING_VARIANT, SPLICE_REGION_VARIANT, INCOMPLETE_TERMINAL_CODON_VARIANT, START_RETAINED_VARIANT, " +
+                                "STOP_RETAINED_VARIANT, SYNONYMOUS_VARIANT, CODING_SEQUENCE_VARIANT, MATURE_MIRNA_VARIANT, FIVE_PRIME_UTR_VARIANT, " +
+                                "THREE_PRIME_UTR_VARIANT, NON_CODING_TRANSCRIPT_EXON_VARIANT, INTRON_VARIANT, NMD_TRANSCRIPT_VARIANT, " +
+                                "NON_CODING_TRANSCRIPT_VARIANT, UPSTREAM_GENE_VARIANT, DOWNSTREAM_GENE_VARIANT, TFBS_ABLATION, TFBS_AMPLIFICATION, " +
+                                "TF_BINDING_SITE_VARIANT, REGULATORY_REGION_ABLATION, REGULATORY_REGION_AMPLIFICATION, FEATURE_ELONGATION, " +
+                                "REGULATORY_REGION_VARIANT, FEATURE_TRUNCATION, INTERGENIC_VARIANT, SPLICE_POLYPYRIMIDINE_TRACT_VARIANT, " +
+                                "SPLICE_DONOR_5TH_BASE_VARIANT, SPLICE_DONOR_REGION_VARIANT, CODING_TRANSCRIPT_VARIANT, SEQUENCE_VARIANT",
+                                required = false) String consequences,
+                            @ToolArg(description = "A comma separated list of AlphaMissense classes. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "LIKELY_BENIGN, LIKELY_PATHOGENIC, AMBIGUOUS",
+                                required = false) String alphaMissense,
+                            @ToolArg(description = "A comma separated list of ClinVar Clinical Significance annotations. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "CLNSIG_BENIGN, LIKELY_BENIGN, UNCERTAIN_SIGNIFICANCE, LIKELY_PATHOGENIC, PATHOGENIC, " +
+                                "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
+                                "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
+                                "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "name of a sample set to keep samples found as", required = false) String saveAs,
+                            McpConnection connection) {
+        boolean selectHom = false;
+        boolean selectHet = true;
+        List<String> samples = client.selectSamplesInRegion(chromosome, start, end, selectHom, selectHet, refAllele, altAllele,
+                                                            variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan,
+                                                            gnomadAfGreaterThan, impact, biotype, feature, variantType,
+                                                            consequences, alphaMissense, clinSignificance);
+        client.saveSampleSet(AdmissionInterceptor.session(connection), saveAs, samples);
+        return samples;
+    }
+
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns De Novo variants in a proband in trio in a region in 1000 Genomes Project. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+                        "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
+                        "Parents and proband samples are defined by sample ID. " +
+                        "Optional ALT and REF alleles can be provided as selection parameters. " +
+                        "Optional filtering by gnomAD AF. " +
+                        "Optional filtering by VEP impact terms. " +
+                        "Optional filtering by VEP biotypes terms. " +
+                        "Optional filtering by VEP feature types terms. " +
+                        "Optional filtering by Sequence Ontology Variant Classes (types) terms. " +
+                        "Optional filtering by Sequence Ontology variant consequences. " +
+                        "Optional filtering by AlphaMissense class. " +
+                        "Optional filtering by ClinVar Clinical Significance annotations. " +
+                        "Optional filtering biallelic variants. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
+    public List<String> deNovoInTrio(
+                            @ToolArg(description = "sample id for parent 1") String parent1,
+                            @ToolArg(description = "sample id for parent 2") String parent2,
+                            @ToolArg(description = "sample id for proband") String proband,
+                            @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
+                            @ToolArg(description = "start of region") int start,
+                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
+                            @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
+                            @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
+                            @ToolArg(description = "maximal variant length", required = false) Integer variantMaxLength,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of VEP biotypes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "PROCESSED_TRANSCRIPT, LNCRNA, ANTISENSE, MACRO_LNCRNA, NON_CODING, RETAINED_INTRON, " +
+                                "SENSE_INTRONIC, SENSE_OVERLAPPING, LINCRNA, NCRNA, MIRNA, MISCRNA, PIRNA, RRNA, SIRNA, " +
+                                "SNRNA, SNORNA, TRNA, VAULTRNA, PROTEIN_CODING, PSEUDOGENE, IG_PSEUDOGENE, READTHROUGH, " +
+                                "STOP_CODON_READTHROUGH, TEC, TR_GENE, IG_GENE, NONSENSE_MEDIATED_DECAY",
+                                required = false) String biotype,
+                            @ToolArg(description = "A comma separated list of VEP feature types terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT, REGULATORYFEATURE, MOTIFFEATURE",
+                                required = false) String feature,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "SNV, INSERTION, DELETION, INDEL, SUBSTITUTION, INVERSION, TRANSLOCATION, DUPLICATION, SEQUENCE_ALTERATION",
+                                required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT_ABLATION, SPLICE_ACCEPTOR_VARIANT, SPLICE_DONOR_VARIANT, STOP_GAINED, FRAMESHIFT_VARIANT, " +
+                                "STOP_LOST, START_LOST, TRANSCRIPT_AMPLIFICATION, INFRAME_INSERTION, INFRAME_DELETION, MISSENSE_VARIANT, " +
+                                "PROTEIN_ALTERING_VARIANT, SPLICE_REGION_VARIANT, INCOMPLETE_TERMINAL_CODON_VARIANT, START_RETAINED_VARIANT, " +
+                                "STOP_RETAINED_VARIANT, SYNONYMOUS_VARIANT, CODING_SEQUENCE_VARIANT, MATURE_MIRNA_VARIANT, FIVE_PRIME_UTR_VARIANT, " +
+                                "THREE_PRIME_UTR_VARIANT, NON_CODING_TRANSCRIPT_EXON_VARIANT, INTRON_VARIANT, NMD_TRANSCRIPT_VARIANT, " +
+                                "NON_CODING_TRANSCRIPT_VARIANT, UPSTREAM_GENE_VARIANT, DOWNSTREAM_GENE_VARIANT, TFBS_ABLATION, TFBS_AMPLIFICATION, " +
+                                "TF_BINDING_SITE_VARIANT, REGULATORY_REGION_ABLATION, REGULATORY_REGION_AMPLIFICATION, FEATURE_ELONGATION, " +
+                                "REGULATORY_REGION_VARIANT, FEATURE_TRUNCATION, INTERGENIC_VARIANT, SPLICE_POLYPYRIMIDINE_TRACT_VARIANT, " +
+                                "SPLICE_DONOR_5TH_BASE_VARIANT, SPLICE_DONOR_REGION_VARIANT, CODING_TRANSCRIPT_VARIANT, SEQUENCE_VARIANT",
+                                required = false) String consequences,
+                            @ToolArg(description = "A comma separated list of AlphaMissense classes. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "LIKELY_BENIGN, LIKELY_PATHOGENIC, AMBIGUOUS",
+                                required = false) String alphaMissense,
+                            @ToolArg(description = "A comma separated list of ClinVar Clinical Significance annotations. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "CLNSIG_BENIGN, LIKELY_BENIGN, UNCERTAIN_SIGNIFICANCE, LIKELY_PATHOGENIC, PATHOGENIC, " +
+                                "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
+                                "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
+                                "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
+        return client.selectDeNovo(parent1, parent2, proband, chromosome, start, end, refAllele, altAllele, variantMinLength,
+                                   variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                   variantType, consequences, alphaMissense, clinSignificance, skip, limit);
+    }
+
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns heterozygous dominant variants in affected child in a trio in a region in 1000 Genomes Project. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+                        "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
+                        "Parents and proband samples are defined by sample ID. " +
+                        "Optional ALT and REF alleles can be provided as selection parameters. " +
+                        "Optional filtering by gnomAD AF. " +
+                        "Optional filtering by VEP impact terms. " +
+                        "Optional filtering by VEP biotypes terms. " +
+                        "Optional filtering by VEP feature types terms. " +
+                        "Optional filtering by Sequence Ontology Variant Classes (types) terms. " +
+                        "Optional filtering by Sequence Ontology variant consequences. " +
+                        "Optional filtering by AlphaMissense class. " +
+                        "Optional filtering by ClinVar Clinical Significance annotations. " +
+                        "Optional filtering biallelic variants. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
+    public List<String> hetDominantInTrio(
+                            @ToolArg(description = "sample id for affected parent") String affectedParent,
+                            @ToolArg(description = "sample id for unaffected parent") String unaffectedParent,
+                            @ToolArg(description = "sample id for proband") String proband,
+                            @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
+                            @ToolArg(description = "start of region") int start,
+                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
+                            @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
+                            @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
+                            @ToolArg(description = "maximal variant length", required = false) Integer variantMaxLength,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of VEP biotypes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "PROCESSED_TRANSCRIPT, LNCRNA, ANTISENSE, MACRO_LNCRNA, NON_CODING, RETAINED_INTRON, " +
+                                "SENSE_INTRONIC, SENSE_OVERLAPPING, LINCRNA, NCRNA, MIRNA, MISCRNA, PIRNA, RRNA, SIRNA, " +
+                                "SNRNA, SNORNA, TRNA, VAULTRNA, PROTEIN_CODING, PSEUDOGENE, IG_PSEUDOGENE, READTHROUGH, " +
+                                "STOP_CODON_READTHROUGH, TEC, TR_GENE, IG_GENE, NONSENSE_MEDIATED_DECAY",
+                                required = false) String biotype,
+                            @ToolArg(description = "A comma separated list of VEP feature types terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT, REGULATORYFEATURE, MOTIFFEATURE",
+                                required = false) String feature,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "SNV, INSERTION, DELETION, INDEL, SUBSTITUTION, INVERSION, TRANSLOCATION, DUPLICATION, SEQUENCE_ALTERATION",
+                                required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT_ABLATION, SPLICE_ACCEPTOR_VARIANT, SPLICE_DONOR_VARIANT, STOP_GAINED, FRAMESHIFT_VARIANT, " +
+                                "STOP_LOST, START_LOST, TRANSCRIPT_AMPLIFICATION, INFRAME_INSERTION, INFRAME_DELETION, MISSENSE_VARIANT, " +
+                                "PROTEIN_ALTERING_VARIANT, SPLICE_REGION_VARIANT, INCOMPLETE_TERMINAL_CODON_VARIANT, START_RETAINED_VARIANT, " +
+                                "STOP_RETAINED_VARIANT, SYNONYMOUS_VARIANT, CODING_SEQUENCE_VARIANT, MATURE_MIRNA_VARIANT, FIVE_PRIME_UTR_VARIANT, " +
+                                "THREE_PRIME_UTR_VARIANT, NON_CODING_TRANSCRIPT_EXON_VARIANT, INTRON_VARIANT, NMD_TRANSCRIPT_VARIANT, " +
+                                "NON_CODING_TRANSCRIPT_VARIANT, UPSTREAM_GENE_VARIANT, DOWNSTREAM_GENE_VARIANT, TFBS_ABLATION, TFBS_AMPLIFICATION, " +
+                                "TF_BINDING_SITE_VARIANT, REGULATORY_REGION_ABLATION, REGULATORY_REGION_AMPLIFICATION, FEATURE_ELONGATION, " +
+                                "REGULATORY_REGION_VARIANT, FEATURE_TRUNCATION, INTERGENIC_VARIANT, SPLICE_POLYPYRIMIDINE_TRACT_VARIANT, " +
+                                "SPLICE_DONOR_5TH_BASE_VARIANT, SPLICE_DONOR_REGION_VARIANT, CODING_TRANSCRIPT_VARIANT, SEQUENCE_VARIANT",
+                                required = false) String consequences,
+                            @ToolArg(description = "A comma separated list of AlphaMissense classes. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "LIKELY_BENIGN, LIKELY_PATHOGENIC, AMBIGUOUS",
+                                required = false) String alphaMissense,
+                            @ToolArg(description = "A comma separated list of ClinVar Clinical Significance annotations. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "CLNSIG_BENIGN, LIKELY_BENIGN, UNCERTAIN_SIGNIFICANCE, LIKELY_PATHOGENIC, PATHOGENIC, " +
+                                "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
+                                "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
+                                "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
+        return client.selectHetDominant(affectedParent, unaffectedParent, proband, chromosome, start, end, refAllele, altAllele,
+                                        variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
+                                        impact, biotype, feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
+    }
+
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns homozygous recessive variants in affected child in a trio in a region in 1000 Genomes Project. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "A region is defined by chromosome ID, start and end coordinates in GRCh38 assembly. " +
+                        "Chromosome ID is in a form of 1, 2, ..., 22, X, Y. " +
+                        "Parents and proband samples are defined by sample ID. " +
+                        "Optional ALT and REF alleles can be provided as selection parameters. " +
+                        "Optional filtering by gnomAD AF. " +
+                        "Optional filtering by VEP impact terms. " +
+                        "Optional filtering by VEP biotypes terms. " +
+                        "Optional filtering by VEP feature types terms. " +
+                        "Optional filtering by Sequence Ontology Variant Classes (types) terms. " +
+                        "Optional filtering by Sequence Ontology variant consequences. " +
+                        "Optional filtering by AlphaMissense class. " +
+                        "Optional filtering by ClinVar Clinical Significance annotations. " +
+                        "Optional filtering biallelic variants. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
+    public List<String> homRecessiveInTrio(
+                            @ToolArg(description = "sample id for unaffected parent 1") String unaffectedParent1,
+                            @ToolArg(description = "sample id for unaffected parent 2") String unaffectedParent2,
+                            @ToolArg(description = "sample id for proband") String proband,
+                            @ToolArg(description = "chromosome ID, in a form of 1, 2, ..., 22, X, Y, MT") String chromosome,
+                            @ToolArg(description = "start of region") int start,
+                            @ToolArg(description = "end of region") int end,
+                            @ToolArg(description = "reference allele bases (REF)", required = false) String refAllele,
+                            @ToolArg(description = "alternative allele bases (ALT)", required = false) String altAllele,
+                            @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
+                            @ToolArg(description = "maximal variant length", required = false) Integer variantMaxLength,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of VEP biotypes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "PROCESSED_TRANSCRIPT, LNCRNA, ANTISENSE, MACRO_LNCRNA, NON_CODING, RETAINED_INTRON, " +
+                                "SENSE_INTRONIC, SENSE_OVERLAPPING, LINCRNA, NCRNA, MIRNA, MISCRNA, PIRNA, RRNA, SIRNA, " +
+                                "SNRNA, SNORNA, TRNA, VAULTRNA, PROTEIN_CODING, PSEUDOGENE, IG_PSEUDOGENE, READTHROUGH, " +
+                                "STOP_CODON_READTHROUGH, TEC, TR_GENE, IG_GENE, NONSENSE_MEDIATED_DECAY",
+                                required = false) String biotype,
+                            @ToolArg(description = "A comma separated list of VEP feature types terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT, REGULATORYFEATURE, MOTIFFEATURE",
+                                required = false) String feature,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "SNV, INSERTION, DELETION, INDEL, SUBSTITUTION, INVERSION, TRANSLOCATION, DUPLICATION, SEQUENCE_ALTERATION",
+                                required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT_ABLATION, SPLICE_ACCEPTOR_VARIANT, SPLICE_DONOR_VARIANT, STOP_GAINED, FRAMESHIFT_VARIANT, " +
+                                "STOP_LOST, START_LOST, TRANSCRIPT_AMPLIFICATION, INFRAME_INSERTION, INFRAME_DELETION, MISSENSE_VARIANT, " +
+                                "PROTEIN_ALTERING_VARIANT, SPLICE_REGION_VARIANT, INCOMPLETE_TERMINAL_CODON_VARIANT, START_RETAINED_VARIANT, " +
+                                "STOP_RETAINED_VARIANT, SYNONYMOUS_VARIANT, CODING_SEQUENCE_VARIANT, MATURE_MIRNA_VARIANT, FIVE_PRIME_UTR_VARIANT, " +
+                                "THREE_PRIME_UTR_VARIANT, NON_CODING_TRANSCRIPT_EXON_VARIANT, INTRON_VARIANT, NMD_TRANSCRIPT_VARIANT, " +
+                                "NON_CODING_TRANSCRIPT_VARIANT, UPSTREAM_GENE_VARIANT, DOWNSTREAM_GENE_VARIANT, TFBS_ABLATION, TFBS_AMPLIFICATION, " +
+                                "TF_BINDING_SITE_VARIANT, REGULATORY_REGION_ABLATION, REGULATORY_REGION_AMPLIFICATION, FEATURE_ELONGATION, " +
+                                "REGULATORY_REGION_VARIANT, FEATURE_TRUNCATION, INTERGENIC_VARIANT, SPLICE_POLYPYRIMIDINE_TRACT_VARIANT, " +
+                                "SPLICE_DONOR_5TH_BASE_VARIANT, SPLICE_DONOR_REGION_VARIANT, CODING_TRANSCRIPT_VARIANT, SEQUENCE_VARIANT",
+                                required = false) String consequences,
+                            @ToolArg(description = "A comma separated list of AlphaMissense classes. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "LIKELY_BENIGN, LIKELY_PATHOGENIC, AMBIGUOUS",
+                                required = false) String alphaMissense,
+                            @ToolArg(description = "A comma separated list of ClinVar Clinical Significance annotations. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "CLNSIG_BENIGN, LIKELY_BENIGN, UNCERTAIN_SIGNIFICANCE, LIKELY_PATHOGENIC, PATHOGENIC, " +
+                                "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
+                                "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
+                                "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
+        return client.selectHomRecessive(unaffectedParent1, unaffectedParent2, proband, chromosome, start, end, refAllele, altAllele,
+                                         variantMinLength, variantMaxLength, biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan,
+                                         impact, biotype, feature, variantType, consequences, alphaMissense, clinSignificance, skip, limit);
+    }
+
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns degree of relatedness (kinship) between samples in 1000 Genomes Project. " +
+                        "Samples are defined by sample ID.")
+    public String kinship(  @ToolArg(description = "sample id 1") String sample1,
+                            @ToolArg(description = "sample id 2") String sample2,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        return client.kinship(sample1, sample2, sequential);
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Finds related samples among all pairs of samples in a cohort (population) or in a list of samples " +
+                        "in 1000 Genomes Project, in a single request. " +
+                        "Returns a json with related pairs (sampleA, sampleB, degree, phi_bwf - KING robust kinship coefficient), " +
+                        "closest first, families: groups of samples connected by relatedness, and counts of samples " +
+                        "and pairs reported by the database. " +
+                        "By default reports pairs up to THIRD_DEGREE; either degree or threshold can be given, not both. " +
+                        "Returns an empty json if input is invalid.")
+    public String kinshipInCohort(
+                            @ToolArg(description = "cohort name, or name of a sample set defined by defineSampleSet", required = false) String cohort,
+                            @ToolArg(description = "comma separated list of sample IDs", required = false) String sampleIds,
+                            @ToolArg(description = "report pairs related closer or equal to degree. Possible values: " +
+                                "TWINS_MONOZYGOTIC, FIRST_DEGREE, SECOND_DEGREE, THIRD_DEGREE, UNRELATED (i.e. all pairs)",
+                                required = false) String degree,
+                            @ToolArg(description = "report pairs with kinship coefficient greater than threshold, in [0, 0.5)",
+                                required = false) Float threshold,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        DnaerysClient.Selection selection =
+            client.withSampleSetsForCohort(AdmissionInterceptor.session(connection), samples(sampleIds), cohort);
+        if (selection == null) return "{}";
+        return client.kinshipInCohort(selection.cohorts(), selection.samples(), degree, threshold, sequential);
+    }
+
+    @Admission(QueryClass.COUNT)
+    @RunOnVirtualThread
+    @Tool(description = "Returns relatedness between all pairs of samples in a trio in 1000 Genomes Project, in a single request. " +
+                        "Returns a json with related pairs (sampleA, sampleB, degree, phi_bwf - KING robust kinship coefficient) " +
+                        "and families as in kinshipInCohort.")
+    public String kinshipTrio(
+                            @ToolArg(description = "sample id 1") String sample1,
+                            @ToolArg(description = "sample id 2") String sample2,
+                            @ToolArg(description = "sample id 3") String sample3,
+                            @ToolArg(description = "report pairs related closer or equal to degree. Possible values: " +
+                                "TWINS_MONOZYGOTIC, FIRST_DEGREE, SECOND_DEGREE, THIRD_DEGREE, UNRELATED",
+                                required = false) String degree,
+                            @ToolArg(description = "report pairs with kinship coefficient greater than threshold, in [0, 0.5)",
+                                required = false) Float threshold,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        return client.kinshipTrio(sample1, sample2, sample3, degree, threshold, sequential);
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Finds samples in 1000 Genomes Project related to an external sample, given as a single sample VCF " +
+                        "(GRCh38, variants in minimal representation). VCF is either VCF text itself or, when the server " +
+                        "is configured with a VCF directory, a path to a .vcf or .vcf.gz file in it. Only autosomal biallelic SNVs with fully called " +
+                        "genotypes are used, other records are skipped before sending. " +
+                        "Returns a json with number of accepted SNVs and related samples, closest first, each with degree, " +
+                        "phi_bwf (KING robust kinship coefficient), number of common loci and genotype counters. " +
+                        "By default reports samples up to THIRD_DEGREE; either degree or threshold can be given, not both. " +
+                        "Returns an empty json if VCF has no usable SNVs or input is invalid, and an error if VCF " +
+                        "path is not accepted or VCF cannot be read.")
+    public String relatedToExternalSample(
+                            @ToolArg(description = "single sample VCF text, or path to a .vcf or .vcf.gz file in the VCF directory " +
+                                "of the server") String vcf,
+                            @ToolArg(description = "search in cohort (population) only; whole dataset by default",
+                                required = false) String cohort,
+                            @ToolArg(description = "report samples related closer or equal to degree. Possible values: " +
+                                "TWINS_MONOZYGOTIC, FIRST_DEGREE, SECOND_DEGREE, THIRD_DEGREE",
+                                required = false) String degree,
+                            @ToolArg(description = "report samples with kinship coefficient greater than threshold, in [0, 0.5)",
+                                required = false) Float threshold,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        try {
+            return client.sampleKinship(vcf, cohort, degree, threshold, sequential);
+        } catch (IllegalArgumentException e) {
+            throw new ToolCallException(e.getMessage());
+        }
+    }
+
+    @Admission(QueryClass.INFO)
+    @RunOnVirtualThread
+    @Tool(description = "Returns polygenic risk scores (PRS) available in 1000 Genomes Project, " +
+                        "each with name, description and number of effect alleles (cardinality)")
+    public List<String> prsList(McpConnection connection) {
+        return client.prsList();
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Computes a polygenic risk score (PRS) for all samples in a cohort (population) and / or a list of samples " +
+                        "in 1000 Genomes Project, as plink --score in 'sum' mode. PRS names are listed by prsList. " +
+                        "Returns a summary of scores distribution instead of a score per sample: number of samples, mean, sd, " +
+                        "min, max, percentiles (p1, p5, p10, p25, p50, p75, p90, p95, p99), five highest and five lowest " +
+                        "scoring samples, and score with percentile rank for each of rankSamples. " +
+                        "Returns an empty json if input is invalid or PRS is not found.")
+    public String polygenicRiskScore(
+                            @ToolArg(description = "PRS name") String prsName,
+                            @ToolArg(description = "cohort name, or name of a sample set defined by defineSampleSet", required = false) String cohort,
+                            @ToolArg(description = "comma separated list of sample IDs", required = false) String sampleIds,
+                            @ToolArg(description = "dominant model, as 'dominant' in plink 2", required = false) Boolean dominant,
+                            @ToolArg(description = "recessive model, as 'recessive' in plink 2", required = false) Boolean recessive,
+                            @ToolArg(description = "comma separated list of sample IDs to report score and percentile rank for",
+                                required = false) String rankSamples,
+                            McpConnection connection) {
+        DnaerysClient.Selection selection =
+            client.withSampleSetsForCohort(AdmissionInterceptor.session(connection), samples(sampleIds), cohort);
+        if (selection == null) return "{}";
+        return client.prsScores(prsName, selection.cohorts(), selection.samples(), dominant, recessive, samples(rankSamples));
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Sex check QC in 1000 Genomes Project: finds samples whose sex observed by F-statistics " +
+                        "(inbreeding coefficient) on X chromosome differs from reported sex. Computed in the database, " +
+                        "per cohort (population) concurrently; all cohorts when neither cohorts nor samples are given. " +
+                        "Samples with F < femaleThreshold are observed as females, with F > maleThreshold as males. " +
+                        "Returns a json with mismatch_males (reported male, observed female) and mismatch_females " +
+                        "(reported female, observed male), each with sample, reported_sex, observed_sex and f_stat. " +
+                        "Returns an empty json if input is invalid.")
+    public String sexMismatchCheck(
+                            @ToolArg(description = "comma separated list of cohort names and/or names of sample sets defined by " +
+                                "defineSampleSet", required = false) String cohorts,
+                            @ToolArg(description = "comma separated list of sample IDs", required = false) String sampleIds,
+                            @ToolArg(description = "consider only alleles with aafThreshold < AAF < 1 - aafThreshold, " +
+                                "in [0, 1], default 0", required = false) Float aafThreshold,
+                            @ToolArg(description = "F threshold for observed females, default 0.7", required = false) Float femaleThreshold,
+                            @ToolArg(description = "F threshold for observed males, default 0.7", required = false) Float maleThreshold,
+                            @ToolArg(description = "include pseudoautosomal regions, excluded by default", required = false) Boolean includePar,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        DnaerysClient.Selection selection =
+            client.withSampleSets(AdmissionInterceptor.session(connection), samples(sampleIds), cohorts);
+        return client.sexMismatchCheck(selection.cohorts(), selection.samples(), aafThreshold, femaleThreshold,
+                                       maleThreshold, includePar, sequential);
+    }
+
+    @Admission(QueryClass.HEAVY)
+    @RunOnVirtualThread
+    @Tool(description = "Distribution of F-statistics (inbreeding coefficient) on X chromosome for reported males and " +
+                        "females in 1000 Genomes Project, to evaluate sex check thresholds. Computed in the database, " +
+                        "per cohort (population) concurrently; all cohorts when neither cohorts nor samples are given. " +
+                        "Returns a json with males and females, each with number of samples, mean, min, p1, p5, p50, p95, " +
+                        "p99, max, and five samples at the tail towards the other sex (lowest F in males, highest F in females). " +
+                        "Returns an empty json if input is invalid.")
+    public String fstatX(
+                            @ToolArg(description = "comma separated list of cohort names and/or names of sample sets defined by " +
+                                "defineSampleSet", required = false) String cohorts,
+                            @ToolArg(description = "comma separated list of sample IDs", required = false) String sampleIds,
+                            @ToolArg(description = "consider only alleles with aafThreshold < AAF < 1 - aafThreshold, " +
+                                "in [0, 1], default 0", required = false) Float aafThreshold,
+                            @ToolArg(description = "include pseudoautosomal regions, excluded by default", required = false) Boolean includePar,
+                            @ToolArg(description = "compute in a single thread on each node to leave CPU for other queries; " +
+                                "slower; by default chosen by current cluster load", required = false) Boolean sequential,
+                            McpConnection connection) {
+        DnaerysClient.Selection selection =
+            client.withSampleSets(AdmissionInterceptor.session(connection), samples(sampleIds), cohorts);
+        return client.fstatX(selection.cohorts(), selection.samples(), aafThreshold, includePar, sequential);
+    }
+
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Selects variants in all samples in a built-in gene panel of the database in 1000 Genomes Project: " +
+                        "'mito11' (mitochondrial liver disease, 11 nuclear genes), 'mito374' (mitochondrial disorder, " +
+                        "374 nuclear genes) or 'cancer104' (solid tumours cancer susceptibility, 104 genes). " +
+                        "Built-in panels are defined by gene coordinates in GRCh37 assembly, while 1000 Genomes Project " +
+                        "is in GRCh38, so returned variants may be off-target and panel genes may be missed; " +
+                        "use selectVariantsInGenes for a panel in GRCh38 coordinates. " +
+                        "Returns a leading {\"panel_assembly\":\"GRCh37\",\"off_target\":true,...} element followed by " +
+                        "up to limit variants, or by an empty json if no variants are found. " +
+                        "Returns an empty json if panel is not known. The Max value for limit = 100.")
+    public List<String> selectVariantsInPanel(
+                            @ToolArg(description = "panel name: mito11, mito374 or cancer104") String panel,
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
+        return client.selectVariantsInPanel(panel, limit);
+    }
+
+    @Admission(QueryClass.SELECT)
+    @RunOnVirtualThread
+    @Tool(description = "Selects variants in all samples in a user defined panel in 1000 Genomes Project, in a single " +
+                        "multi region request instead of a request per gene. " +
+                        "A panel is a list of gene symbols, e.g. 'BRCA1, BRCA2, PALB2', resolved to GRCh38 regions by " +
+                        "the gene table configured on the server, and/or a list of regions as chromosome:start-end in " +
+                        "GRCh38 assembly, e.g. '17:43044295-43125483, 13:32315508-32400268'. " +
+                        "Returns an empty json if any of genes is not known or any of regions is malformed, " +
+                        "so that a typo does not silently narrow the panel. " +
+                        "Returns an empty json if no variants are found (empty json is NOT an error). " +
+                        "Optional filtering by gnomAD AF, VEP impact, biotypes and feature types, Sequence Ontology Variant Classes " +
+                        "and consequences, AlphaMissense class, ClinVar Clinical Significance and biallelic variants, " +
+                        "as in selectVariantsInRegion. " +
+                        "If more than one filtering criteria of different types is provided, relation between them is logical conjunction. " +
+                        "Use 'skip' and 'limit' parameters for pagination if needed. The Max value for limit = 100.")
+    public List<String> selectVariantsInGenes(
+                            @ToolArg(description = "comma separated list of gene symbols", required = false) String genes,
+                            @ToolArg(description = "comma separated list of regions, each as chromosome:start-end, " +
+                                "e.g. 17:43044295-43125483", required = false) String regions,
+                            @ToolArg(description = "minimal variant length", required = false) Integer variantMinLength,
+                            @ToolArg(description = "maximal variant length", required = false) Integer variantMaxLength,
+                            @ToolArg(description = "select biallelic variants only", required = false) Boolean biallelicOnly,
+                            @ToolArg(description = "select variants with gnomAD AF < gnomadAfLessThan",
+                                required = false) Float gnomadAfLessThan,
+                            @ToolArg(description = "select variants with gnomAD AF > gnomadAfGreaterThan",
+                                required = false) Float gnomadAfGreaterThan,
+                            @ToolArg(description = "A comma separated list of VEP impact terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "HIGH, MODERATE, LOW, MODIFIER",
+                                required = false) String impact,
+                            @ToolArg(description = "A comma separated list of VEP biotypes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "PROCESSED_TRANSCRIPT, LNCRNA, ANTISENSE, MACRO_LNCRNA, NON_CODING, RETAINED_INTRON, " +
+                                "SENSE_INTRONIC, SENSE_OVERLAPPING, LINCRNA, NCRNA, MIRNA, MISCRNA, PIRNA, RRNA, SIRNA, " +
+                                "SNRNA, SNORNA, TRNA, VAULTRNA, PROTEIN_CODING, PSEUDOGENE, IG_PSEUDOGENE, READTHROUGH, " +
+                                "STOP_CODON_READTHROUGH, TEC, TR_GENE, IG_GENE, NONSENSE_MEDIATED_DECAY",
+                                required = false) String biotype,
+                            @ToolArg(description = "A comma separated list of VEP feature types terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT, REGULATORYFEATURE, MOTIFFEATURE",
+                                required = false) String feature,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology Variant Classes terms. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "SNV, INSERTION, DELETION, INDEL, SUBSTITUTION, INVERSION, TRANSLOCATION, DUPLICATION, SEQUENCE_ALTERATION",
+                                required = false) String variantType,
+                            @ToolArg(description = "A comma separated list of Sequence Ontology variant consequences. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "TRANSCRIPT_ABLATION, SPLICE_ACCEPTOR_VARIANT, SPLICE_DONOR_VARIANT, STOP_GAINED, FRAMESHIFT_VARIANT, " +
+                                "STOP_LOST, START_LOST, TRANSCRIPT_AMPLIFICATION, INFRAME_INSERTION, INFRAME_DELETION, MISSENSE_VARIANT, " +
+                                "PROTEIN_ALTERING_VARIANT, SPLICE_REGION_VARIANT, INCOMPLETE_TERMINAL_CODON_VARIANT, START_RETAINED_VARIANT, " +
+                                "STOP_RETAINED_VARIANT, SYNONYMOUS_VARIANT, CODING_SEQUENCE_VARIANT, MATURE_MIRNA_VARIANT, FIVE_PRIME_UTR_VARIANT, " +
+                                "THREE_PRIME_UTR_VARIANT, NON_CODING_TRANSCRIPT_EXON_VARIANT, INTRON_VARIANT, NMD_TRANSCRIPT_VARIANT, " +
+                                "NON_CODING_TRANSCRIPT_VARIANT, UPSTREAM_GENE_VARIANT, DOWNSTREAM_GENE_VARIANT, TFBS_ABLATION, TFBS_AMPLIFICATION, " +
+                                "TF_BINDING_SITE_VARIANT, REGULATORY_REGION_ABLATION, REGULATORY_REGION_AMPLIFICATION, FEATURE_ELONGATION, " +
+                                "REGULATORY_REGION_VARIANT, FEATURE_TRUNCATION, INTERGENIC_VARIANT, SPLICE_POLYPYRIMIDINE_TRACT_VARIANT, " +
+                                "SPLICE_DONOR_5TH_BASE_VARIANT, SPLICE_DONOR_REGION_VARIANT, CODING_TRANSCRIPT_VARIANT, SEQUENCE_VARIANT",
+                                required = false) String consequences,
+                            @ToolArg(description = "A comma separated list of AlphaMissense classes. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "LIKELY_BENIGN, LIKELY_PATHOGENIC, AMBIGUOUS",
+                                required = false) String alphaMissense,
+                            @ToolArg(description = "A comma separated list of ClinVar Clinical Significance annotations. " +
+                                "If more than one value provided, relation between them is logical disjunction, " +
+                                "i.e. selects variants which have ANY of annotations provided. Possible values: " +
+                                "CLNSIG_BENIGN, LIKELY_BENIGN, UNCERTAIN_SIGNIFICANCE, LIKELY_PATHOGENIC, PATHOGENIC, " +
+                                "DRUG_RESPONSE, ASSOCIATION, RISK_FACTOR, PROTECTIVE, AFFECTS, CONFERS_SENSITIVITY, " +
+                                "CONFLICTING_INTERPRETATIONS, LIKELY_PATHOGENIC_LOW_PENETRANCE, PATHOGENIC_LOW_PENETRANCE, " +
+                                "UNCERTAIN_RISK_ALLELE, LIKELY_RISK_ALLELE, ESTABLISHED_RISK_ALLELE",
+                                required = false) String clinSignificance,
+                            @ToolArg(description = "number of items to be skipped in returned result", required = false) Integer skip,
+                            @ToolArg(description = "limit items in returned result", required = false) Integer limit,
+                            McpConnection connection) {
+        boolean selectHom = true;
+        boolean selectHet = true;
+        return client.selectVariantsInRegions(genes, regions, selectHom, selectHet, variantMinLength, variantMaxLength,
+                                              biallelicOnly, gnomadAfLessThan, gnomadAfGreaterThan, impact, biotype, feature,
+                                              variantType, consequences, alphaMissense, clinSignificance, skip, limit);
     }
 }
@@ -0,0 +1,34 @@
+package org.dnaerys.mcp;
+
+/**
+ * Cost classes of tool calls, each admitted under its own limits.
+ * Defaults are overridden in dnaerys.properties, e.g. admission.select.maxInFlightPerSession=2
+ */
+public enum QueryClass {
+    // dataset info, answered from cluster metadata
+    INFO(64, 16, 256, 16, 10_000),
+    // single value aggregations in a region
+    COUNT(32, 8, 256, 32, 30_000),
+    // paginated variant and sample selections, trio analyses
+    SELECT(16, 4, 128, 16, 60_000),
+    // cohort wide scans and pairwise computations
+    HEAVY(4, 1, 16, 2, 120_000);
+
+    final int maxInFlight;
+    final int maxInFlightPerSession;
+    final int maxQueued;
+    final int maxQueuedPerSession;
+    final long timeoutMs;
+
+    QueryClass(int maxInFlight, int maxInFlightPerSession, int maxQueued, int maxQueuedPerSession, long timeoutMs) {
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerSession = maxInFlightPerSession;
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerSession = maxQueuedPerSession;
+        this.timeoutMs = timeoutMs;
+    }
+
+    String configPrefix() {
+        return "admission." + name().toLowerCase() + ".";
+    }
+}
@@ -0,0 +1,182 @@
+package org.dnaerys.client;
+
+import io.grpc.ClientInterceptors;
+import io.grpc.Status;
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private static final String METHOD = "dnaerys.DnaerysService/CountVariantsInRegion";
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // keeps limit saturated and completes one request with given latency
+    private static void sample(AdaptiveLimiter limiter, long rttMs, long dbMs) throws InterruptedException {
+        int limit = limiter.limit();
+        for (int i = 0; i < limit; i++) {
+            assertTrue(limiter.acquire());
+        }
+        limiter.release(METHOD, rttMs * MS, dbMs, false);
+        for (int i = 1; i < limit; i++) {
+            limiter.release();
+        }
+    }
+
+    @Test
+    void growsWhileLatencyIsStable() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 200, 2.0, 1_000, 60_000);
+        for (int i = 0; i < 50; i++) {
+            sample(limiter, 20, 15);
+        }
+        assertTrue(limiter.limit() > 40, "limit: " + limiter.limit());
+    }
+
+    @Test
+    void doesNotGrowWhenUnderused() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 200, 2.0, 1_000, 60_000);
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire();
+            limiter.release(METHOD, 20 * MS, 15, false);
+        }
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void shrinksWhenDatabaseLatencyGrows() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(100, 2, 200, 2.0, 1_000, 60_000);
+        for (int i = 0; i < 20; i++) {
+            sample(limiter, 20, 15);
+        }
+        int before = limiter.limit();
+        // client side latency is unchanged, cluster is getting slow
+        for (int i = 0; i < 20; i++) {
+            sample(limiter, 20, 150);
+        }
+        assertTrue(limiter.limit() < before / 2, "limit: " + before + " -> " + limiter.limit());
+    }
+
+    @Test
+    void backsOffOnOverload() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(100, 10, 200, 2.0, 1_000, 60_000);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(METHOD, 0, 0, true);
+        }
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void waitsForSlotAndTimesOut() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 2.0, 50, 60_000);
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+        limiter.release();
+        assertTrue(limiter.acquire());
+    }
+
+    // starts a waiter which records its name once admitted and holds the slot
+    private static Thread waiter(AdaptiveLimiter limiter, RequestPriority priority, String name, List<String> order) {
+        return Thread.ofVirtual().start(() -> {
+            try {
+                assertTrue(limiter.acquire(priority));
+                order.add(name);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static void awaitWaiting(AdaptiveLimiter limiter, int n) throws InterruptedException {
+        while (limiter.waiting() < n) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void grantsSlotsByPriority() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 2.0, 5_000, 60_000);
+        assertTrue(limiter.acquire());
+        List<String> order = new CopyOnWriteArrayList<>();
+        Thread heavy = waiter(limiter, RequestPriority.HEAVY, "heavy", order);
+        awaitWaiting(limiter, 1);
+        Thread select = waiter(limiter, RequestPriority.SELECT, "select", order);
+        awaitWaiting(limiter, 2);
+        Thread count = waiter(limiter, RequestPriority.COUNT, "count", order);
+        awaitWaiting(limiter, 3);
+
+        for (Thread t : List.of(count, select, heavy)) {
+            limiter.release();
+            t.join();
+        }
+        assertEquals(List.of("count", "select", "heavy"), order);
+    }
+
+    @Test
+    void agingPreventsStarvation() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 2.0, 5_000, 20);
+        assertTrue(limiter.acquire());
+        List<String> order = new CopyOnWriteArrayList<>();
+        Thread heavy = waiter(limiter, RequestPriority.HEAVY, "heavy", order);
+        awaitWaiting(limiter, 1);
+        // heavy request has been waiting for more than 3 aging intervals
+        Thread.sleep(100);
+        Thread info = waiter(limiter, RequestPriority.INFO, "info", order);
+        awaitWaiting(limiter, 2);
+
+        limiter.release();
+        heavy.join();
+        limiter.release();
+        info.join();
+        assertEquals(List.of("heavy", "info"), order);
+    }
+
+    @Test
+    void priorityOfMethods() {
+        assertEquals(RequestPriority.INFO, RequestPriority.of("dnaerys.DnaerysService/DatasetInfo"));
+        assertEquals(RequestPriority.COUNT, RequestPriority.of("dnaerys.DnaerysService/CountVariantsInRegionInSamples"));
+        assertEquals(RequestPriority.COUNT, RequestPriority.of("dnaerys.DnaerysService/KinshipDuo"));
+        assertEquals(RequestPriority.SELECT, RequestPriority.of("dnaerys.DnaerysService/SelectDeNovo"));
+        assertEquals(RequestPriority.HEAVY, RequestPriority.of("dnaerys.DnaerysService/Kinship"));
+        assertEquals(RequestPriority.HEAVY, RequestPriority.of("dnaerys.DnaerysService/SelectVariantsInRegionInSamplesWithStats"));
+    }
+
+    @Test
+    void interceptorSamplesElapsedDbMs() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().start()) {
+            cluster.service().latency(5, 0);
+            AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 200, 2.0, 1_000, 60_000);
+            DnaerysServiceGrpc.DnaerysServiceBlockingStub stub = DnaerysServiceGrpc.newBlockingStub(
+                ClientInterceptors.intercept(cluster.channel(), new AdaptiveLimitInterceptor(limiter)));
+            CountAllelesResponse response = stub.countVariantsInRegion(CountAllelesInRegionRequest.newBuilder()
+                .setChr(Chromosome.CHR_1).setStart(1_000_000).setEnd(1_010_000).setHom(true).setHet(true).build());
+            assertEquals(5, AdaptiveLimitInterceptor.elapsedDbMs(response));
+            assertEquals(0, limiter.inFlight());
+        }
+    }
+
+    @Test
+    void interceptorRejectsFutureCallsOnTheirExecutor() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().start()) {
+            AdaptiveLimiter limiter = new AdaptiveLimiter(2, 2, 2, 2.0, 50, 60_000);
+            DnaerysServiceGrpc.DnaerysServiceFutureStub stub = DnaerysServiceGrpc.newFutureStub(
+                ClientInterceptors.intercept(cluster.channel(), new AdaptiveLimitInterceptor(limiter)));
+            assertTrue(limiter.acquire());
+            assertTrue(limiter.acquire());
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> stub.health(HealthRequest.getDefaultInstance()).get(5, TimeUnit.SECONDS));
+            assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(e.getCause()).getCode());
+            assertEquals(2, limiter.inFlight());
+
+            limiter.release();
+            assertEquals("OK", stub.health(HealthRequest.getDefaultInstance()).get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(1, limiter.inFlight());
+        }
+    }
+}
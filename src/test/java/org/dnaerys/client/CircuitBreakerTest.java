@@ -0,0 +1,118 @@
+package org.dnaerys.client;
+
+import io.grpc.ClientInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import static org.dnaerys.client.CircuitBreaker.Outcome.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final CountAllelesInRegionRequest COUNT = CountAllelesInRegionRequest.newBuilder()
+        .setChr(Chromosome.CHR_1).setStart(1_000_000).setEnd(1_010_000).setHom(true).setHet(true).build();
+
+    private static void call(CircuitBreaker breaker, CircuitBreaker.Outcome outcome) {
+        assertTrue(breaker.allow());
+        breaker.record(outcome);
+    }
+
+    @Test
+    void opensOnFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker(true, 10, 10, 0.5, 0, 60_000, 1);
+        for (int i = 0; i < 5; i++) {
+            call(breaker, SUCCESS);
+            call(breaker, IGNORED);
+        }
+        for (int i = 0; i < 4; i++) {
+            call(breaker, FAILURE);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        call(breaker, FAILURE);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allow());
+    }
+
+    @Test
+    void opensOnIncompleteStreak() {
+        CircuitBreaker breaker = new CircuitBreaker(true, 10, 10, 0.5, 3, 60_000, 1);
+        call(breaker, INCOMPLETE);
+        call(breaker, INCOMPLETE);
+        call(breaker, SUCCESS);
+        call(breaker, INCOMPLETE);
+        call(breaker, INCOMPLETE);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        call(breaker, INCOMPLETE);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void closesAfterSuccessfulTrials() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(true, 2, 2, 0.5, 0, 20, 2);
+        call(breaker, FAILURE);
+        call(breaker, FAILURE);
+        assertFalse(breaker.allow());
+        Thread.sleep(40);
+
+        assertTrue(breaker.allow());
+        assertTrue(breaker.allow());
+        // trial calls are limited
+        assertFalse(breaker.allow());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.record(SUCCESS);
+        breaker.record(SUCCESS);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void reopensOnFailedTrial() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(true, 2, 2, 0.5, 0, 20, 2);
+        call(breaker, FAILURE);
+        call(breaker, FAILURE);
+        Thread.sleep(40);
+        call(breaker, INCOMPLETE);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allow());
+    }
+
+    @Test
+    void disabledBreakerNeverOpens() {
+        CircuitBreaker breaker = new CircuitBreaker(false, 2, 2, 0.5, 1, 60_000, 1);
+        for (int i = 0; i < 10; i++) {
+            call(breaker, FAILURE);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void reportsIncompleteClusterAndFailsFast() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().start()) {
+            CircuitBreaker breaker = new CircuitBreaker(true, 10, 10, 0.5, 2, 60_000, 1);
+            DnaerysServiceGrpc.DnaerysServiceBlockingStub stub = DnaerysServiceGrpc.newBlockingStub(
+                ClientInterceptors.intercept(cluster.channel(), new CircuitBreakerInterceptor(breaker)));
+
+            ClusterStatus complete = new ClusterStatus();
+            complete.run(() -> stub.countVariantsInRegion(COUNT));
+            assertFalse(complete.incomplete());
+
+            cluster.service().unreachable(1);
+            ClusterStatus partial = new ClusterStatus();
+            partial.run(() -> stub.countVariantsInRegion(COUNT));
+            assertTrue(partial.incomplete());
+            assertTrue(partial.affected());
+            assertNull(partial.failure());
+
+            stub.countVariantsInRegion(COUNT);
+            assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+            long calls = cluster.service().calls();
+            ClusterStatus rejected = new ClusterStatus();
+            StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> rejected.run(() -> stub.countVariantsInRegion(COUNT)));
+            assertEquals(Status.Code.UNAVAILABLE, e.getStatus().getCode());
+            assertEquals(Status.Code.UNAVAILABLE, rejected.failure().getCode());
+            assertEquals(calls, cluster.service().calls());
+        }
+    }
+}
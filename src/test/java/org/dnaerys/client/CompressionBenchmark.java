@@ -0,0 +1,135 @@
+package org.dnaerys.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Codec;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bytes on wire and latency of large AllelesResponse streams with and without compression,
+ * over TCP against the fake cluster. Transfer time over a slower link is estimated from wire bytes.
+ * <pre>
+ *   ./mvnw test -Dbench -Dtest=CompressionBenchmark -Dbench.linkMbps=50 -Dbench.iterations=20
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "bench", matches = ".*")
+class CompressionBenchmark {
+
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 10);
+    private static final double LINK_MBPS = Double.parseDouble(System.getProperty("bench.linkMbps", "100"));
+
+    // counts response bytes before and after decompression
+    private static class WireMeter implements ClientInterceptor {
+        final AtomicLong wire = new AtomicLong();
+        final AtomicLong uncompressed = new AtomicLong();
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                   CallOptions callOptions, Channel next) {
+            return next.newCall(method, callOptions.withStreamTracerFactory(new ClientStreamTracer.Factory() {
+                @Override
+                public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+                    return new ClientStreamTracer() {
+                        @Override
+                        public void inboundWireSize(long bytes) {
+                            wire.addAndGet(bytes);
+                        }
+
+                        @Override
+                        public void inboundUncompressedSize(long bytes) {
+                            uncompressed.addAndGet(bytes);
+                        }
+                    };
+                }
+            }));
+        }
+    }
+
+    private record Mode(String name, Codec codec) {}
+
+    @Test
+    void compareCodecs() throws Exception {
+        List<Mode> modes = List.of(
+            new Mode(ChannelSettings.IDENTITY, null),
+            new Mode("gzip", new Codec.Gzip()),
+            new Mode("deflate", new DeflateCodec()));
+        System.out.printf("%-10s %-34s %12s %12s %7s %9s %9s %12s%n", "codec", "request", "raw KB", "wire KB",
+            "ratio", "p50 ms", "max ms", "link est ms");
+        for (Mode mode : modes) {
+            run(mode, "SelectVariantsInRegion 200kb", stub -> {
+                AllelesInRegionRequest request = AllelesInRegionRequest.newBuilder()
+                    .setChr(Chromosome.CHR_1).setStart(10_000_000).setEnd(10_200_000).setHom(true).setHet(true).build();
+                drain(stub.selectVariantsInRegion(request));
+            });
+            run(mode, "SelectVariantsInRegionInSamples 1Mb", stub -> {
+                AllelesInRegionInSamplesRequest request = AllelesInRegionInSamplesRequest.newBuilder()
+                    .setChr(Chromosome.CHR_2).setStart(20_000_000).setEnd(21_000_000).setHom(true).setHet(true)
+                    .addSamples("HG00100").addSamples("NA02001").build();
+                drain(stub.selectVariantsInRegionInSamples(request));
+            });
+        }
+    }
+
+    private interface Call {
+        void run(DnaerysServiceGrpc.DnaerysServiceBlockingStub stub) throws Exception;
+    }
+
+    private static void drain(Iterator<AllelesResponse> response) {
+        while (response.hasNext()) {
+            response.next();
+        }
+    }
+
+    private void run(Mode mode, String name, Call call) throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster()) {
+            if (mode.codec() != null) {
+                cluster.compressResponses(mode.codec());
+            }
+            cluster.startTcp(0);
+            ChannelSettings settings = new ChannelSettings(mode.name(), mode.codec(), 64 * 1024 * 1024, 0);
+            ManagedChannel channel = settings.apply(
+                Grpc.newChannelBuilderForAddress("localhost", cluster.port(), InsecureChannelCredentials.create())).build();
+            try {
+                WireMeter meter = new WireMeter();
+                DnaerysServiceGrpc.DnaerysServiceBlockingStub stub =
+                    settings.apply(DnaerysServiceGrpc.newBlockingStub(ClientInterceptors.intercept(channel, meter)));
+                call.run(stub); // warm-up
+                meter.wire.set(0);
+                meter.uncompressed.set(0);
+                List<Long> latencies = new ArrayList<>();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    long t0 = System.nanoTime();
+                    call.run(stub);
+                    latencies.add(System.nanoTime() - t0);
+                }
+                latencies.sort(null);
+                double raw = meter.uncompressed.get() / (double) ITERATIONS;
+                double wire = meter.wire.get() / (double) ITERATIONS;
+                double linkMs = wire * 8 / (LINK_MBPS * 1_000_000) * 1000;
+                System.out.printf("%-10s %-34s %12.1f %12.1f %7.2f %9.1f %9.1f %12.1f%n", mode.name(), name,
+                    raw / 1024, wire / 1024, raw / wire,
+                    latencies.get(latencies.size() / 2) / 1e6, latencies.getLast() / 1e6,
+                    latencies.get(latencies.size() / 2) / 1e6 + linkMs);
+            } finally {
+                channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.dnaerys.client;
+
+import io.grpc.Codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Example of a pluggable codec (grpc.codec=...): zlib deflate at fastest level,
+ * trades some compression ratio for CPU compared to gzip.
+ */
+public class DeflateCodec implements Codec {
+
+    @Override
+    public String getMessageEncoding() {
+        return "deflate";
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) {
+        return new DeflaterOutputStream(os, new Deflater(Deflater.BEST_SPEED)) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                def.end();
+            }
+        };
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) {
+        return new InflaterInputStream(is);
+    }
+}
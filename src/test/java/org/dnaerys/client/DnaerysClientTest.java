@@ -0,0 +1,67 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnaerysClientTest {
+
+    private final DnaerysClient client = new DnaerysClient();
+
+    @Test
+    void composesAnnotations() {
+        Annotations a = client.composeAnnotations(0.01f, null, "high,moderate", null, null, "snv",
+            "missense variant,bogus", "likely_pathogenic", "pathogenic", true);
+        assertEquals(0.01f, a.getGnomadAfLt());
+        assertEquals(List.of(Impact.HIGH, Impact.MODERATE), a.getImpactList());
+        assertEquals(List.of(VariantType.SNV), a.getVtypesList());
+        assertEquals(List.of(Consequence.MISSENSE_VARIANT), a.getConsequencesList());
+        assertEquals(List.of(AlphaMissense.AM_LIKELY_PATHOGENIC), a.getAmClassList());
+        assertEquals(List.of(ClinSignificance.PATHOGENIC), a.getClnsgnList());
+        assertTrue(a.getBiallelicOnly());
+    }
+
+    @Test
+    void reusesAnnotationsForSameFilters() {
+        Annotations a = client.composeAnnotations(null, 0.5f, "low", "protein_coding", null, null, null, null, null, null);
+        Annotations b = new DnaerysClient().composeAnnotations(null, 0.5f, "low", "protein_coding", null, null, null, null, null, null);
+        Annotations c = client.composeAnnotations(null, 0.5f, "high", "protein_coding", null, null, null, null, null, null);
+        assertSame(a, b);
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    void unspecifiedKinshipDegreeNeedsThreshold() {
+        assertEquals(KinshipDegree.UNRECOGNIZED, DnaerysClient.kinshipDegree("KINSHIP_UNSPECIFIED", null, KinshipDegree.THIRD_DEGREE));
+        assertEquals(KinshipDegree.KINSHIP_UNSPECIFIED,
+            DnaerysClient.kinshipDegree("KINSHIP_UNSPECIFIED", 0.1f, KinshipDegree.THIRD_DEGREE));
+        assertEquals(KinshipDegree.THIRD_DEGREE, DnaerysClient.kinshipDegree(null, null, KinshipDegree.THIRD_DEGREE));
+        assertEquals("{}", client.kinshipInCohort("GBR", null, "KINSHIP_UNSPECIFIED", null, false));
+    }
+
+    @Test
+    void readsVcfPathsUnderVcfDirOnly(@TempDir Path dir) throws Exception {
+        String text = "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tS\n1\t100\t.\tA\tG\t.\t.\t.\tGT\t0/1\n";
+        Path vcfDir = Files.createDirectory(dir.resolve("vcf"));
+        Files.writeString(vcfDir.resolve("s.vcf"), text);
+        Files.writeString(dir.resolve("outside.vcf"), text);
+        Files.createSymbolicLink(vcfDir.resolve("link.vcf"), dir.resolve("outside.vcf"));
+
+        assertEquals(1, DnaerysClient.readVcf(text, "").accepted());
+        assertEquals(1, DnaerysClient.readVcf("s.vcf", vcfDir.toString()).accepted());
+        assertEquals(1, DnaerysClient.readVcf(vcfDir.resolve("s.vcf").toString(), vcfDir.toString()).accepted());
+        assertThrows(IllegalArgumentException.class, () -> DnaerysClient.readVcf(vcfDir.resolve("s.vcf").toString(), ""));
+        assertThrows(IllegalArgumentException.class, () -> DnaerysClient.readVcf("../outside.vcf", vcfDir.toString()));
+        assertThrows(IllegalArgumentException.class,
+            () -> DnaerysClient.readVcf(dir.resolve("outside.vcf").toString(), vcfDir.toString()));
+        assertThrows(IllegalArgumentException.class, () -> DnaerysClient.readVcf("link.vcf", vcfDir.toString()));
+        assertThrows(IOException.class, () -> DnaerysClient.readVcf("missing.vcf", vcfDir.toString()));
+    }
+}
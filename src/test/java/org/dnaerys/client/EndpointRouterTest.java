@@ -0,0 +1,101 @@
+package org.dnaerys.client;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointRouterTest {
+
+    private static final HealthRequest HEALTH = HealthRequest.getDefaultInstance();
+
+    // no background probing, tests probe explicitly
+    private static EndpointRouter router(FakeDnaerysCluster a, FakeDnaerysCluster b, double outlierRatio) {
+        return new EndpointRouter(List.of("a", "b"), List.of(a.channel(), b.channel()), 0, 1_000, 3, outlierRatio, 60_000);
+    }
+
+    @Test
+    void prefersLowerLatency() throws Exception {
+        try (FakeDnaerysCluster slow = new FakeDnaerysCluster().start();
+             FakeDnaerysCluster fast = new FakeDnaerysCluster().start()) {
+            slow.service().latency(30, 0);
+            EndpointRouter router = router(slow, fast, 100.0);
+            assertEquals("a", router.selected());
+            router.probeAll();
+            assertEquals("b", router.selected());
+            assertFalse(router.ejected("a"));
+
+            DnaerysServiceGrpc.newBlockingStub(router).health(HEALTH);
+            // two probes and one call
+            assertEquals(2, fast.service().calls());
+        }
+    }
+
+    @Test
+    void failsOverOnUnavailable() throws Exception {
+        try (FakeDnaerysCluster a = new FakeDnaerysCluster().start();
+             FakeDnaerysCluster b = new FakeDnaerysCluster().start()) {
+            EndpointRouter router = router(a, b, 100.0);
+            DnaerysServiceGrpc.DnaerysServiceBlockingStub stub = DnaerysServiceGrpc.newBlockingStub(router);
+            a.failNext(3);
+            for (int i = 0; i < 3; i++) {
+                StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> stub.health(HEALTH));
+                assertEquals(Status.Code.UNAVAILABLE, e.getStatus().getCode());
+            }
+            assertEquals("b", router.selected());
+            assertEquals("OK", stub.health(HEALTH).getStatus());
+            assertEquals(1, b.service().calls());
+        }
+    }
+
+    @Test
+    void failsOverAfterConsecutiveFailedProbes() throws Exception {
+        try (FakeDnaerysCluster a = new FakeDnaerysCluster().start();
+             FakeDnaerysCluster b = new FakeDnaerysCluster().start()) {
+            b.service().latency(20, 0);
+            EndpointRouter router = router(a, b, 100.0);
+            router.probeAll();
+            a.failNext(1);
+            router.probeAll();
+            assertEquals("a", router.selected());
+            assertFalse(router.ejected("a"));
+            assertFalse(router.ejected("b"));
+
+            a.failNext(3);
+            for (int i = 0; i < 3; i++) {
+                router.probeAll();
+            }
+            assertEquals("b", router.selected());
+        }
+    }
+
+    @Test
+    void prefersMeasuredLatencyOverUnprobed() throws Exception {
+        try (FakeDnaerysCluster a = new FakeDnaerysCluster().start();
+             FakeDnaerysCluster b = new FakeDnaerysCluster().start()) {
+            EndpointRouter router = router(a, b, 100.0);
+            // a stays healthy after one failed probe, but its latency is unknown
+            a.failNext(1);
+            router.probeAll();
+            assertFalse(router.ejected("a"));
+            assertEquals("b", router.selected());
+        }
+    }
+
+    @Test
+    void ejectsSlowOutliers() throws Exception {
+        try (FakeDnaerysCluster a = new FakeDnaerysCluster().start();
+             FakeDnaerysCluster b = new FakeDnaerysCluster().start()) {
+            b.service().latency(50, 0);
+            EndpointRouter router = router(a, b, 3.0);
+            router.probeAll();
+            assertEquals("a", router.selected());
+            assertTrue(router.ejected("b"));
+            assertFalse(router.ejected("a"));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2025 Dmitry Degrave
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dnaerys.client;
+
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fake Dnaerys cluster for offline tests and benchmarks.
+ *
+ * Serves {@link FakeDnaerysService} over in-process transport, and optionally over plain TCP on localhost,
+ * so MCP server started as a separate process can reach it as well.
+ *
+ * <pre>
+ * try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().start()) {
+ *     cluster.service().latency(20, 10).unreachable(3);
+ *     cluster.install(); // routes DnaerysClient through in-process channel
+ *     ...
+ * }
+ * </pre>
+ */
+public class FakeDnaerysCluster implements AutoCloseable {
+
+    private final FakeDnaerysService service;
+    private final String name = InProcessServerBuilder.generateName();
+    private Server inProcessServer;
+    private Server tcpServer;
+    private ManagedChannel channel;
+    private Codec responseCodec;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public FakeDnaerysCluster(SyntheticDataset dataset) {
+        this.service = new FakeDnaerysService(dataset);
+    }
+
+    public FakeDnaerysCluster() {
+        this(new SyntheticDataset());
+    }
+
+    public FakeDnaerysService service() {
+        return service;
+    }
+
+    /**
+     * Compresses responses served over TCP with a given codec (e.g. new Codec.Gzip()), like a cluster configured
+     * for compression would do. Applies to clients advertising the codec's encoding. Call before startTcp().
+     */
+    public FakeDnaerysCluster compressResponses(Codec codec) {
+        this.responseCodec = codec;
+        return this;
+    }
+
+    /**
+     * Fails next given number of calls with UNAVAILABLE before they reach the service,
+     * like a node restarting or a load balancer without healthy backends would do.
+     */
+    public FakeDnaerysCluster failNext(int calls) {
+        failures.set(calls);
+        return this;
+    }
+
+    public FakeDnaerysCluster start() throws IOException {
+        inProcessServer = InProcessServerBuilder.forName(name).addService(faulty()).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        return this;
+    }
+
+    /**
+     * Listens on localhost in addition to in-process transport; port 0 picks a free port.
+     */
+    public FakeDnaerysCluster startTcp(int port) throws IOException {
+        if (responseCodec == null) {
+            tcpServer = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(faulty())
+                .build()
+                .start();
+        } else {
+            CompressorRegistry compressors = CompressorRegistry.newEmptyInstance();
+            compressors.register(responseCodec);
+            tcpServer = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(ServerInterceptors.intercept(faulty(), new ResponseCompression(responseCodec.getMessageEncoding())))
+                .compressorRegistry(compressors)
+                .decompressorRegistry(DecompressorRegistry.getDefaultInstance().with(responseCodec, true))
+                .build()
+                .start();
+        }
+        return this;
+    }
+
+    private ServerServiceDefinition faulty() {
+        return ServerInterceptors.intercept(service, new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                         ServerCallHandler<ReqT, RespT> next) {
+                if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    call.close(Status.UNAVAILABLE.withDescription("injected failure"), new Metadata());
+                    return new ServerCall.Listener<>() {};
+                }
+                return next.startCall(call, headers);
+            }
+        });
+    }
+
+    private record ResponseCompression(String encoding) implements ServerInterceptor {
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                     ServerCallHandler<ReqT, RespT> next) {
+            call.setCompression(encoding);
+            return next.startCall(call, headers);
+        }
+    }
+
+    public int port() {
+        return tcpServer == null ? -1 : tcpServer.getPort();
+    }
+
+    public ManagedChannel channel() {
+        return channel;
+    }
+
+    // routes all DnaerysClient calls through in-process channel until close()
+    public FakeDnaerysCluster install() {
+        GrpcChannel.override(channel);
+        return this;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        GrpcChannel.override(null);
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (inProcessServer != null) {
+            inProcessServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (tcpServer != null) {
+            tcpServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
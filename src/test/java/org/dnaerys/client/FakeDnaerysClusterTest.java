@@ -0,0 +1,458 @@
+package org.dnaerys.client;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FakeDnaerysClusterTest {
+
+    private static FakeDnaerysCluster cluster;
+    private final DnaerysClient client = new DnaerysClient();
+
+    @BeforeAll
+    static void start() throws Exception {
+        cluster = new FakeDnaerysCluster().start().install();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        cluster.close();
+    }
+
+    @Test
+    void datasetInfoThroughClient() {
+        assertEquals(3202L, client.countSamplesTotal());
+        assertEquals(1604L, client.countFemaleSamplesTotal());
+        assertEquals(1598L, client.countMaleSamplesTotal());
+        assertEquals(3202, new HashSet<>(client.samplesIds()).size());
+    }
+
+    @Test
+    void warmUpChecksHealth() {
+        assertTrue(GrpcChannel.warmUp(5_000) >= 0);
+    }
+
+    @Test
+    void variantsAreDeterministic() {
+        long first = client.countVariantsInRegion("1", 1_000_000, 1_100_000, true, true, null, null, null, null,
+            null, null, null, null, null, null, null, null, null, null);
+        long second = client.countVariantsInRegion("1", 1_000_000, 1_100_000, true, true, null, null, null, null,
+            null, null, null, null, null, null, null, null, null, null);
+        assertEquals(first, second);
+        // ~45 variants per kb
+        assertTrue(first > 3000 && first < 6000, "unexpected density: " + first);
+    }
+
+    @Test
+    void streamsAreBatchedPerNode() {
+        AllelesInRegionRequest request = AllelesInRegionRequest.newBuilder()
+            .setChr(Chromosome.CHR_2)
+            .setStart(5_000_000)
+            .setEnd(5_200_000)
+            .setHom(true)
+            .setHet(true)
+            .setLimit(10)
+            .build();
+        Iterator<AllelesResponse> response = DnaerysServiceGrpc.newBlockingStub(cluster.channel()).selectVariantsInRegion(request);
+        Set<String> nodes = new HashSet<>();
+        int total = 0;
+        while (response.hasNext()) {
+            AllelesResponse batch = response.next();
+            assertFalse(batch.getIncompleteCluster());
+            assertTrue(batch.getAllelesCount() <= 10);
+            nodes.add(batch.getNodeId());
+            total += batch.getAllelesCount();
+        }
+        assertEquals(4, nodes.size());
+        assertEquals(40, total);
+    }
+
+    @Test
+    void unreachableNodesAreReported() {
+        CountAllelesInRegionRequest request = CountAllelesInRegionRequest.newBuilder()
+            .setChr(Chromosome.CHR_3)
+            .setStart(1)
+            .setEnd(200_000)
+            .setHom(true)
+            .setHet(true)
+            .build();
+        DnaerysServiceGrpc.DnaerysServiceBlockingStub stub = DnaerysServiceGrpc.newBlockingStub(cluster.channel());
+        CountAllelesResponse complete = stub.countVariantsInRegion(request);
+        try {
+            cluster.service().unreachable(1);
+            CountAllelesResponse partial = stub.countVariantsInRegion(request);
+            assertTrue(partial.getIncompleteCluster());
+            assertTrue(partial.getCount() < complete.getCount());
+            List<String> inactive = stub.clusterNodes(ClusterNodesRequest.getDefaultInstance()).getInactiveNodesList();
+            assertEquals(List.of("node-1"), inactive);
+        } finally {
+            cluster.service().unreachable();
+        }
+    }
+
+    @Test
+    void trioModels() {
+        List<String> deNovo = client.selectDeNovo("NA02604", "NA02605", "NA02606", "1", 1, 2_000_000, null, null, null,
+            null, null, null, null, null, null, null, null, null, null, null, null, 5);
+        assertFalse(deNovo.isEmpty());
+        assertEquals("FIRST_DEGREE", client.kinship("NA02604", "NA02605"));
+        assertEquals("UNRELATED", client.kinship("HG00100", "HG00101"));
+    }
+
+    @Test
+    void bracketQueries() {
+        // deletions, the only variants with end > start in synthetic data
+        long region = client.countVariantsInRegion("4", 1_000_000, 1_200_000, true, true, null, null, null, null,
+            null, null, null, null, null, null, "deletion", null, null, null);
+        long wide = client.countVariantsInBracket("4", 1_000_000, 1_200_000, 1_000_000, 1_300_000, true, true, null,
+            null, null, null, null, null, null, null, null, null, "deletion", null, null, null);
+        assertEquals(region, wide);
+
+        // ends at least 5 bp away from earliest start
+        List<String> narrow = client.selectVariantsInBracket("4", 1_000_000, 1_200_000, 1_000_005, 1_200_000, true,
+            true, null, null, null, null, null, null, null, null, null, null, "deletion", null, null, null, null, null);
+        assertFalse(narrow.isEmpty());
+        for (String v : narrow) {
+            JsonObject json = JsonParser.parseString(v).getAsJsonObject();
+            assertTrue(json.get("end_").getAsInt() >= 1_000_005);
+            assertTrue(json.get("start_").getAsInt() <= 1_200_000);
+        }
+        assertEquals(0L, client.countVariantsInBracket("4", 1_200_000, 1_000_000, 1_000_000, 1_300_000, true, true,
+            null, null, null, null, null, null, null, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void associationReturnsMostSignificant() {
+        List<String> cases = IntStream.range(0, 100).mapToObj(i -> cluster.service().dataset().sample(i * 7)).toList();
+        List<String> top = client.associationInRegion("6", 2_000_000, 2_020_000, cases, null, null, null, null, null,
+            null, null, null, null, null, null, null, null, null, 10);
+        assertEquals(10, top.size());
+        double previous = 0;
+        for (String v : top) {
+            double p = JsonParser.parseString(v).getAsJsonObject().get("pchi2_").getAsDouble();
+            assertTrue(p > 0 && p >= previous);
+            previous = p;
+        }
+        // the same variants over multi regions request, split in two
+        List<String> split = client.associationInRegions("6:2000000-2010000, 6:2010001-2020000", cases, null, null,
+            null, null, null, null, null, null, null, null, null, null, 10);
+        assertEquals(top, split);
+        assertEquals(List.of("{}"), client.associationInRegion("6", 2_000_000, 2_020_000, List.of(), null, null,
+            null, null, null, null, null, null, null, null, null, null, null, null, 10));
+    }
+
+    @Test
+    void topNMergesPerNodeLists() {
+        List<String> cases = IntStream.range(0, 100).mapToObj(i -> cluster.service().dataset().sample(i * 11)).toList();
+        // each node returns its own top-N, so the global top-N is the best N of all of them
+        TopNchi2Request request = TopNchi2Request.newBuilder().setN(10).addAllSamples(cases).build();
+        List<VariantWithStats> perNode = DnaerysServiceGrpc.newBlockingStub(cluster.channel()).topNchi2(request).getAllelesList();
+        assertEquals(10 * cluster.service().dataset().nodes(), perNode.size());
+        List<Float> expected = perNode.stream().map(VariantWithStats::getPchi2).sorted().limit(10).toList();
+
+        List<String> top = client.topNchi2(cases, 10, true);
+        assertEquals(10, top.size());
+        assertEquals(expected, top.stream()
+            .map(v -> JsonParser.parseString(v).getAsJsonObject().get("pchi2_").getAsFloat()).toList());
+
+        List<String> hwe = client.topNHWE(5, false);
+        assertEquals(5, hwe.size());
+        double previous = 0;
+        for (String v : hwe) {
+            double p = JsonParser.parseString(v).getAsJsonObject().get("phwe_").getAsDouble();
+            assertTrue(p > 0 && p >= previous);
+            previous = p;
+        }
+        assertEquals(List.of("{}"), client.topNchi2(List.of(), 10, false));
+    }
+
+    @Test
+    void associationScanCoversWholeChromosomes() {
+        List<String> cases = IntStream.range(0, 100).mapToObj(i -> cluster.service().dataset().sample(i * 7)).toList();
+        List<String> scanned = new java.util.ArrayList<>();
+        List<String> top = client.associationScan(cases, "chrMT, MT", null, null, null, null, null, null, 10,
+            scanned::add);
+        assertEquals(List.of("MT"), scanned);
+        assertEquals(client.associationInRegion("MT", 1, 16569, cases, null, null, null, null, null, null, null,
+            null, null, null, null, null, null, null, 10), top);
+        assertEquals(24, DnaerysClient.chromosomeCount(null));
+        assertEquals(0, DnaerysClient.chromosomeCount("1, 23"));
+    }
+
+    @Test
+    void associationScanReportsClusterStatus() throws Exception {
+        List<String> cases = IntStream.range(0, 100).mapToObj(i -> cluster.service().dataset().sample(i * 7)).toList();
+        ClusterStatus failing = new ClusterStatus();
+        try {
+            cluster.failNext(3);
+            List<String> top = failing.run(() -> client.associationScan(cases, "MT", null, null, null, null, null, null,
+                10, null));
+            assertEquals(List.of("{}"), top);
+            assertNotNull(failing.failure());
+        } finally {
+            cluster.failNext(0);
+        }
+
+        ClusterStatus partial = new ClusterStatus();
+        try {
+            cluster.service().unreachable(1);
+            List<String> top = partial.run(() -> client.associationScan(cases, "MT", null, null, null, null, null, null,
+                10, null));
+            assertNotEquals(List.of("{}"), top);
+            assertTrue(partial.incomplete());
+            assertTrue(partial.affected());
+            assertNull(partial.failure());
+        } finally {
+            cluster.service().unreachable();
+        }
+    }
+
+    @Test
+    void kinshipInCohortGroupsFamilies() {
+        SyntheticDataset dataset = cluster.service().dataset();
+        // two families of four from the related tail of samples, and unrelated ones
+        List<String> samples = IntStream.concat(IntStream.range(2504, 2512), IntStream.range(0, 20))
+            .mapToObj(dataset::sample).toList();
+        JsonObject json = JsonParser.parseString(client.kinshipInCohort(null, samples, null, null, false)).getAsJsonObject();
+        assertEquals(8, json.get("samples").getAsInt());
+        assertEquals(6, json.getAsJsonArray("related").size());
+        assertEquals(2, json.getAsJsonArray("families").size());
+        assertEquals(4, json.getAsJsonArray("families").get(0).getAsJsonArray().size());
+
+        JsonObject first = JsonParser.parseString(client.kinshipInCohort(null, samples, "first", null, false)).getAsJsonObject();
+        assertEquals(4, first.getAsJsonArray("families").size());
+
+        JsonObject trio = JsonParser.parseString(client.kinshipTrio(dataset.sample(2504), dataset.sample(2505),
+            dataset.sample(2506), null, null, null)).getAsJsonObject();
+        assertEquals(3, trio.get("pairs_reported").getAsInt());
+        assertEquals(2, trio.getAsJsonArray("related").size());
+
+        assertEquals("{}", client.kinshipInCohort(null, List.of(), null, null, false));
+        assertEquals("{}", client.kinshipInCohort(null, samples, "cousins", null, false));
+    }
+
+    @Test
+    void kinshipIsCachedRegardlessOfOrder() {
+        SyntheticDataset dataset = cluster.service().dataset();
+        String a = dataset.sample(2520);
+        String b = dataset.sample(2521);
+        String c = dataset.sample(2522);
+        assertEquals("FIRST_DEGREE", client.kinship(a, b, false));
+        long calls = cluster.service().calls();
+        assertEquals("FIRST_DEGREE", client.kinship(b, a, null));
+        assertEquals(calls, cluster.service().calls());
+
+        // pairs reported by cohort kinship are known to later duo requests
+        client.kinshipInCohort(null, List.of(a, b, c, dataset.sample(2523)), null, null, true);
+        calls = cluster.service().calls();
+        assertEquals("SECOND_DEGREE", client.kinship(c, a, null));
+        assertEquals(calls, cluster.service().calls());
+    }
+
+    @Test
+    void externalSampleFindsItself() {
+        SyntheticDataset dataset = cluster.service().dataset();
+        StringBuilder vcf = new StringBuilder("##fileformat=VCFv4.2\n#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tEXTERNAL\n");
+        int records = 0;
+        for (SyntheticDataset.SyntheticVariant v : dataset.variants(Chromosome.CHR_3, 1_000_000, 1_200_000, -1)) {
+            int gt = dataset.genotype(v, 2504);
+            vcf.append("chr3\t").append(v.start()).append("\t.\t").append(v.ref()).append('\t').append(v.alt())
+                .append("\t.\tPASS\t.\tGT\t").append(gt == 2 ? "1/1" : gt == 1 ? "0/1" : "0/0").append('\n');
+            records++;
+        }
+        JsonObject json = JsonParser.parseString(client.sampleKinship(vcf.toString(), null, null, null, null)).getAsJsonObject();
+        // insertions and deletions are skipped locally
+        int skipped = json.get("skipped_locally").getAsInt();
+        assertTrue(skipped > 0 && skipped < records * 0.2, skipped + " of " + records);
+        assertTrue(json.get("accepted_snvs").getAsInt() >= records - skipped);
+        JsonObject top = json.getAsJsonArray("related").get(0).getAsJsonObject();
+        assertEquals(dataset.sample(2504), top.get("sample").getAsString());
+        assertEquals("TWINS_MONOZYGOTIC", top.get("degree").getAsString());
+
+        // paths are not accepted without vcf.dir, which is an error rather than no related samples
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class,
+            () -> client.sampleKinship("external.vcf.gz", null, null, null, null));
+        assertTrue(rejected.getMessage().contains("vcf.dir"), rejected.getMessage());
+    }
+
+    @Test
+    void prsIsSummarizedOverChunks() {
+        SyntheticDataset dataset = cluster.service().dataset();
+        assertTrue(client.prsList().getFirst().contains(FakeDnaerysService.PRS_NAME));
+
+        List<String> samples = IntStream.range(0, 1200).mapToObj(dataset::sample).toList();
+        long calls = cluster.service().calls();
+        JsonObject json = JsonParser.parseString(client.prsScores(FakeDnaerysService.PRS_NAME, null, samples,
+            null, null, List.of(dataset.sample(7), "unknown"))).getAsJsonObject();
+        // three chunks of 500
+        assertEquals(3, cluster.service().calls() - calls);
+        assertEquals(1200, json.get("samples").getAsInt());
+        assertEquals(FakeDnaerysService.PRS_CARDINALITY, json.get("prs_cardinality").getAsInt());
+        JsonObject p = json.getAsJsonObject("percentiles");
+        assertTrue(p.get("p5").getAsDouble() <= p.get("p50").getAsDouble());
+        assertTrue(p.get("p50").getAsDouble() <= p.get("p95").getAsDouble());
+        assertEquals(json.get("max").getAsDouble(),
+            json.getAsJsonArray("highest").get(0).getAsJsonObject().get("score").getAsDouble());
+        assertEquals(1, json.getAsJsonArray("ranked").size());
+
+        // cohort and samples overlap, each sample is counted once
+        String cohort = SyntheticDataset.POPULATIONS[0];
+        JsonObject both = JsonParser.parseString(client.prsScores(FakeDnaerysService.PRS_NAME, cohort,
+            List.of(dataset.sample(0), dataset.sample(1)), null, null, null)).getAsJsonObject();
+        int cohortSize = (SyntheticDataset.SAMPLES_TOTAL + SyntheticDataset.POPULATIONS.length - 1) / SyntheticDataset.POPULATIONS.length;
+        assertEquals(cohortSize + 1, both.get("samples").getAsInt());
+
+        assertEquals("{}", client.prsScores("PGS_UNKNOWN", cohort, null, null, null, null));
+        assertEquals("{}", client.prsScores(FakeDnaerysService.PRS_NAME, cohort, null, true, true, null));
+    }
+
+    @Test
+    void prsReportsClusterStatus() throws Exception {
+        SyntheticDataset dataset = cluster.service().dataset();
+        List<String> samples = IntStream.range(0, 100).mapToObj(dataset::sample).toList();
+        ClusterStatus failing = new ClusterStatus();
+        try {
+            cluster.failNext(3);
+            assertEquals("{}", failing.run(() -> client.prsScores(FakeDnaerysService.PRS_NAME, null, samples,
+                null, null, null)));
+            assertNotNull(failing.failure());
+        } finally {
+            cluster.failNext(0);
+        }
+
+        // PRS responses have no 'affected', scores of an incomplete cluster are affected
+        ClusterStatus partial = new ClusterStatus();
+        try {
+            cluster.service().unreachable(1);
+            JsonObject json = JsonParser.parseString(partial.run(() -> client.prsScores(FakeDnaerysService.PRS_NAME,
+                null, samples, null, null, null))).getAsJsonObject();
+            assertEquals(100, json.get("samples").getAsInt());
+            assertTrue(partial.affected());
+            assertNull(partial.failure());
+        } finally {
+            cluster.service().unreachable();
+        }
+    }
+    @Test
+    void sexCheckRunsPerCohort() throws Exception {
+        FakeDnaerysService service = cluster.service();
+        SyntheticDataset dataset = service.dataset();
+        long calls = service.calls();
+        JsonObject json = JsonParser.parseString(client.sexMismatchCheck(null, null, null, null, null, null, null))
+            .getAsJsonObject();
+        // dataset info and a request per population
+        assertEquals(1 + SyntheticDataset.POPULATIONS.length, service.calls() - calls);
+        int expected = (int) IntStream.range(0, SyntheticDataset.SAMPLES_TOTAL).filter(s -> s % 400 == 7).count();
+        assertEquals(expected, json.getAsJsonArray("mismatch_males").size() + json.getAsJsonArray("mismatch_females").size());
+
+        // overlapping cohort and samples are reported once
+        JsonObject one = JsonParser.parseString(client.sexMismatchCheck(SyntheticDataset.POPULATIONS[7],
+            List.of(dataset.sample(7), dataset.sample(807)), null, null, null, null, true)).getAsJsonObject();
+        assertEquals(2, one.get("requests").getAsInt());
+        assertEquals(2, one.getAsJsonArray("mismatch_males").size() + one.getAsJsonArray("mismatch_females").size());
+
+        JsonObject f = JsonParser.parseString(client.fstatX("ACB, ASW", null, null, null, null)).getAsJsonObject();
+        JsonObject males = f.getAsJsonObject("males");
+        assertTrue(males.get("p50").getAsDouble() > 0.9);
+        assertEquals(5, males.getAsJsonArray("lowest").size());
+        assertTrue(f.getAsJsonObject("females").get("p50").getAsDouble() < 0.1);
+
+        assertEquals("{}", client.sexMismatchCheck(null, null, null, 1.5f, null, null, null));
+
+        // per cohort calls run concurrently, an incomplete cluster in any of them marks the result
+        ClusterStatus partial = new ClusterStatus();
+        try {
+            cluster.service().unreachable(1);
+            partial.run(() -> client.sexMismatchCheck("ACB, ASW, BEB", null, null, null, null, null, null));
+            partial.run(() -> client.fstatX("ACB, ASW", null, null, null, null));
+            assertTrue(partial.incomplete());
+            assertTrue(partial.affected());
+            assertNull(partial.failure());
+        } finally {
+            cluster.service().unreachable();
+        }
+    }
+
+    @Test
+    void panelsAreSelectedInOneRequest() throws Exception {
+        FakeDnaerysService service = cluster.service();
+        long calls = service.calls();
+        // stream of the whole panel is cancelled once limit is reached, which is not a failure of the cluster
+        ClusterStatus status = new ClusterStatus();
+        List<String> panel = status.run(() -> client.selectVariantsInPanel("Mito374", 7));
+        assertEquals(8, panel.size());
+        assertNull(status.failure());
+        // GRCh37 panel over GRCh38 dataset is marked in every result
+        JsonObject marker = JsonParser.parseString(panel.getFirst()).getAsJsonObject();
+        assertEquals("GRCh37", marker.get("panel_assembly").getAsString());
+        assertTrue(marker.get("off_target").getAsBoolean());
+        assertEquals(List.of("{}"), client.selectVariantsInPanel("mito12", null));
+
+        String regions = "1:1000000-1000999, 2:1000000-1000999, 1:1000500-1001499";
+        List<String> all = client.selectVariantsInRegions(null, regions, true, true, null, null, null, null, null,
+            null, null, null, null, null, null, null, null, null);
+        assertEquals(2, service.calls() - calls);
+        assertEquals(all.size(), new HashSet<>(all).size()); // overlapping regions
+        assertTrue(all.size() > 10 && all.size() <= 100 * cluster.service().dataset().nodes());
+        assertEquals(List.of("{}"), client.selectVariantsInRegions("NO_SUCH_GENE", regions, true, true, null, null,
+            null, null, null, null, null, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void sampleSetsStandForSamples() {
+        SyntheticDataset dataset = cluster.service().dataset();
+        String session = "sample-sets";
+        JsonObject yri = JsonParser.parseString(client.defineSampleSet(session, "yri_f", null, "YRI", "female"))
+            .getAsJsonObject();
+        int yriFemales = (int) IntStream.range(0, SyntheticDataset.SAMPLES_TOTAL)
+            .filter(s -> dataset.population(s).equals("YRI") && dataset.isFemale(s)).count();
+        assertEquals(yriFemales, yri.get("samples").getAsInt());
+        assertEquals(0, yri.get("males").getAsInt());
+
+        JsonObject typo = JsonParser.parseString(client.defineSampleSet(session, "typo", List.of(dataset.sample(1), "XX1"),
+            "YRI, QQQ", null)).getAsJsonObject();
+        assertEquals("XX1", typo.getAsJsonArray("unknown_samples").get(0).getAsString());
+        assertEquals("QQQ", typo.getAsJsonArray("unknown_cohorts").get(0).getAsString());
+
+        List<String> saved = client.selectSamplesInRegion("1", 1_000_000, 1_000_300, true, true, null, null, null, null,
+            null, null, null, null, null, null, null, null, null, null);
+        client.saveSampleSet(session, "carriers", saved);
+        assertEquals(Set.of("yri_f", "carriers"),
+            JsonParser.parseString(client.sampleSets(session)).getAsJsonObject().keySet());
+        assertEquals("{}", client.sampleSets("other-session"));
+
+        // sets are expanded into samples, other names stay cohorts of the dataset
+        DnaerysClient.Selection selection = client.withSampleSets(session, List.of(dataset.sample(0)), "yri_f, GBR");
+        assertEquals("GBR", selection.cohorts());
+        assertEquals(yriFemales + 1, selection.samples().size());
+        assertEquals(new HashSet<>(saved), new HashSet<>(client.samplesOf(session, null, "carriers")));
+        assertNull(client.samplesOf(session, null, "carriers, no_such_set"));
+        int gbr = (int) IntStream.range(0, SyntheticDataset.SAMPLES_TOTAL).filter(s -> dataset.population(s).equals("GBR")).count();
+        assertEquals(gbr + yriFemales, client.samplesOf(session, null, "GBR, yri_f").size());
+
+        // requests which take a single cohort get more than one cohort as samples
+        assertEquals("GBR", client.withSampleSetsForCohort(session, null, "GBR").cohorts());
+        DnaerysClient.Selection one = client.withSampleSetsForCohort(session, null, "GBR, yri_f");
+        assertEquals("GBR", one.cohorts());
+        assertEquals(yriFemales, one.samples().size());
+        DnaerysClient.Selection two = client.withSampleSetsForCohort(session, null, "GBR, YRI");
+        assertEquals("", two.cohorts());
+        int yriAll = (int) IntStream.range(0, SyntheticDataset.SAMPLES_TOTAL).filter(s -> dataset.population(s).equals("YRI")).count();
+        assertEquals(gbr + yriAll, two.samples().size());
+        assertNull(client.withSampleSetsForCohort(session, null, "GBR, QQQ"));
+
+        assertTrue(client.deleteSampleSet(session, "carriers"));
+        assertFalse(client.deleteSampleSet(session, "carriers"));
+    }
+}
@@ -0,0 +1,972 @@
+/*
+ * Copyright © 2025 Dmitry Degrave
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dnaerys.client;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.dnaerys.client.SyntheticDataset.SyntheticVariant;
+import org.dnaerys.cluster.grpc.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Dnaerys service over synthetic dataset.
+ *
+ * Mimics cluster behaviour relevant to clients: streams are batched per node with node_id set, skip & limit are
+ * applied per node, unreachable nodes are excluded from results with incomplete_cluster & affected flags set,
+ * and every call is delayed by configurable latency reported back as elapsed_db_ms.
+ *
+ * Synthetic variants carry no VEP / ClinVar annotations, so only gnomAD AF, variant class (SNV, insertion,
+ * deletion) and length filters are honoured; other annotation filters are ignored.
+ */
+public class FakeDnaerysService extends DnaerysServiceGrpc.DnaerysServiceImplBase {
+
+    private final SyntheticDataset dataset;
+    private final AtomicLong calls = new AtomicLong();
+
+    private volatile long latencyMs = 0;
+    private volatile long jitterMs = 0;
+    private volatile int batchSize = 1000;
+    private volatile int topNWindow = 20_000;
+    private volatile Set<Integer> unreachable = Set.of();
+
+    public FakeDnaerysService(SyntheticDataset dataset) {
+        this.dataset = dataset;
+    }
+
+    public SyntheticDataset dataset() {
+        return dataset;
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public FakeDnaerysService latency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        return this;
+    }
+
+    public FakeDnaerysService batchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    // genome wide top-N scans are limited to the first 'bp' of each chromosome, to keep them fast
+    public FakeDnaerysService topNWindow(int bp) {
+        this.topNWindow = Math.max(1, bp);
+        return this;
+    }
+
+    // nodes excluded from all results; empty set restores complete cluster
+    public FakeDnaerysService unreachable(Integer... nodes) {
+        this.unreachable = Set.of(nodes);
+        return this;
+    }
+
+    private boolean incomplete() {
+        return !unreachable.isEmpty();
+    }
+
+    private long pause() {
+        calls.incrementAndGet();
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return delay;
+    }
+
+    /* cluster */
+
+    @Override
+    public void health(HealthRequest request, StreamObserver<HealthResponse> observer) {
+        pause();
+        observer.onNext(HealthResponse.newBuilder().setStatus("OK").build());
+        observer.onCompleted();
+    }
+
+    @Override
+    public void clusterNodes(ClusterNodesRequest request, StreamObserver<ClusterNodesResponse> observer) {
+        long elapsed = pause();
+        ClusterNodesResponse.Builder builder = ClusterNodesResponse.newBuilder()
+            .setTotalNodes(dataset.nodes())
+            .setElapsedMs(elapsed);
+        for (int node = 0; node < dataset.nodes(); node++) {
+            if (unreachable.contains(node)) {
+                builder.addInactiveNodes(dataset.nodeId(node));
+            } else {
+                builder.addActiveNodes(dataset.nodeId(node));
+            }
+        }
+        observer.onNext(builder.build());
+        observer.onCompleted();
+    }
+
+    @Override
+    public void datasetInfo(DatasetInfoRequest request, StreamObserver<DatasetInfoResponse> observer) {
+        long elapsed = pause();
+        DatasetInfoResponse.Builder builder = DatasetInfoResponse.newBuilder()
+            .setSamplesTotal(SyntheticDataset.SAMPLES_TOTAL)
+            .setFemalesTotal(SyntheticDataset.FEMALES_TOTAL)
+            .setMalesTotal(SyntheticDataset.MALES_TOTAL)
+            .setVariantsTotal(SyntheticDataset.VARIANTS_TOTAL)
+            .setAssembly(RefAssembly.GRCh38)
+            .setRingsTotal(dataset.nodes())
+            .setNotes("synthetic")
+            .addPrs(PRS.newBuilder().setName(PRS_NAME).setDesc("synthetic score over variants at the start of chr1")
+                .setCardinality(PRS_CARDINALITY))
+            .setElapsedMs(elapsed)
+            .setNodeId(dataset.nodeId(0));
+        for (int p = 0; p < SyntheticDataset.POPULATIONS.length; p++) {
+            Cohort.Builder cohort = Cohort.newBuilder().setCohortName(SyntheticDataset.POPULATIONS[p]);
+            int females = 0;
+            int males = 0;
+            for (int s = p; s < SyntheticDataset.SAMPLES_TOTAL; s += SyntheticDataset.POPULATIONS.length) {
+                if (dataset.isFemale(s)) {
+                    females++;
+                    if (request.getReturnSamplesNames()) cohort.addFemaleSamplesNames(dataset.sample(s));
+                } else {
+                    males++;
+                    if (request.getReturnSamplesNames()) cohort.addMaleSamplesNames(dataset.sample(s));
+                }
+            }
+            builder.addCohorts(cohort.setFemaleCount(females).setMaleCount(males).setSamplesCount(females + males));
+        }
+        observer.onNext(builder.build());
+        observer.onCompleted();
+    }
+
+    /* variants */
+
+    @Override
+    public void selectVariantsInRegion(AllelesInRegionRequest r, StreamObserver<AllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inDataset(r.getHom(), r.getHet()));
+        streamAlleles(r.getChr(), r.getStart(), r.getEnd(), filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void countVariantsInRegion(CountAllelesInRegionRequest r, StreamObserver<CountAllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inDataset(r.getHom(), r.getHet()));
+        countAlleles(r.getChr(), r.getStart(), r.getEnd(), filter, observer);
+    }
+
+    @Override
+    public void selectVariantsInRegionInSamples(AllelesInRegionInSamplesRequest r, StreamObserver<AllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inSamples(r.getSamplesList(), r.getHom(), r.getHet()));
+        streamAlleles(r.getChr(), r.getStart(), r.getEnd(), filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void countVariantsInRegionInSamples(CountAllelesInRegionInSamplesRequest r, StreamObserver<CountAllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inSamples(r.getSamplesList(), r.getHom(), r.getHet()));
+        countAlleles(r.getChr(), r.getStart(), r.getEnd(), filter, observer);
+    }
+
+    // bracket: start in [start_min, start_max] and end in [end_min, end_max]
+    @Override
+    public void selectVariantsInBracket(AllelesInBracketRequest r, StreamObserver<AllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inDataset(r.getHom(), r.getHet())).and(ends(r.getEndMin(), r.getEndMax()));
+        streamAlleles(r.getChr(), r.getStartMin(), r.getStartMax(), filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void countVariantsInBracket(CountAllelesInBracketRequest r, StreamObserver<CountAllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inDataset(r.getHom(), r.getHet())).and(ends(r.getEndMin(), r.getEndMax()));
+        countAlleles(r.getChr(), r.getStartMin(), r.getStartMax(), filter, observer);
+    }
+
+    @Override
+    public void selectVariantsInBracketInSamples(AllelesInBracketInSamplesRequest r, StreamObserver<AllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inSamples(r.getSamplesList(), r.getHom(), r.getHet()))
+            .and(ends(r.getEndMin(), r.getEndMax()));
+        streamAlleles(r.getChr(), r.getStartMin(), r.getStartMax(), filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void countVariantsInBracketInSamples(CountAllelesInBracketInSamplesRequest r, StreamObserver<CountAllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inSamples(r.getSamplesList(), r.getHom(), r.getHet()))
+            .and(ends(r.getEndMin(), r.getEndMax()));
+        countAlleles(r.getChr(), r.getStartMin(), r.getStartMax(), filter, observer);
+    }
+
+    /* multiple regions and panels */
+
+    @Override
+    public void selectVariantsInMultiRegions(AllelesInMultiRegionsRequest r, StreamObserver<AllelesResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter("", "", r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inDataset(r.getHom(), r.getHet()));
+        List<int[]> regions = new ArrayList<>();
+        for (int i = 0; i < r.getChrCount(); i++) {
+            regions.add(new int[] {r.getChrValue(i), r.getStart(i), r.getEnd(i)});
+        }
+        streamAlleles(regions, filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    // synthetic built-in panels: a 10 kb gene per chromosome, cycling over autosomes, everything in them selected
+    @Override
+    public void selectVariantsInPanel(AllelesInPanelRequest r, StreamObserver<AllelesResponse> observer) {
+        int genes = switch (r.getPanel()) {
+            case "mito11" -> 11;
+            case "mito374" -> 374;
+            case "cancer104" -> 104;
+            default -> 0;
+        };
+        List<int[]> regions = new ArrayList<>();
+        for (int g = 0; g < genes; g++) {
+            int start = 1_000_000 + (g / 22) * 100_000;
+            regions.add(new int[] {Chromosome.CHR_1_VALUE + g % 22, start, start + 9_999});
+        }
+        streamAlleles(regions, inDataset(true, true), 0, 0, observer);
+    }
+
+    /* virtual cohort statistics */
+
+    @Override
+    public void selectVariantsInRegionInSamplesWithStats(AllelesInRegionInSamplesRequest r,
+                                                         StreamObserver<AllelesWithStatsResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inSamples(r.getSamplesList(), r.getHom(), r.getHet()));
+        streamWithStats(List.of(new int[] {r.getChr().getNumber(), r.getStart(), r.getEnd()}), filter,
+            r.getSamplesList(), r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void selectVariantsInMultiRegionsInSamplesWithStats(AllelesInMultiRegionsInSamplesRequest r,
+                                                               StreamObserver<AllelesWithStatsResponse> observer) {
+        Predicate<SyntheticVariant> filter = variantFilter("", "", r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn()).and(inSamples(r.getSamplesList(), r.getHom(), r.getHet()));
+        List<int[]> regions = new ArrayList<>();
+        for (int i = 0; i < r.getChrCount(); i++) {
+            regions.add(new int[] {r.getChrValue(i), r.getStart(i), r.getEnd(i)});
+        }
+        streamWithStats(regions, filter, r.getSamplesList(), r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void topNchi2(TopNchi2Request r, StreamObserver<AllelesWithStatsResponse> observer) {
+        Set<Integer> cases = sampleIndices(r.getSamplesList());
+        topN(r.getN(), v -> withStats(v, cases), VariantWithStats::getPchi2, observer);
+    }
+
+    @Override
+    public void topNHWE(TopNHWERequest r, StreamObserver<AllelesWithStatsResponse> observer) {
+        topN(r.getN(), v -> withStats(v, Set.of()), VariantWithStats::getPhwe, observer);
+    }
+
+    // single response with per node top-N lists concatenated, each sorted by p-value only, as cluster does
+    private void topN(int n, Function<SyntheticVariant, VariantWithStats> stats, ToDoubleFunction<VariantWithStats> p,
+                      StreamObserver<AllelesWithStatsResponse> observer) {
+        long elapsed = pause();
+        List<VariantWithStats> res = new ArrayList<>();
+        for (int node = 0; node < dataset.nodes(); node++) {
+            if (unreachable.contains(node)) continue;
+            List<VariantWithStats> top = new ArrayList<>();
+            for (Chromosome chr : Chromosome.values()) {
+                if (chr == Chromosome.UNRECOGNIZED) continue;
+                for (SyntheticVariant v : dataset.variants(chr, 1, topNWindow, node)) {
+                    VariantWithStats s = stats.apply(v);
+                    if (p.applyAsDouble(s) > 0) top.add(s);
+                }
+            }
+            top.sort(Comparator.comparingDouble(p));
+            res.addAll(top.subList(0, Math.min(Math.max(0, n), top.size())));
+        }
+        observer.onNext(AllelesWithStatsResponse.newBuilder()
+            .addAllAlleles(res)
+            .setIncompleteCluster(incomplete())
+            .setAffected(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    /* samples */
+
+    @Override
+    public void selectSamplesInRegion(SamplesInRegionRequest r, StreamObserver<SamplesResponse> observer) {
+        long elapsed = pause();
+        SamplesResponse.Builder builder = SamplesResponse.newBuilder()
+            .addAllSamples(samplesWithVariants(r))
+            .setIncompleteCluster(incomplete())
+            .setAffected(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0));
+        observer.onNext(builder.build());
+        observer.onCompleted();
+    }
+
+    @Override
+    public void countSamplesInRegion(SamplesInRegionRequest r, StreamObserver<CountSamplesResponse> observer) {
+        long elapsed = pause();
+        CountSamplesResponse.Builder builder = CountSamplesResponse.newBuilder()
+            .setCount(samplesWithVariants(r).size())
+            .setIncompleteCluster(incomplete())
+            .setAffected(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0));
+        observer.onNext(builder.build());
+        observer.onCompleted();
+    }
+
+    private List<String> samplesWithVariants(SamplesInRegionRequest r) {
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn());
+        List<SyntheticVariant> variants = reachable(r.getChr(), r.getStart(), r.getEnd()).stream().filter(filter).toList();
+        List<String> samples = new ArrayList<>();
+        for (int s = 0; s < SyntheticDataset.SAMPLES_TOTAL; s++) {
+            for (SyntheticVariant v : variants) {
+                int gt = dataset.genotype(v, s);
+                if ((gt == 2 && r.getHom()) || (gt == 1 && r.getHet())) {
+                    samples.add(dataset.sample(s));
+                    break;
+                }
+            }
+        }
+        return samples;
+    }
+
+    /* inheritance models */
+
+    @Override
+    public void selectDeNovo(DeNovoRequest r, StreamObserver<AllelesResponse> observer) {
+        int p1 = dataset.sampleIndex(r.getParent1());
+        int p2 = dataset.sampleIndex(r.getParent2());
+        int child = dataset.sampleIndex(r.getProband());
+        if (p1 < 0 || p2 < 0 || child < 0) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription("unknown sample").asRuntimeException());
+            return;
+        }
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn())
+            .and(v -> dataset.genotype(v, child) > 0 && dataset.genotype(v, p1) == 0 && dataset.genotype(v, p2) == 0);
+        streamAlleles(r.getChr(), r.getStart(), r.getEnd(), filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void selectHetDominant(HetDominantRequest r, StreamObserver<AllelesResponse> observer) {
+        int affected = dataset.sampleIndex(r.getAffectedParent());
+        int unaffected = dataset.sampleIndex(r.getUnaffectedParent());
+        int child = dataset.sampleIndex(r.getAffectedChild());
+        if (affected < 0 || unaffected < 0 || child < 0) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription("unknown sample").asRuntimeException());
+            return;
+        }
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn())
+            .and(v -> dataset.genotype(v, child) == 1 && dataset.genotype(v, affected) == 1
+                && dataset.genotype(v, unaffected) == 0);
+        streamAlleles(r.getChr(), r.getStart(), r.getEnd(), filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    @Override
+    public void selectHomRecessive(HomRecessiveRequest r, StreamObserver<AllelesResponse> observer) {
+        int p1 = dataset.sampleIndex(r.getUnaffectedParent1());
+        int p2 = dataset.sampleIndex(r.getUnaffectedParent2());
+        int child = dataset.sampleIndex(r.getAffectedChild());
+        if (p1 < 0 || p2 < 0 || child < 0) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription("unknown sample").asRuntimeException());
+            return;
+        }
+        Predicate<SyntheticVariant> filter = variantFilter(r.getRef(), r.getAlt(), r.getVariantMinLength(),
+            r.getVariantMaxLength(), r.getAnn())
+            .and(v -> dataset.genotype(v, child) == 2 && dataset.genotype(v, p1) == 1 && dataset.genotype(v, p2) == 1);
+        streamAlleles(r.getChr(), r.getStart(), r.getEnd(), filter, r.getSkip(), r.getLimit(), observer);
+    }
+
+    /* PRS */
+
+    static final String PRS_NAME = "PGS_SYNTHETIC";
+    static final int PRS_CARDINALITY = 200;
+
+    // effect alleles are the first PRS_CARDINALITY variants of chr1, with weights derived from variant seeds
+    @Override
+    public void prs(PRSRequest r, StreamObserver<PRSResponse> observer) {
+        if (!r.getPrsName().equals(PRS_NAME)) {
+            observer.onError(Status.NOT_FOUND.withDescription("unknown PRS: " + r.getPrsName()).asRuntimeException());
+            return;
+        }
+        Set<Integer> samples = new TreeSet<>(sampleIndices(r.getSamplesList()));
+        if (!r.getCohortName().isEmpty()) {
+            for (int s = 0; s < SyntheticDataset.SAMPLES_TOTAL; s++) {
+                if (dataset.population(s).equals(r.getCohortName())) samples.add(s);
+            }
+        }
+        long elapsed = pause();
+        List<SyntheticVariant> effects = new ArrayList<>();
+        for (SyntheticVariant v : dataset.variants(Chromosome.CHR_1, 1, 100_000, -1)) {
+            if (effects.size() == PRS_CARDINALITY) break;
+            effects.add(v);
+        }
+        PRSResponse.Builder response = PRSResponse.newBuilder()
+            .setPrsName(PRS_NAME)
+            .setDominant(r.getDominant())
+            .setRecessive(r.getRecessive())
+            .setPrsCardinality(effects.size());
+        for (int s : samples) {
+            double sum = 0;
+            int hethom = 0;
+            for (SyntheticVariant v : effects) {
+                int gt = dataset.genotype(v, s);
+                int dosage = r.getDominant() ? Math.min(gt, 1) : r.getRecessive() ? (gt == 2 ? 1 : 0) : gt;
+                if (gt > 0) hethom++;
+                sum += dosage * ((v.seed() % 1000) / 1000.0);
+            }
+            response.addSampleScores(SampleScore.newBuilder()
+                .setSample(dataset.sample(s))
+                .setScoresSum((float) sum)
+                .setHethomCardinality(hethom)
+                .setRefCardinality(effects.size() - hethom));
+        }
+        observer.onNext(response
+            .setIncompleteCluster(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    /* sex check */
+
+    // F is not computed from genotypes, which are sex agnostic in synthetic data: males are around 0.95 and
+    // females around 0.05, except every 400th sample, which looks as of the other sex; thresholds are honoured
+    float fstatX(int sample) {
+        boolean female = dataset.isFemale(sample) != (sample % 400 == 7);
+        double noise = Math.floorMod(SyntheticDataset.mix(sample), 1000) / 1000.0 * 0.1;
+        return (float) (female ? noise : 0.9 + noise);
+    }
+
+    private Set<Integer> fstatSamples(FstatXRequest r) {
+        Set<Integer> samples = new TreeSet<>(sampleIndices(r.getSamplesList()));
+        if (!r.getCohortName().isEmpty()) {
+            for (int s = 0; s < SyntheticDataset.SAMPLES_TOTAL; s++) {
+                if (dataset.population(s).equals(r.getCohortName())) samples.add(s);
+            }
+        }
+        return samples;
+    }
+
+    private SampleStat sampleStat(int s, float f, float femaleThreshold, float maleThreshold) {
+        String observed = f < femaleThreshold ? "female" : f > maleThreshold ? "male" : "unknown";
+        return SampleStat.newBuilder()
+            .setSample(dataset.sample(s))
+            .setReportedSex(dataset.isFemale(s) ? "female" : "male")
+            .setObservedSex(observed)
+            .setFStat(f)
+            .build();
+    }
+
+    @Override
+    public void fstatX(FstatXRequest r, StreamObserver<FstatXResponse> observer) {
+        long elapsed = pause();
+        FstatXResponse.Builder response = FstatXResponse.newBuilder();
+        for (int s : fstatSamples(r)) {
+            SampleStat stat = sampleStat(s, fstatX(s), 0.7f, 0.7f);
+            if (dataset.isFemale(s)) response.addFemales(stat); else response.addMales(stat);
+        }
+        observer.onNext(response
+            .setIncompleteCluster(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    @Override
+    public void sexMismatchCheck(FstatXRequest r, StreamObserver<SexMismatchResponse> observer) {
+        long elapsed = pause();
+        float femaleThreshold = r.getFemaleThreshold() == 0 ? 0.7f : r.getFemaleThreshold();
+        float maleThreshold = r.getMaleThreshold() == 0 ? 0.7f : r.getMaleThreshold();
+        SexMismatchResponse.Builder response = SexMismatchResponse.newBuilder();
+        for (int s : fstatSamples(r)) {
+            float f = fstatX(s);
+            if (dataset.isFemale(s) && f > maleThreshold) {
+                response.addMismatchFemales(sampleStat(s, f, femaleThreshold, maleThreshold));
+            } else if (!dataset.isFemale(s) && f < femaleThreshold) {
+                response.addMismatchMales(sampleStat(s, f, femaleThreshold, maleThreshold));
+            }
+        }
+        observer.onNext(response
+            .setIncompleteCluster(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    /* kinship */
+
+    // the last 698 samples are related in pairs, (2504, 2505), (2506, 2507), ... as first degree,
+    // and pairs of pairs are related as second degree, (2504, 2506), (2508, 2510), ...
+    KinshipDegree degree(int s1, int s2) {
+        if (s1 == s2) return KinshipDegree.TWINS_MONOZYGOTIC;
+        int a = Math.min(s1, s2);
+        int b = Math.max(s1, s2);
+        if (a >= 2504 && a % 2 == 0 && b == a + 1) return KinshipDegree.FIRST_DEGREE;
+        if (a >= 2504 && a % 4 == 0 && b == a + 2) return KinshipDegree.SECOND_DEGREE;
+        return KinshipDegree.UNRELATED;
+    }
+
+    float phi(KinshipDegree degree) {
+        return switch (degree) {
+            case TWINS_MONOZYGOTIC -> 0.5f;
+            case FIRST_DEGREE -> 0.25f;
+            case SECOND_DEGREE -> 0.125f;
+            case THIRD_DEGREE -> 0.0625f;
+            default -> 0.0f;
+        };
+    }
+
+    @Override
+    public void kinshipDuo(KinshipDuoRequest r, StreamObserver<KinshipResponse> observer) {
+        int s1 = dataset.sampleIndex(r.getSample1());
+        int s2 = dataset.sampleIndex(r.getSample2());
+        if (s1 < 0 || s2 < 0) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription("unknown sample").asRuntimeException());
+            return;
+        }
+        long elapsed = pause();
+        KinshipDegree degree = degree(s1, s2);
+        observer.onNext(KinshipResponse.newBuilder()
+            .addRel(Relatedness.newBuilder()
+                .setSampleA(r.getSample1())
+                .setSampleB(r.getSample2())
+                .setDegree(degree)
+                .setPhiBwf(phi(degree)))
+            .setIncompleteCluster(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    @Override
+    public void kinship(KinshipRequest r, StreamObserver<KinshipResponse> observer) {
+        Set<Integer> samples = new TreeSet<>(sampleIndices(r.getSamplesList()));
+        if (!r.getCohortName().isEmpty()) {
+            for (int s = 0; s < SyntheticDataset.SAMPLES_TOTAL; s++) {
+                if (dataset.population(s).equals(r.getCohortName())) samples.add(s);
+            }
+        }
+        if (samples.size() < 2) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription("no pairs of samples").asRuntimeException());
+            return;
+        }
+        long elapsed = pause();
+        Integer[] indices = samples.toArray(Integer[]::new);
+        KinshipResponse.Builder response = KinshipResponse.newBuilder();
+        for (int i = 0; i < indices.length; i++) {
+            for (int j = i + 1; j < indices.length; j++) {
+                addPair(response, indices[i], indices[j], r.getDegree(), r.getThreshold());
+            }
+        }
+        observer.onNext(response
+            .setIncompleteCluster(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    @Override
+    public void kinshipTrio(KinshipTrioRequest r, StreamObserver<KinshipResponse> observer) {
+        int[] trio = {dataset.sampleIndex(r.getSample1()), dataset.sampleIndex(r.getSample2()),
+            dataset.sampleIndex(r.getSample3())};
+        if (trio[0] < 0 || trio[1] < 0 || trio[2] < 0) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription("unknown sample").asRuntimeException());
+            return;
+        }
+        long elapsed = pause();
+        KinshipResponse.Builder response = KinshipResponse.newBuilder();
+        addPair(response, trio[0], trio[1], r.getDegree(), r.getThreshold());
+        addPair(response, trio[0], trio[2], r.getDegree(), r.getThreshold());
+        addPair(response, trio[1], trio[2], r.getDegree(), r.getThreshold());
+        observer.onNext(response
+            .setIncompleteCluster(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    // records are looked up among synthetic variants, so a VCF of a dataset sample finds the sample itself;
+    // phi is the within-family KING estimator, which is what between-family one reduces to on synthetic genotypes
+    @Override
+    public void sampleKinship(SampleKinshipRequest r, StreamObserver<SampleKinshipResponse> observer) {
+        List<SyntheticVariant> loci = new ArrayList<>();
+        List<Integer> genotypes = new ArrayList<>();
+        for (String line : r.getSampleVcf().split("\n")) {
+            if (line.startsWith("#") || line.isBlank()) continue;
+            String[] f = line.split("\t");
+            if (f.length < 10 || f[3].length() != 1 || f[4].length() != 1) continue;
+            Chromosome chr = ContigsMapping.contigName2GrpcChr(f[0].replaceFirst("^chr", ""));
+            if (chr.getNumber() < Chromosome.CHR_1_VALUE || chr.getNumber() > Chromosome.CHR_22_VALUE) continue;
+            int pos = Integer.parseInt(f[1]);
+            for (SyntheticVariant v : dataset.variants(chr, pos, pos, -1)) {
+                if (v.ref().equals(f[3]) && v.alt().equals(f[4])) {
+                    loci.add(v);
+                    genotypes.add((f[9].charAt(0) - '0') + (f[9].charAt(2) - '0'));
+                }
+            }
+        }
+        if (loci.isEmpty()) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription("no valid SNVs").asRuntimeException());
+            return;
+        }
+        long elapsed = pause();
+        SampleKinshipResponse.Builder response = SampleKinshipResponse.newBuilder().setAcceptedSnvs(loci.size());
+        for (int s = 0; s < SyntheticDataset.SAMPLES_TOTAL; s++) {
+            if (!r.getCohortName().isEmpty() && !dataset.population(s).equals(r.getCohortName())) continue;
+            int het1 = 0;
+            int het2 = 0;
+            int hetBoth = 0;
+            int homOp = 0;
+            for (int i = 0; i < loci.size(); i++) {
+                int g1 = genotypes.get(i);
+                int g2 = dataset.genotype(loci.get(i), s);
+                if (g1 == 1) het1++;
+                if (g2 == 1) het2++;
+                if (g1 == 1 && g2 == 1) hetBoth++;
+                if (Math.abs(g1 - g2) == 2) homOp++;
+            }
+            float phi = het1 + het2 == 0 ? 0 : (float) (hetBoth - 2 * homOp) / (het1 + het2);
+            KinshipDegree degree = phi > 0.354 ? KinshipDegree.TWINS_MONOZYGOTIC
+                : phi > 0.177 ? KinshipDegree.FIRST_DEGREE
+                : phi > 0.0884 ? KinshipDegree.SECOND_DEGREE
+                : phi > 0.0442 ? KinshipDegree.THIRD_DEGREE : KinshipDegree.UNRELATED;
+            boolean byDegree = r.getDegree() != KinshipDegree.KINSHIP_UNSPECIFIED;
+            if (byDegree ? degree.getNumber() > r.getDegree().getNumber() : phi <= r.getThreshold()) continue;
+            response.addRel(RelatednessPerSample.newBuilder()
+                .setSampleName(dataset.sample(s))
+                .setDegree(degree)
+                .setPhiBwf(phi)
+                .setCommonLoci(loci.size())
+                .setNHetS1(het1)
+                .setNHetS2(het2)
+                .setNHetS1S2(hetBoth)
+                .setNHomOp(homOp));
+        }
+        observer.onNext(response
+            .setIncompleteCluster(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+
+    // filtered by degree if given, otherwise by threshold
+    private void addPair(KinshipResponse.Builder response, int s1, int s2, KinshipDegree filter, float threshold) {
+        KinshipDegree degree = degree(s1, s2);
+        float phi = phi(degree);
+        boolean byDegree = filter != KinshipDegree.KINSHIP_UNSPECIFIED;
+        if (byDegree ? degree.getNumber() > filter.getNumber() : phi <= threshold && threshold > 0) return;
+        response.addRel(Relatedness.newBuilder()
+            .setSampleA(dataset.sample(s1))
+            .setSampleB(dataset.sample(s2))
+            .setDegree(degree)
+            .setPhiBwf(phi));
+    }
+
+    /* helpers */
+
+    private List<SyntheticVariant> reachable(Chromosome chr, int start, int end) {
+        List<SyntheticVariant> res = new ArrayList<>();
+        for (int node = 0; node < dataset.nodes(); node++) {
+            if (!unreachable.contains(node)) {
+                res.addAll(dataset.variants(chr, start, end, node));
+            }
+        }
+        return res;
+    }
+
+    private Predicate<SyntheticVariant> variantFilter(String ref, String alt, int minLength, int maxLength, Annotations ann) {
+        Predicate<SyntheticVariant> p = v -> ref.isEmpty() || ref.equalsIgnoreCase(v.ref());
+        p = p.and(v -> alt.isEmpty() || alt.equalsIgnoreCase(v.alt()));
+        p = p.and(v -> v.alt().length() >= minLength && (maxLength <= 0 || v.alt().length() <= maxLength));
+        if (ann.getGnomadAfLt() > 0) p = p.and(v -> v.gnomadAf() < ann.getGnomadAfLt());
+        if (ann.getGnomadAfGt() > 0) p = p.and(v -> v.gnomadAf() > ann.getGnomadAfGt());
+        if (ann.getVtypesCount() > 0) p = p.and(v -> ann.getVtypesList().contains(variantType(v)));
+        return p;
+    }
+
+    private static Predicate<SyntheticVariant> ends(int endMin, int endMax) {
+        return v -> v.end() >= endMin && v.end() <= endMax;
+    }
+
+    private static VariantType variantType(SyntheticVariant v) {
+        if (v.ref().length() == v.alt().length()) return VariantType.SNV;
+        return v.ref().length() < v.alt().length() ? VariantType.INSERTION : VariantType.DELETION;
+    }
+
+    private Predicate<SyntheticVariant> inDataset(boolean hom, boolean het) {
+        return v -> (hom && dataset.expectedHom(v) > 0) || (het && dataset.expectedHet(v) > 0);
+    }
+
+    private Predicate<SyntheticVariant> inSamples(List<String> samples, boolean hom, boolean het) {
+        int[] indices = samples.stream().mapToInt(dataset::sampleIndex).filter(i -> i >= 0).toArray();
+        return v -> {
+            for (int s : indices) {
+                int gt = dataset.genotype(v, s);
+                if ((gt == 2 && hom) || (gt == 1 && het)) return true;
+            }
+            return false;
+        };
+    }
+
+    Variant toVariant(SyntheticVariant v) {
+        long homc = dataset.expectedHom(v);
+        long hetc = dataset.expectedHet(v);
+        return Variant.newBuilder()
+            .setChr(v.chr())
+            .setStart(v.start())
+            .setEnd(v.end())
+            .setRef(v.ref())
+            .setAlt(v.alt())
+            .setAf(v.af())
+            .setAc(2 * homc + hetc)
+            .setAn(2 * SyntheticDataset.SAMPLES_TOTAL)
+            .setHomc((int) homc)
+            .setHetc((int) hetc)
+            .setGnomadAf(v.gnomadAf())
+            .build();
+    }
+
+    private void streamAlleles(Chromosome chr, int start, int end, Predicate<SyntheticVariant> filter, int skip, int limit,
+                               StreamObserver<AllelesResponse> observer) {
+        streamAlleles(List.of(new int[] {chr.getNumber(), start, end}), filter, skip, limit, observer);
+    }
+
+    private void streamAlleles(List<int[]> regions, Predicate<SyntheticVariant> filter, int skip, int limit,
+                               StreamObserver<AllelesResponse> observer) {
+        long elapsed = pause();
+        int perNodeLimit = limit <= 0 ? Integer.MAX_VALUE : limit;
+        for (int node = 0; node < dataset.nodes(); node++) {
+            if (unreachable.contains(node)) continue;
+            Set<SyntheticVariant> seen = new LinkedHashSet<>();
+            for (int[] region : regions) {
+                seen.addAll(dataset.variants(Chromosome.forNumber(region[0]), region[1], region[2], node));
+            }
+            List<Variant> batch = new ArrayList<>();
+            int matched = 0;
+            int returned = 0;
+            for (SyntheticVariant v : seen) {
+                if (returned >= perNodeLimit) break;
+                if (!filter.test(v)) continue;
+                if (matched++ < skip) continue;
+                batch.add(toVariant(v));
+                returned++;
+                if (batch.size() == batchSize) {
+                    observer.onNext(alleles(batch, node, elapsed));
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                observer.onNext(alleles(batch, node, elapsed));
+            }
+        }
+        observer.onCompleted();
+    }
+
+    private AllelesResponse alleles(List<Variant> batch, int node, long elapsed) {
+        return AllelesResponse.newBuilder()
+            .addAllAlleles(batch)
+            .setIncompleteCluster(incomplete())
+            .setAffected(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(node))
+            .build();
+    }
+
+    /**
+     * Virtual cohort counters and allelic chi-squared test of cases against the rest of cohort, and HWE test
+     * with inbreeding coefficient over the whole cohort for SNVs on autosomes and X (as diploid; synthetic
+     * genotypes have no sex specific ploidy). F-statistics among cases are not simulated and left empty.
+     */
+    VariantWithStats withStats(SyntheticVariant v, Set<Integer> cases) {
+        long caseAlt = 0;
+        long controlAlt = 0;
+        int vhomc = 0;
+        int vhetc = 0;
+        long hom = 0;
+        long het = 0;
+        for (int sample = 0; sample < SyntheticDataset.SAMPLES_TOTAL; sample++) {
+            int gt = dataset.genotype(v, sample);
+            if (gt == 2) hom++;
+            if (gt == 1) het++;
+            if (cases.contains(sample)) {
+                caseAlt += gt;
+                if (gt == 2) vhomc++;
+                if (gt == 1) vhetc++;
+            } else {
+                controlAlt += gt;
+            }
+        }
+        long caseRef = 2L * cases.size() - caseAlt;
+        long controlRef = 2L * (SyntheticDataset.SAMPLES_TOTAL - cases.size()) - controlAlt;
+        int van = 2 * cases.size();
+        VariantWithStats.Builder builder = VariantWithStats.newBuilder()
+            .setAllele(toVariant(v))
+            .setVac(caseAlt)
+            .setVan(van)
+            .setVaf(van == 0 ? 0 : (float) caseAlt / van)
+            .setVhomc(vhomc)
+            .setVhetc(vhetc)
+            .setPchi2((float) chi2p(caseAlt, caseRef, controlAlt, controlRef))
+            .setOr((float) (((caseAlt + 0.5) * (controlRef + 0.5)) / ((caseRef + 0.5) * (controlAlt + 0.5))));
+        boolean hweDomain = v.ref().length() == 1 && v.alt().length() == 1
+            && v.chr() != Chromosome.CHR_Y && v.chr() != Chromosome.CHR_MT;
+        if (hweDomain) {
+            long n = SyntheticDataset.SAMPLES_TOTAL;
+            double q = (2.0 * hom + het) / (2.0 * n);
+            double expectedHet = 2 * q * (1 - q) * n;
+            builder.setPhwe((float) hwep(n - hom - het, het, hom));
+            builder.setIbc(expectedHet == 0 ? 0 : (float) (1 - het / expectedHet));
+        }
+        return builder.build();
+    }
+
+    // p-value of chi-squared goodness of fit test to Hardy-Weinberg proportions, 1 degree of freedom; 0 when undefined
+    static double hwep(long homRef, long het, long homAlt) {
+        double n = homRef + het + homAlt;
+        double q = (2.0 * homAlt + het) / (2 * n);
+        if (n == 0 || q == 0 || q == 1) return 0;
+        double[] observed = {homRef, het, homAlt};
+        double[] expected = {(1 - q) * (1 - q) * n, 2 * q * (1 - q) * n, q * q * n};
+        double chi2 = 0;
+        for (int i = 0; i < 3; i++) {
+            chi2 += Math.pow(observed[i] - expected[i], 2) / expected[i];
+        }
+        return Math.max(Float.MIN_NORMAL, erfc(Math.sqrt(chi2 / 2)));
+    }
+
+    // p-value of Pearson's chi-squared test on 2x2 table, 1 degree of freedom; 0 when undefined
+    static double chi2p(long a, long b, long c, long d) {
+        double n = a + b + c + d;
+        double denominator = (double) (a + b) * (c + d) * (a + c) * (b + d);
+        if (denominator == 0) return 0;
+        double chi2 = n * Math.pow((double) a * d - (double) b * c, 2) / denominator;
+        return Math.max(Float.MIN_NORMAL, erfc(Math.sqrt(chi2 / 2)));
+    }
+
+    // Numerical Recipes erfcc, fractional error < 1.2e-7
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 +
+            t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 +
+            t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+
+    private Set<Integer> sampleIndices(List<String> samples) {
+        Set<Integer> res = new HashSet<>();
+        for (String s : samples) {
+            int i = dataset.sampleIndex(s);
+            if (i >= 0) res.add(i);
+        }
+        return res;
+    }
+
+    // per node, as cluster does: each node applies skip & limit to its own variants
+    private void streamWithStats(List<int[]> regions, Predicate<SyntheticVariant> filter, List<String> samples,
+                                 int skip, int limit, StreamObserver<AllelesWithStatsResponse> observer) {
+        long elapsed = pause();
+        Set<Integer> cases = sampleIndices(samples);
+        int perNodeLimit = limit <= 0 ? Integer.MAX_VALUE : limit;
+        for (int node = 0; node < dataset.nodes(); node++) {
+            if (unreachable.contains(node)) continue;
+            Set<SyntheticVariant> seen = new LinkedHashSet<>();
+            for (int[] region : regions) {
+                seen.addAll(dataset.variants(Chromosome.forNumber(region[0]), region[1], region[2], node));
+            }
+            List<VariantWithStats> batch = new ArrayList<>();
+            int matched = 0;
+            int returned = 0;
+            for (SyntheticVariant v : seen) {
+                if (returned >= perNodeLimit) break;
+                if (!filter.test(v)) continue;
+                if (matched++ < skip) continue;
+                batch.add(withStats(v, cases));
+                returned++;
+                if (batch.size() == batchSize) {
+                    observer.onNext(allelesWithStats(batch, node, elapsed));
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                observer.onNext(allelesWithStats(batch, node, elapsed));
+            }
+        }
+        observer.onCompleted();
+    }
+
+    private AllelesWithStatsResponse allelesWithStats(List<VariantWithStats> batch, int node, long elapsed) {
+        return AllelesWithStatsResponse.newBuilder()
+            .addAllAlleles(batch)
+            .setIncompleteCluster(incomplete())
+            .setAffected(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(node))
+            .build();
+    }
+
+    private void countAlleles(Chromosome chr, int start, int end, Predicate<SyntheticVariant> filter,
+                              StreamObserver<CountAllelesResponse> observer) {
+        long elapsed = pause();
+        long count = reachable(chr, start, end).stream().filter(filter).count();
+        observer.onNext(CountAllelesResponse.newBuilder()
+            .setCount(count)
+            .setIncompleteCluster(incomplete())
+            .setAffected(incomplete())
+            .setElapsedMs(elapsed)
+            .setElapsedDbMs(elapsed)
+            .setNodeId(dataset.nodeId(0))
+            .build());
+        observer.onCompleted();
+    }
+}
@@ -0,0 +1,38 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.Chromosome;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneRegionsTest {
+
+    private static final GeneRegions GENES = GeneRegions.read("""
+        # symbol\tchromosome\tstart\tend
+        BRCA1\t17\t43044295\t43125483
+        BRCA2\t13\t32315508\t32400268
+        CSF2RA\tX\t1268800\t1310381
+        CSF2RA\tY\t1268800\t1310381
+        broken\t17\t43044295
+        BAD\tchrQ\t1\t2
+        """);
+
+    @Test
+    void readsTable() {
+        assertEquals(3, GENES.size());
+        assertEquals(List.of(new Region(Chromosome.CHR_17, 43044295, 43125483)), GENES.get("brca1"));
+        assertEquals(2, GENES.get("CSF2RA").size());
+        assertTrue(GENES.get("BAD").isEmpty());
+    }
+
+    @Test
+    void unknownGeneEmptiesPanel() {
+        assertEquals(4, GENES.resolve("BRCA1, BRCA2;CSF2RA").size());
+        assertTrue(GENES.resolve("BRCA1, BRAC2").isEmpty());
+        assertEquals(3, DnaerysClient.panelRegions("BRCA1", "1:100-200, 2:300-400", GENES).size());
+        assertTrue(DnaerysClient.panelRegions("BRCA1", "1:100-", GENES).isEmpty());
+        assertTrue(DnaerysClient.panelRegions(null, " ", GENES).isEmpty());
+    }
+}
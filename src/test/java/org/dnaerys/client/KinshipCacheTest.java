@@ -0,0 +1,42 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.KinshipDegree;
+import org.dnaerys.cluster.grpc.KinshipResponse;
+import org.dnaerys.cluster.grpc.Relatedness;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KinshipCacheTest {
+
+    private static Relatedness pair(String a, String b, KinshipDegree degree, float phi) {
+        return Relatedness.newBuilder().setSampleA(a).setSampleB(b).setDegree(degree).setPhiBwf(phi).build();
+    }
+
+    @Test
+    void pairsAreUnordered() {
+        KinshipCache cache = new KinshipCache(10);
+        cache.put(pair("B", "A", KinshipDegree.FIRST_DEGREE, 0.25f));
+        assertEquals(new KinshipCache.Kinship(KinshipDegree.FIRST_DEGREE, 0.25f), cache.get("A", "B"));
+        assertEquals(cache.get("A", "B"), cache.get("B", "A"));
+        assertNull(cache.get("A", "C"));
+    }
+
+    @Test
+    void keepsCompleteAnswersOnly() {
+        KinshipCache cache = new KinshipCache(2);
+        cache.putAll(KinshipResponse.newBuilder().setIncompleteCluster(true)
+            .addRel(pair("A", "B", KinshipDegree.UNRELATED, 0f)).build());
+        assertEquals(0, cache.size());
+        cache.putAll(KinshipResponse.newBuilder()
+            .addRel(pair("A", "B", KinshipDegree.UNRELATED, 0f))
+            .addRel(pair("A", "C", KinshipDegree.KINSHIP_UNSPECIFIED, 0f))
+            .addRel(pair("A", "D", KinshipDegree.SECOND_DEGREE, 0.12f))
+            .addRel(pair("A", "E", KinshipDegree.THIRD_DEGREE, 0.06f)).build());
+        // bounded, least recently used goes first
+        assertEquals(2, cache.size());
+        assertNull(cache.get("A", "B"));
+        assertNull(cache.get("A", "C"));
+        assertNotNull(cache.get("E", "A"));
+    }
+}
@@ -0,0 +1,44 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.KinshipDegree;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KinshipMatrixTest {
+
+    @Test
+    void pairsAreSymmetric() {
+        KinshipMatrix matrix = new KinshipMatrix();
+        matrix.put("A", "B", KinshipDegree.FIRST_DEGREE, 0.25f);
+        matrix.put("C", "A", KinshipDegree.UNRELATED, 0.01f);
+        matrix.put("A", "A", KinshipDegree.TWINS_MONOZYGOTIC, 0.5f);
+        assertEquals(KinshipDegree.FIRST_DEGREE, matrix.degree("B", "A"));
+        assertEquals(0.01f, matrix.phi("A", "C"));
+        assertEquals(KinshipDegree.KINSHIP_UNSPECIFIED, matrix.degree("B", "C"));
+        assertTrue(Float.isNaN(matrix.phi("B", "C")));
+        assertEquals(3, matrix.samples());
+        assertEquals(2, matrix.pairs());
+        // reported again, e.g. as (B, A)
+        matrix.put("B", "A", KinshipDegree.FIRST_DEGREE, 0.25f);
+        assertEquals(2, matrix.pairs());
+    }
+
+    @Test
+    void familiesAreConnectedComponents() {
+        KinshipMatrix matrix = new KinshipMatrix();
+        for (int i = 0; i < 1000; i++) {
+            matrix.put("S" + i, "S" + (i + 1), KinshipDegree.UNRELATED, 0f);
+        }
+        matrix.put("S10", "S11", KinshipDegree.FIRST_DEGREE, 0.25f);
+        matrix.put("S12", "S11", KinshipDegree.SECOND_DEGREE, 0.12f);
+        matrix.put("S500", "S12", KinshipDegree.THIRD_DEGREE, 0.06f);
+        matrix.put("S700", "S900", KinshipDegree.TWINS_MONOZYGOTIC, 0.5f);
+        assertEquals(List.of(List.of("S10", "S11", "S12", "S500"), List.of("S700", "S900")), matrix.families());
+        assertEquals(4, matrix.related().size());
+        assertEquals("S700", matrix.related().getFirst().getSampleA());
+        assertEquals(1001, matrix.samples());
+    }
+}
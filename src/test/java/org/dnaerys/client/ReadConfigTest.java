@@ -0,0 +1,26 @@
+package org.dnaerys.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadConfigTest {
+
+    private static final String KEY = "readConfigTest.value";
+
+    @Test
+    void outOfRangeIntFallsBackToDefault() {
+        try {
+            System.setProperty(KEY, " 42 ");
+            assertEquals(42, ReadConfig.getInt(KEY, 7));
+            System.setProperty(KEY, "4294967338"); // 2^32 + 42, was truncated to 42
+            assertEquals(7, ReadConfig.getInt(KEY, 7));
+            assertEquals(4294967338L, ReadConfig.getLong(KEY, 7));
+            System.setProperty(KEY, "many");
+            assertEquals(7, ReadConfig.getInt(KEY, 7));
+        } finally {
+            System.clearProperty(KEY);
+        }
+        assertEquals(7, ReadConfig.getInt(KEY, 7));
+    }
+}
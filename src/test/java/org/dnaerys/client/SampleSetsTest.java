@@ -0,0 +1,60 @@
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.Cohort;
+import org.dnaerys.cluster.grpc.DatasetInfoResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleSetsTest {
+
+    private static final SampleIndex INDEX = SampleIndex.of(DatasetInfoResponse.newBuilder()
+        .setSamplesTotal(5)
+        .addCohorts(Cohort.newBuilder().setCohortName("GBR").addFemaleSamplesNames("HG1").addMaleSamplesNames("HG2"))
+        .addCohorts(Cohort.newBuilder().setCohortName("YRI").addFemaleSamplesNames("NA3").addFemaleSamplesNames("NA4")
+            .addMaleSamplesNames("NA5"))
+        .build());
+
+    @Test
+    void internsSamplesOfCohorts() {
+        assertEquals(5, INDEX.size());
+        assertEquals(List.of("GBR", "YRI"), INDEX.cohorts());
+        assertEquals(List.of("NA3", "NA4", "NA5"), INDEX.names(INDEX.cohort("YRI")));
+        assertEquals(List.of("HG1", "NA3", "NA4"), INDEX.names(INDEX.females()));
+        assertNull(INDEX.cohort("CEU"));
+
+        List<String> unknown = new ArrayList<>();
+        BitSet set = INDEX.of(List.of("NA5", "HG1", "HG9"), unknown);
+        assertEquals(List.of("HG1", "NA5"), INDEX.names(set));
+        assertEquals(List.of("HG9"), unknown);
+    }
+
+    @Test
+    void setsArePerSessionAndBounded() {
+        SampleSets sets = new SampleSets(2, 2);
+        sets.put("s1", "a", INDEX.cohort("GBR"));
+        sets.put("s1", "b", INDEX.cohort("YRI"));
+        assertNull(sets.get("s2", "a"));
+        assertEquals(2, sets.get("s1", "a").cardinality());
+
+        // least recently used set is evicted: 'b', as 'a' was just read
+        sets.put("s1", "c", INDEX.females());
+        assertEquals(Map.of("a", 2, "c", 3), sets.sizes("s1"));
+
+        // copies in and out
+        BitSet a = sets.get("s1", "a");
+        a.clear();
+        assertEquals(2, sets.get("s1", "a").cardinality());
+
+        sets.put("s2", "a", INDEX.all());
+        sets.put("s3", "a", INDEX.all());
+        assertTrue(sets.sizes("s1").isEmpty());
+        assertTrue(sets.remove("s3", "a"));
+        assertFalse(sets.remove("s3", "a"));
+    }
+}
@@ -0,0 +1,30 @@
+package org.dnaerys.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreDistributionTest {
+
+    @Test
+    void percentilesInterpolate() {
+        ScoreDistribution d = new ScoreDistribution(new double[] {4, 1, 3, 2, 5});
+        assertEquals(1, d.percentile(0));
+        assertEquals(3, d.percentile(50));
+        assertEquals(4.5, d.percentile(87.5));
+        assertEquals(5, d.percentile(100));
+        assertEquals(3, d.mean());
+        assertEquals(Math.sqrt(2.5), d.sd(), 1e-12);
+    }
+
+    @Test
+    void ranksTiesInTheMiddle() {
+        ScoreDistribution d = new ScoreDistribution(new double[] {1, 2, 2, 2, 3});
+        assertEquals(10, d.rank(1));
+        assertEquals(50, d.rank(2));
+        assertEquals(90, d.rank(3));
+        assertEquals(0, d.rank(0));
+        assertEquals(100, d.rank(4));
+        assertThrows(IllegalArgumentException.class, () -> new ScoreDistribution(new double[0]));
+    }
+}
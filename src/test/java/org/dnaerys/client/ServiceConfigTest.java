@@ -0,0 +1,97 @@
+package org.dnaerys.client;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceConfigTest {
+
+    private static final CountAllelesInRegionRequest COUNT = CountAllelesInRegionRequest.newBuilder()
+        .setChr(Chromosome.CHR_1).setStart(1_000_000).setEnd(1_010_000).setHom(true).setHet(true).build();
+
+    private static ServiceConfig retry(int maxTokens) {
+        return new ServiceConfig(true, 3, 10, 100, 2.0, List.of("UNAVAILABLE"), false, false, 2, 500, maxTokens, 0.1);
+    }
+
+    private static ServiceConfig hedging(long delayMs) {
+        return new ServiceConfig(false, 3, 10, 100, 2.0, List.of("UNAVAILABLE"), false, true, 2, delayMs, 10, 0.1);
+    }
+
+    private static <T> T withChannel(FakeDnaerysCluster cluster, ServiceConfig config,
+                                     Function<DnaerysServiceGrpc.DnaerysServiceBlockingStub, T> call)
+        throws InterruptedException {
+        ManagedChannel channel = config.apply(
+            Grpc.newChannelBuilderForAddress("localhost", cluster.port(), InsecureChannelCredentials.create())).build();
+        try {
+            return call.apply(DnaerysServiceGrpc.newBlockingStub(channel));
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().startTcp(0)) {
+            cluster.failNext(2);
+            CountAllelesResponse response = withChannel(cluster, retry(10), stub -> stub.countVariantsInRegion(COUNT));
+            assertTrue(response.getCount() > 0);
+            assertEquals(1, cluster.service().calls());
+        }
+    }
+
+    @Test
+    void failsWithoutRetry() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().startTcp(0)) {
+            cluster.failNext(1);
+            ServiceConfig none = new ServiceConfig(false, 3, 10, 100, 2.0, List.of("UNAVAILABLE"), false, false, 2, 500, 10, 0.1);
+            StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> withChannel(cluster, none, stub -> stub.countVariantsInRegion(COUNT)));
+            assertEquals(Status.Code.UNAVAILABLE, e.getStatus().getCode());
+        }
+    }
+
+    @Test
+    void throttlingStopsRetries() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().startTcp(0)) {
+            cluster.failNext(2);
+            // first failure spends half of 2 tokens, so no retry is allowed
+            StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> withChannel(cluster, retry(2), stub -> stub.countVariantsInRegion(COUNT)));
+            assertEquals(Status.Code.UNAVAILABLE, e.getStatus().getCode());
+        }
+    }
+
+    @Test
+    void hedgesSlowCounts() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().startTcp(0)) {
+            cluster.service().latency(300, 0);
+            CountAllelesResponse response = withChannel(cluster, hedging(50), stub -> stub.countVariantsInRegion(COUNT));
+            assertTrue(response.getCount() > 0);
+            assertEquals(2, cluster.service().calls());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void heavyAnalysesAreNotRetriedByDefault() {
+        List<Map<String, Object>> methodConfig = (List<Map<String, Object>>) retry(10).toMap().get("methodConfig");
+        assertEquals(1, methodConfig.size());
+        List<Map<String, Object>> names = (List<Map<String, Object>>) methodConfig.getFirst().get("name");
+        List<Object> methods = names.stream().map(n -> n.get("method")).toList();
+        assertTrue(methods.contains("SelectVariantsInRegion"));
+        assertTrue(methods.contains("DatasetInfo"));
+        assertFalse(methods.contains("Kinship"));
+        assertFalse(methods.contains("Prs"));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2025 Dmitry Degrave
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dnaerys.client;
+
+import org.dnaerys.cluster.grpc.Chromosome;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic dataset of 1KGP scale.
+ *
+ * Variants are generated per fixed size bucket of a chromosome from a seed derived from (chromosome, bucket),
+ * so the same variants are returned for any overlapping query window and for any run. Each bucket is owned
+ * by a single node, which gives multi-node batching similar to real cluster.
+ *
+ * AF follows 1/x neutral spectrum between singleton and 0.5. Dataset level counters (ac, an, homc, hetc) are
+ * expected values for given AF, while per sample genotypes are drawn from a hash of (variant, sample) - cheap
+ * enough for load tests, but the two are consistent only statistically.
+ */
+public class SyntheticDataset {
+
+    public static final int SAMPLES_TOTAL = 3202;
+    public static final int FEMALES_TOTAL = 1604;
+    public static final int MALES_TOTAL = 1598;
+    public static final int VARIANTS_TOTAL = 138044724;
+
+    public static final String[] POPULATIONS = {
+        "ACB", "ASW", "BEB", "CDX", "CEU", "CHB", "CHS", "CLM", "ESN", "FIN", "GBR", "GIH", "GWD",
+        "IBS", "ITU", "JPT", "KHV", "LWK", "MSL", "MXL", "PEL", "PJL", "PUR", "STU", "TSI", "YRI"
+    };
+
+    // GRCh38 lengths, in Chromosome enum order starting from CHR_1
+    static final int[] CHR_LENGTHS = {
+        248956422, 242193529, 198295559, 190214555, 181538259, 170805979, 159345973, 145138636,
+        138394717, 133797422, 135086622, 133275309, 114364328, 107043718, 101991189, 90338345,
+        83257441, 80373285, 58617616, 64444167, 46709983, 50818468, 156040895, 57227415, 16569
+    };
+
+    static final int BUCKET = 1000; // bp
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    private final long seed;
+    private final double density; // variants per bp
+    private final int nodes;
+    private final String[] samples = new String[SAMPLES_TOTAL];
+
+    public SyntheticDataset(long seed, double density, int nodes) {
+        this.seed = seed;
+        this.density = density;
+        this.nodes = nodes;
+        for (int i = 0; i < SAMPLES_TOTAL; i++) {
+            samples[i] = (i < SAMPLES_TOTAL / 2 ? "HG" : "NA") + String.format("%05d", 100 + i);
+        }
+    }
+
+    // 1KGP density: 138M variants over ~3.1Gbp
+    public SyntheticDataset() {
+        this(42L, 0.045, 4);
+    }
+
+    public record SyntheticVariant(Chromosome chr, int start, int end, String ref, String alt,
+                                   float af, float gnomadAf, long seed, int node) {
+
+        public int length() {
+            return Math.max(ref.length(), alt.length());
+        }
+    }
+
+    public int nodes() {
+        return nodes;
+    }
+
+    public String nodeId(int node) {
+        return "node-" + node;
+    }
+
+    public String sample(int index) {
+        return samples[index];
+    }
+
+    public int sampleIndex(String name) {
+        if (name == null || name.length() != 7) return -1;
+        try {
+            int i = Integer.parseInt(name.substring(2)) - 100;
+            return i >= 0 && i < SAMPLES_TOTAL && samples[i].equals(name) ? i : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public boolean isFemale(int sample) {
+        return sample >= SAMPLES_TOTAL - (FEMALES_TOTAL - MALES_TOTAL) || sample % 2 == 0;
+    }
+
+    public String population(int sample) {
+        return POPULATIONS[sample % POPULATIONS.length];
+    }
+
+    public static int chrLength(Chromosome chr) {
+        int i = chr.getNumber() - 1;
+        return i >= 0 && i < CHR_LENGTHS.length ? CHR_LENGTHS[i] : 0;
+    }
+
+    /**
+     * All variants with start in [start, end], ordered by position, optionally restricted to a node.
+     */
+    public List<SyntheticVariant> variants(Chromosome chr, int start, int end, int node) {
+        List<SyntheticVariant> res = new ArrayList<>();
+        int length = chrLength(chr);
+        if (length == 0) return res;
+        int from = Math.max(1, start);
+        int to = Math.min(length, end);
+        for (int bucket = (from - 1) / BUCKET; bucket <= (to - 1) / BUCKET; bucket++) {
+            int owner = Math.floorMod(mix(bucket * 31L + chr.getNumber()), nodes);
+            if (node >= 0 && owner != node) continue;
+            for (SyntheticVariant v : bucket(chr, bucket, owner)) {
+                if (v.start() >= from && v.start() <= to) res.add(v);
+            }
+        }
+        return res;
+    }
+
+    private List<SyntheticVariant> bucket(Chromosome chr, int bucket, int owner) {
+        SplittableRandom rnd = new SplittableRandom(mix(seed ^ ((long) chr.getNumber() << 40) ^ bucket));
+        // Poisson-ish count around expected density
+        int expected = (int) Math.round(density * BUCKET);
+        int count = Math.max(0, expected + rnd.nextInt(-expected / 3 - 1, expected / 3 + 2));
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = bucket * BUCKET + 1 + rnd.nextInt(BUCKET);
+        }
+        Arrays.sort(positions);
+        List<SyntheticVariant> res = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int pos = positions[i];
+            String ref;
+            String alt;
+            double kind = rnd.nextDouble();
+            if (kind < 0.9) { // SNV
+                int r = rnd.nextInt(4);
+                ref = String.valueOf(BASES[r]);
+                alt = String.valueOf(BASES[(r + 1 + rnd.nextInt(3)) % 4]);
+            } else if (kind < 0.95) { // insertion
+                ref = String.valueOf(BASES[rnd.nextInt(4)]);
+                alt = ref + randomBases(rnd, 1 + rnd.nextInt(10));
+            } else { // deletion
+                ref = String.valueOf(BASES[rnd.nextInt(4)]) + randomBases(rnd, 1 + rnd.nextInt(10));
+                alt = ref.substring(0, 1);
+            }
+            // 1/x spectrum: log-uniform between singleton and 0.5
+            double minAf = 1.0 / (2 * SAMPLES_TOTAL);
+            float af = (float) Math.exp(Math.log(minAf) + rnd.nextDouble() * (Math.log(0.5) - Math.log(minAf)));
+            float gnomadAf = (float) Math.min(1.0, af * (0.5 + rnd.nextDouble()));
+            res.add(new SyntheticVariant(chr, pos, pos + ref.length() - 1, ref, alt, af, gnomadAf, rnd.nextLong(), owner));
+        }
+        return res;
+    }
+
+    private static String randomBases(SplittableRandom rnd, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(BASES[rnd.nextInt(4)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Genotype of a sample: 0 - ref, 1 - het, 2 - hom alt
+     */
+    public int genotype(SyntheticVariant v, int sample) {
+        double u = (mix(v.seed() * 31 + sample) >>> 11) * 0x1.0p-53;
+        double hom = (double) v.af() * v.af();
+        if (u < hom) return 2;
+        if (u < hom + 2.0 * v.af() * (1 - v.af())) return 1;
+        return 0;
+    }
+
+    public long expectedHom(SyntheticVariant v) {
+        return Math.round((double) v.af() * v.af() * SAMPLES_TOTAL);
+    }
+
+    public long expectedHet(SyntheticVariant v) {
+        return Math.max(1, Math.round(2.0 * v.af() * (1 - v.af()) * SAMPLES_TOTAL));
+    }
+
+    // SplitMix64 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
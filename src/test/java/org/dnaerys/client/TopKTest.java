@@ -0,0 +1,54 @@
+package org.dnaerys.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void keepsSmallest() {
+        TopK<Integer> top = new TopK<>(5, Comparator.naturalOrder());
+        SplittableRandom random = new SplittableRandom(1);
+        List<Integer> values = IntStream.range(0, 10_000).map(i -> random.nextInt(1_000_000)).boxed().toList();
+        values.forEach(top::offer);
+        assertEquals(values.stream().sorted().limit(5).toList(), top.sorted());
+        assertEquals(10_000, top.offered());
+    }
+
+    @Test
+    void fewerThanK() {
+        TopK<String> top = new TopK<>(10, Comparator.naturalOrder());
+        top.offer("b");
+        top.offer("a");
+        assertEquals(List.of("a", "b"), top.sorted());
+        assertThrows(IllegalArgumentException.class, () -> new TopK<String>(0, Comparator.naturalOrder()));
+    }
+
+    @Test
+    void parsesRegions() {
+        List<Region> regions = Region.parse("17:43044295-43125483, chr13:32315508-32400268;X:1-10");
+        assertEquals(3, regions.size());
+        assertEquals(new Region(org.dnaerys.cluster.grpc.Chromosome.CHR_13, 32315508, 32400268), regions.get(1));
+        assertTrue(Region.parse("17:43044295-43125483, 17:43,044,295").isEmpty());
+        assertTrue(Region.parse("23:1-10").isEmpty());
+        assertTrue(Region.parse("1:10-1").isEmpty());
+    }
+
+    @Test
+    void mergesSortedRuns() {
+        // three sorted lists concatenated, with duplicates across them
+        List<Integer> concatenated = List.of(1, 4, 9, 2, 3, 4, 10, 0, 5);
+        assertEquals(List.of(List.of(1, 4, 9), List.of(2, 3, 4, 10), List.of(0, 5)),
+            SortedRuns.runs(concatenated, Comparator.naturalOrder()));
+        assertEquals(List.of(0, 1, 2, 3, 4), SortedRuns.topN(concatenated, Comparator.naturalOrder(), 5, i -> i));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 9, 10),
+            SortedRuns.topN(concatenated, Comparator.naturalOrder(), 100, i -> i));
+        assertEquals(List.of(), SortedRuns.topN(List.<Integer>of(), Comparator.naturalOrder(), 5, i -> i));
+    }
+}
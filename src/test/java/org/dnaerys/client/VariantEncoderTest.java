@@ -0,0 +1,66 @@
+package org.dnaerys.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariantEncoderTest {
+
+    // what Gson used to produce by reflection, minus protobuf internals
+    private static JsonObject reflective(Variant v) {
+        JsonObject json = JsonParser.parseString(new Gson().toJson(v)).getAsJsonObject();
+        for (String internal : List.of("memoizedIsInitialized", "unknownFields", "memoizedSize", "memoizedHashCode")) {
+            json.remove(internal);
+        }
+        return json;
+    }
+
+    @Test
+    void matchesReflectiveEncoding() {
+        List<Variant> variants = List.of(
+            Variant.getDefaultInstance(),
+            Variant.newBuilder().setChr(Chromosome.CHR_X).setStart(100).setEnd(100).setRef("A").setAlt("G")
+                .setAf(0.1f).setAc(1.5f).setAn(5008).setHomc(1).setHetc(3).setMisc(2).setHomfc(1).setHetfc(2)
+                .setMisfc(1).setGnomadAf(1.0e-5f).build(),
+            Variant.newBuilder().setChr(Chromosome.CHR_1).setStart(1_000).setEnd(5_000).setRef("N").setAlt("<DEL>")
+                .setAf(0.5f).build(),
+            Variant.newBuilder().setRef("quote\" backslash\\ tab\t ctrl\u0001").setAlt(" ").build());
+        for (Variant v : variants) {
+            assertEquals(reflective(v), JsonParser.parseString(VariantEncoder.toJson(v)), v.toString());
+        }
+    }
+
+    @Test
+    void matchesReflectiveEncodingOfSyntheticData() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().start()) {
+            Iterator<AllelesResponse> response = DnaerysServiceGrpc.newBlockingStub(cluster.channel())
+                .selectVariantsInRegion(AllelesInRegionRequest.newBuilder()
+                    .setChr(Chromosome.CHR_2).setStart(1_000_000).setEnd(1_050_000).setHom(true).setHet(true).build());
+            int n = 0;
+            while (response.hasNext()) {
+                for (Variant v : response.next().getAllelesList()) {
+                    assertEquals(reflective(v), JsonParser.parseString(VariantEncoder.toJson(v)));
+                    n++;
+                }
+            }
+            assertTrue(n > 100);
+        }
+    }
+
+    @Test
+    void isDeterministic() {
+        Variant v = Variant.newBuilder().setChr(Chromosome.CHR_2).setStart(7).setEnd(7).setRef("C").setAlt("T").build();
+        String before = VariantEncoder.toJson(v);
+        v.hashCode();
+        v.getSerializedSize();
+        assertEquals(before, VariantEncoder.toJson(v));
+        assertFalse(before.contains("memoized"));
+    }
+}
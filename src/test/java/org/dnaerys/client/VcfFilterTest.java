@@ -0,0 +1,58 @@
+package org.dnaerys.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VcfFilterTest {
+
+    private static final String VCF = """
+        ##fileformat=VCFv4.2
+        ##INFO=<ID=AF,Number=A,Type=Float,Description="Allele Frequency">
+        #CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA12878
+        chr1\t100\trs1\tA\tG\t50\tPASS\tAF=0.1\tGT:DP\t0|1:30
+        1\t200\t.\tc\tt\t.\t.\t.\tDP:GT\t12:1/1
+        2\t300\t.\tA\tG,T\t.\t.\t.\tGT\t1/2
+        2\t400\t.\tAT\tA\t.\t.\t.\tGT\t0/1
+        X\t500\t.\tA\tG\t.\t.\t.\tGT\t0/1
+        3\t600\t.\tA\tG\t.\t.\t.\tGT\t./1
+        3\t700\t.\tA\t<DEL>\t.\t.\t.\tGT\t0/1
+        22\t800\t.\tG\tA\t.\t.\t.\tGT\t0/0
+        23\t900\t.\tG\tA\t.\t.\t.\tGT\t0/1
+        """;
+
+    @Test
+    void keepsAutosomalBiallelicSnvs() {
+        VcfFilter.Result result = VcfFilter.filter(VCF);
+        assertEquals(3, result.accepted());
+        assertEquals(6, result.skipped());
+        assertEquals("""
+            ##fileformat=VCFv4.2
+            #CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA12878
+            chr1\t100\t.\tA\tG\t.\t.\t.\tGT\t0|1
+            1\t200\t.\tC\tT\t.\t.\t.\tGT\t1/1
+            22\t800\t.\tG\tA\t.\t.\t.\tGT\t0/0
+            """, result.vcf());
+    }
+
+    @Test
+    void streamsGzipFiles(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("sample.vcf.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+             PrintStream print = new PrintStream(out, false, StandardCharsets.UTF_8)) {
+            print.print(VCF);
+        }
+        assertEquals(VcfFilter.filter(VCF), VcfFilter.filter(file));
+        Path plain = dir.resolve("sample.vcf");
+        Files.writeString(plain, VCF);
+        assertEquals(VcfFilter.filter(VCF), VcfFilter.filter(plain));
+    }
+}
@@ -0,0 +1,48 @@
+package org.dnaerys.client.entity;
+
+import org.dnaerys.cluster.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnumLookupTest {
+
+    @Test
+    void normalizesCaseSpacesAndDashes() {
+        assertEquals(Impact.HIGH, ImpactMapper.fromString(" high "));
+        assertEquals(Consequence.MISSENSE_VARIANT, ConsequencesMapper.fromString("Missense-Variant"));
+        assertEquals(ClinSignificance.LIKELY_PATHOGENIC, ClinSigMapper.fromString("likely pathogenic"));
+        assertEquals(BioType.PROTEIN_CODING, BiotypeMapper.fromString("protein_coding"));
+        assertEquals("SPLICE_REGION", EnumLookup.normalize("splice region"));
+        assertEquals("HIGH", EnumLookup.normalize("HIGH"));
+    }
+
+    @Test
+    void unknownAndNullAreUnrecognized() {
+        assertEquals(Impact.UNRECOGNIZED, ImpactMapper.fromString("severe"));
+        assertEquals(Impact.UNRECOGNIZED, ImpactMapper.fromString("unrecognized"));
+        assertEquals(Impact.UNRECOGNIZED, ImpactMapper.fromString(null));
+        assertEquals(SIFT.UNRECOGNIZED, SIFTMapper.fromString(""));
+    }
+
+    @Test
+    void rejectsSiftLowConfidence() {
+        assertEquals(SIFT.DELETERIOUS, SIFTMapper.fromString("deleterious"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> SIFTMapper.fromString("deleterious_low_confidence"));
+        assertTrue(e.getMessage().contains("low confidence"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> SIFTMapper.fromString("Tolerated low confidence"));
+    }
+
+    @Test
+    void acceptsSynonymsAndOptionalPrefix() {
+        assertEquals(ClinSignificance.CLNSIG_BENIGN, ClinSigMapper.fromString("Benign"));
+        assertEquals(ClinSignificance.CONFLICTING_INTERPRETATIONS,
+            ClinSigMapper.fromString("Conflicting classifications of pathogenicity"));
+        assertEquals(Consequence.FIVE_PRIME_UTR_VARIANT, ConsequencesMapper.fromString("5_prime_UTR_variant"));
+        assertEquals(VariantType.SNV, VariantTypeMapper.fromString("snp"));
+        assertEquals(FeatureType.REGULATORYFEATURE, FeatureTypeMapper.fromString("RegulatoryFeature"));
+        assertEquals(AlphaMissense.AM_LIKELY_BENIGN, AlphaMissenseMapper.fromString("likely benign"));
+        assertEquals(AlphaMissense.AM_LIKELY_BENIGN, AlphaMissenseMapper.fromString("am_likely_benign"));
+    }
+}
@@ -0,0 +1,62 @@
+package org.dnaerys.mcp;
+
+import io.quarkiverse.mcp.server.ToolCallException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    @Test
+    void perSessionLimitDoesNotBlockOtherSessions() throws Exception {
+        AdmissionControl.Gate gate = new AdmissionControl.Gate("COUNT", 4, 2, 8, 1, 5_000);
+        gate.acquire("a");
+        gate.acquire("a");
+
+        // third call of session 'a' waits, session 'b' is admitted right away
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            gate.acquire("a");
+            admitted.countDown();
+        });
+        gate.acquire("b");
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, gate.queued());
+
+        // fourth call of session 'a' exceeds its queue quota
+        ToolCallException busy = assertThrows(ToolCallException.class, () -> gate.acquire("a"));
+        assertTrue(busy.getMessage().startsWith("Server is busy"));
+
+        gate.release("a");
+        assertTrue(admitted.await(1, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(3, gate.inFlight());
+        assertEquals(0, gate.queued());
+    }
+
+    @Test
+    void globalQueueIsBounded() {
+        AdmissionControl.Gate gate = new AdmissionControl.Gate("SELECT", 1, 1, 0, 4, 5_000);
+        gate.acquire("a");
+        assertThrows(ToolCallException.class, () -> gate.acquire("b"));
+        gate.release("a");
+        gate.acquire("b");
+        assertEquals(1, gate.inFlight());
+    }
+
+    @Test
+    void waitTimesOut() {
+        AdmissionControl.Gate gate = new AdmissionControl.Gate("HEAVY", 1, 1, 4, 4, 50);
+        gate.acquire("a");
+        long start = System.nanoTime();
+        ToolCallException busy = assertThrows(ToolCallException.class, () -> gate.acquire("b"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertTrue(busy.getMessage().contains("waited 50 ms"));
+        assertEquals(0, gate.queued());
+        gate.release("a");
+        assertEquals(0, gate.inFlight());
+    }
+}
@@ -0,0 +1,32 @@
+package org.dnaerys.mcp;
+
+import io.quarkiverse.mcp.server.ToolCallException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterStatusInterceptorTest {
+
+    @Test
+    void marksListResults() {
+        List<?> marked = (List<?>) ClusterStatusInterceptor.mark(List.of("{\"pos\":1}", "{\"pos\":2}"));
+        assertEquals(3, marked.size());
+        assertTrue(marked.getFirst().toString().contains("\"incomplete_cluster\":true"));
+        assertEquals("{\"pos\":2}", marked.getLast());
+    }
+
+    @Test
+    void marksJsonObjectResults() {
+        String marked = (String) ClusterStatusInterceptor.mark("{\"kinship\":\"UNRELATED\"}");
+        assertTrue(marked.contains("\"kinship\":\"UNRELATED\""));
+        assertTrue(marked.contains("\"affected\":true"));
+    }
+
+    @Test
+    void scalarResultsBecomeErrors() {
+        ToolCallException e = assertThrows(ToolCallException.class, () -> ClusterStatusInterceptor.mark(1234L));
+        assertTrue(e.getMessage().contains("1234"));
+    }
+}
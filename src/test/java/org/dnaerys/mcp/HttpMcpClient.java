@@ -0,0 +1,99 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MCP client over Streamable HTTP: one MCP session per client instance.
+ * Handles both plain JSON and SSE framed responses to POST requests.
+ */
+public class HttpMcpClient implements McpTestClient {
+
+    private final HttpClient http;
+    private final URI endpoint;
+    private final Duration timeout;
+    private final AtomicLong ids = new AtomicLong();
+    private volatile String sessionId;
+
+    public HttpMcpClient(HttpClient http, URI endpoint, long timeoutMs) throws Exception {
+        this.http = http;
+        this.endpoint = endpoint;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        request("initialize", McpTestClient.initializeParams());
+        notify("notifications/initialized");
+    }
+
+    public String sessionId() {
+        return sessionId;
+    }
+
+    @Override
+    public JsonObject callTool(String name, JsonObject arguments) throws Exception {
+        return McpTestClient.result(request("tools/call", McpTestClient.toolCallParams(name, arguments)));
+    }
+
+    private JsonObject request(String method, JsonObject params) throws Exception {
+        long id = ids.incrementAndGet();
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("id", id);
+        message.addProperty("method", method);
+        message.add("params", params);
+        HttpResponse<String> response = http.send(post(message), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " for " + method + ": " + response.body());
+        }
+        response.headers().firstValue("Mcp-Session-Id").ifPresent(s -> sessionId = s);
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        if (contentType.startsWith("text/event-stream")) {
+            // SSE framing: the response is one of 'data:' events, matched by id
+            for (String line : response.body().split("\n")) {
+                if (!line.startsWith("data:")) continue;
+                JsonObject event = JsonParser.parseString(line.substring(5).trim()).getAsJsonObject();
+                if (event.has("id") && event.get("id").getAsLong() == id) return event;
+            }
+            throw new IOException("No response for " + method + " in event stream");
+        }
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    private void notify(String method) throws Exception {
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("method", method);
+        http.send(post(message), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest post(JsonObject message) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json, text/event-stream")
+            .header("MCP-Protocol-Version", PROTOCOL_VERSION)
+            .POST(HttpRequest.BodyPublishers.ofString(message.toString()));
+        if (sessionId != null) {
+            builder.header("Mcp-Session-Id", sessionId);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (sessionId != null) {
+            HttpRequest delete = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Mcp-Session-Id", sessionId)
+                .DELETE()
+                .build();
+            http.send(delete, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+}
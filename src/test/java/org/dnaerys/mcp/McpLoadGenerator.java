@@ -0,0 +1,314 @@
+package org.dnaerys.mcp;
+
+import org.dnaerys.client.FakeDnaerysCluster;
+import org.dnaerys.client.SyntheticDataset;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Load generator for the MCP server.
+ * <p>
+ * Starts a fake Dnaerys cluster on a local TCP port, then either spawns the server over stdio pointed
+ * at the fake cluster, or connects to a Streamable HTTP endpoint, and replays {@link ToolMix}
+ * from a number of concurrent workers, optionally paced to a fixed aggregate rate.
+ * Reports throughput, p50/p99 latency, error rate and rate of "busy" rejections per tool.
+ * <p>
+ * Configured by system properties:
+ * <pre>
+ *   load.transport    stdio | http                        (stdio)
+ *   load.url          endpoint of a running HTTP server   (spawns load.command in http profile)
+ *   load.command      server command line                 (java -jar target/quarkus-app/quarkus-run.jar)
+ *   load.sessions     stdio processes / http sessions     (1)
+ *   load.concurrency  concurrent workers                  (16)
+ *   load.rate         aggregate calls per second, 0 = open (0)
+ *   load.duration     seconds                             (30)
+ *   load.latency      fake cluster latency, ms            (20)
+ *   load.jitter       fake cluster latency jitter, ms     (10)
+ *   load.timeout      per call timeout, ms                (60000)
+ *   load.seed         random seed for the mix             (42)
+ * </pre>
+ */
+public class McpLoadGenerator {
+
+    public record Config(String transport, URI url, List<String> command, int sessions, int concurrency,
+                         int rate, int durationSec, int latencyMs, int jitterMs, long timeoutMs, long seed) {
+
+        public static Config fromSystemProperties() {
+            String command = System.getProperty("load.command");
+            return new Config(
+                System.getProperty("load.transport", "stdio"),
+                System.getProperty("load.url") == null ? null : URI.create(System.getProperty("load.url")),
+                command == null ? defaultCommand() : Arrays.asList(command.trim().split("\\s+")),
+                Integer.getInteger("load.sessions", 1),
+                Integer.getInteger("load.concurrency", 16),
+                Integer.getInteger("load.rate", 0),
+                Integer.getInteger("load.duration", 30),
+                Integer.getInteger("load.latency", 20),
+                Integer.getInteger("load.jitter", 10),
+                Long.getLong("load.timeout", 60_000L),
+                Long.getLong("load.seed", 42L));
+        }
+
+        private static List<String> defaultCommand() {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            Path fastJar = Path.of("target", "quarkus-app", "quarkus-run.jar");
+            Path uberJar = Path.of("target", "onekgpd-mcp-runner.jar");
+            return List.of(java, "-jar", (Files.exists(fastJar) ? fastJar : uberJar).toString());
+        }
+    }
+
+    /** Per tool statistics, latencies in microseconds. */
+    public static class ToolStats {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+        private long rejected;
+
+        void record(long micros, boolean error, boolean busy) {
+            lock.lock();
+            try {
+                if (size == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, size * 2);
+                }
+                latencies[size++] = micros;
+                if (error) errors++;
+                if (busy) rejected++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public long calls() {
+            return size;
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public double errorRate() {
+            return size == 0 ? 0 : (double) errors / size;
+        }
+
+        // calls rejected by server's admission control, not counted as errors
+        public long rejected() {
+            return rejected;
+        }
+
+        public double rejectedRate() {
+            return size == 0 ? 0 : (double) rejected / size;
+        }
+
+        public long percentile(double p) {
+            if (size == 0) return 0;
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, (int) Math.ceil(p * size) - 1)];
+        }
+
+        public long max() {
+            return percentile(1.0);
+        }
+    }
+
+    public record Report(Map<String, ToolStats> tools, long elapsedMs) {
+
+        public long calls() {
+            return tools.values().stream().mapToLong(ToolStats::calls).sum();
+        }
+
+        public long errors() {
+            return tools.values().stream().mapToLong(ToolStats::errors).sum();
+        }
+
+        public double errorRate() {
+            long calls = calls();
+            return calls == 0 ? 0 : (double) errors() / calls;
+        }
+
+        public long rejected() {
+            return tools.values().stream().mapToLong(ToolStats::rejected).sum();
+        }
+
+        public double rejectedRate() {
+            long calls = calls();
+            return calls == 0 ? 0 : (double) rejected() / calls;
+        }
+
+        public double throughput() {
+            return calls() * 1000.0 / Math.max(1, elapsedMs);
+        }
+
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-42s %8s %7s %7s %8s %9s %9s %9s%n",
+                "tool", "calls", "err%", "busy%", "calls/s", "p50 ms", "p99 ms", "max ms"));
+            ToolStats all = new ToolStats();
+            for (Map.Entry<String, ToolStats> e : new TreeMap<>(tools).entrySet()) {
+                ToolStats s = e.getValue();
+                line(sb, e.getKey(), s);
+                for (int i = 0; i < s.size; i++) {
+                    all.record(s.latencies[i], false, false);
+                }
+            }
+            all.errors = errors();
+            all.rejected = rejected();
+            line(sb, "TOTAL", all);
+            return sb.toString();
+        }
+
+        private void line(StringBuilder sb, String name, ToolStats s) {
+            sb.append(String.format("%-42s %8d %7.2f %7.2f %8.1f %9.1f %9.1f %9.1f%n",
+                name, s.calls(), s.errorRate() * 100, s.rejectedRate() * 100, s.calls() * 1000.0 / Math.max(1, elapsedMs),
+                s.percentile(0.50) / 1000.0, s.percentile(0.99) / 1000.0, s.max() / 1000.0));
+        }
+    }
+
+    private final Config config;
+
+    public McpLoadGenerator(Config config) {
+        this.config = config;
+    }
+
+    public Report run() throws Exception {
+        SyntheticDataset dataset = new SyntheticDataset();
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster(dataset).startTcp(0)) {
+            cluster.service().latency(config.latencyMs(), config.jitterMs());
+            List<McpTestClient> clients = new ArrayList<>();
+            Process server = null;
+            try {
+                URI url = config.url();
+                if ("http".equals(config.transport()) && url == null) {
+                    int port = freePort();
+                    server = spawn(cluster.port(), "-Dquarkus.profile=http", "-Dquarkus.http.port=" + port)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                    url = URI.create("http://localhost:" + port + "/mcp");
+                    awaitHttp(url);
+                }
+                for (int i = 0; i < config.sessions(); i++) {
+                    clients.add(connect(cluster.port(), url));
+                }
+                return drive(clients, new ToolMix(dataset));
+            } finally {
+                for (McpTestClient client : clients) {
+                    client.close();
+                }
+                if (server != null) {
+                    server.destroy();
+                    server.waitFor(10, TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
+
+    private McpTestClient connect(int clusterPort, URI url) throws Exception {
+        if ("http".equals(config.transport())) {
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            return new HttpMcpClient(http, url, config.timeoutMs());
+        }
+        return new StdioMcpClient(spawn(clusterPort).command(), config.timeoutMs());
+    }
+
+    // server command pointed to the fake cluster; system properties go right after 'java'
+    private ProcessBuilder spawn(int clusterPort, String... properties) {
+        List<String> command = new ArrayList<>(config.command());
+        List<String> props = new ArrayList<>(List.of("-DdnaerysHost=localhost", "-DdnaerysGRPCPort=" + clusterPort, "-Dssl=false"));
+        props.addAll(List.of(properties));
+        command.addAll(1, props);
+        return new ProcessBuilder(command);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private void awaitHttp(URI url) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (true) {
+            try {
+                new HttpMcpClient(http, url, config.timeoutMs()).close();
+                return;
+            } catch (Exception e) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("MCP server did not start at " + url, e);
+                }
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    private Report drive(List<McpTestClient> clients, ToolMix mix) throws InterruptedException {
+        Map<String, ToolStats> stats = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(config.durationSec());
+        long interval = config.rate() > 0 ? TimeUnit.SECONDS.toNanos(1) / config.rate() : 0;
+        AtomicLong nextSlot = new AtomicLong(start);
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < config.concurrency(); w++) {
+                McpTestClient client = clients.get(w % clients.size());
+                SplittableRandom random = new SplittableRandom(config.seed() * 31 + w);
+                workers.submit(() -> {
+                    while (true) {
+                        if (interval > 0) {
+                            long slot = nextSlot.getAndAdd(interval);
+                            long wait = slot - System.nanoTime();
+                            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        if (System.nanoTime() >= deadline) return null;
+                        ToolMix.Call call = mix.next(random);
+                        long t0 = System.nanoTime();
+                        boolean error = false;
+                        boolean busy = false;
+                        try {
+                            client.callTool(call.tool(), call.arguments());
+                        } catch (McpTestClient.McpError e) {
+                            busy = e.getMessage().contains("Server is busy");
+                            error = !busy;
+                        } catch (Exception e) {
+                            error = true;
+                        }
+                        long micros = (System.nanoTime() - t0) / 1000;
+                        stats.computeIfAbsent(call.tool(), k -> new ToolStats()).record(micros, error, busy);
+                    }
+                });
+            }
+        }
+        return new Report(stats, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties();
+        System.out.printf("transport=%s sessions=%d concurrency=%d rate=%s duration=%ds cluster latency=%d±%dms%n",
+            config.transport(), config.sessions(), config.concurrency(),
+            config.rate() > 0 ? config.rate() + "/s" : "open", config.durationSec(), config.latencyMs(), config.jitterMs());
+        Report report = new McpLoadGenerator(config).run();
+        System.out.print(report.format());
+        System.out.printf("throughput %.1f calls/s, error rate %.2f%%, rejected as busy %.2f%%%n",
+            report.throughput(), report.errorRate() * 100, report.rejectedRate() * 100);
+    }
+}
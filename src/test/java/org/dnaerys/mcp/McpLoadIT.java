@@ -0,0 +1,28 @@
+package org.dnaerys.mcp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link McpLoadGenerator} against the packaged server, see 'load' profile:
+ * <pre>
+ *   ./mvnw verify -Dload -Dit.test=McpLoadIT -Dload.concurrency=32 -Dload.duration=60
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "load", matches = ".*")
+class McpLoadIT {
+
+    @Test
+    void replayToolMix() throws Exception {
+        McpLoadGenerator.Config config = McpLoadGenerator.Config.fromSystemProperties();
+        McpLoadGenerator.Report report = new McpLoadGenerator(config).run();
+        System.out.print(report.format());
+
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.maxErrorRate", "0.01"));
+        assertTrue(report.calls() > 0, "no calls completed");
+        assertTrue(report.errorRate() <= maxErrorRate,
+            "error rate " + report.errorRate() + " exceeds " + maxErrorRate);
+    }
+}
@@ -0,0 +1,54 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Minimal MCP client used by load and startup tests: initialize + tools/call.
+ */
+public interface McpTestClient extends AutoCloseable {
+
+    String PROTOCOL_VERSION = "2025-03-26";
+
+    /**
+     * Calls a tool and returns JSON-RPC 'result' object.
+     *
+     * @throws McpError on JSON-RPC error or tool result with isError = true
+     */
+    JsonObject callTool(String name, JsonObject arguments) throws Exception;
+
+    static JsonObject initializeParams() {
+        JsonObject clientInfo = new JsonObject();
+        clientInfo.addProperty("name", "onekgpd-mcp-load");
+        clientInfo.addProperty("version", "1.0");
+        JsonObject params = new JsonObject();
+        params.addProperty("protocolVersion", PROTOCOL_VERSION);
+        params.add("capabilities", new JsonObject());
+        params.add("clientInfo", clientInfo);
+        return params;
+    }
+
+    static JsonObject toolCallParams(String name, JsonObject arguments) {
+        JsonObject params = new JsonObject();
+        params.addProperty("name", name);
+        params.add("arguments", arguments);
+        return params;
+    }
+
+    // unwraps JSON-RPC response into result, or throws
+    static JsonObject result(JsonObject response) throws McpError {
+        if (response.has("error")) {
+            throw new McpError(response.get("error").toString());
+        }
+        JsonObject result = response.getAsJsonObject("result");
+        if (result != null && result.has("isError") && result.get("isError").getAsBoolean()) {
+            throw new McpError(result.toString());
+        }
+        return result;
+    }
+
+    class McpError extends Exception {
+        public McpError(String message) {
+            super(message);
+        }
+    }
+}
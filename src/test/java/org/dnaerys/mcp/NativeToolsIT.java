@@ -0,0 +1,86 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+import org.dnaerys.client.FakeDnaerysCluster;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls tools of the packaged server over Streamable HTTP against a fake cluster. With 'native' profile
+ * it runs against the native executable, so that missing reflection metadata or a class wrongly initialized
+ * at build time shows up as a failed call:
+ * <pre>
+ *   ./mvnw verify -Dnative -Dit.test=NativeToolsIT
+ * </pre>
+ */
+@QuarkusIntegrationTest
+@WithTestResource(NativeToolsIT.Cluster.class)
+class NativeToolsIT {
+
+    @TestHTTPResource("mcp")
+    URI mcp;
+
+    @Test
+    void toolsAnswer() throws Exception {
+        HttpMcpClient client = new HttpMcpClient(HttpClient.newHttpClient(), mcp, 60_000);
+        try {
+            JsonObject region = new JsonObject();
+            region.addProperty("chromosome", "2");
+            region.addProperty("start", 1_000_000);
+            region.addProperty("end", 1_050_000);
+            String variants = client.callTool("selectVariantsInRegion", region).toString();
+            for (String key : List.of("chr_", "start_", "end_", "ref_", "alt_", "af_", "gnomadAf_")) {
+                assertTrue(variants.contains(key), key + " is missing in " + variants);
+            }
+
+            // filter values go through mappers initialized at build time
+            region.addProperty("impact", "HIGH, moderate");
+            region.addProperty("clinSignificance", "pathogenic");
+            region.addProperty("variantType", "SNV");
+            assertNotNull(client.callTool("selectVariantsInRegion", region));
+
+            JsonObject kinship = new JsonObject();
+            kinship.addProperty("cohort", "GBR");
+            kinship.addProperty("degree", "second degree");
+            assertNotNull(client.callTool("kinshipInCohort", kinship));
+        } finally {
+            client.close();
+        }
+    }
+
+    public static class Cluster implements QuarkusTestResourceLifecycleManager {
+
+        private FakeDnaerysCluster cluster;
+
+        @Override
+        public Map<String, String> start() {
+            try {
+                cluster = new FakeDnaerysCluster().startTcp(0);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return Map.of("dnaerysHost", "localhost", "dnaerysGRPCPort", String.valueOf(cluster.port()), "ssl", "false");
+        }
+
+        @Override
+        public void stop() {
+            try {
+                if (cluster != null) {
+                    cluster.close();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+import org.dnaerys.client.FakeDnaerysCluster;
+import org.dnaerys.client.SyntheticDataset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Startup of the packaged server over stdio, with and without an AppCDS archive, and of native executable.
+ * <p>
+ * Training run spawns the server with -XX:ArchiveClassesAtExit against a fake cluster and replays
+ * {@link ToolMix}, so the archive covers classes loaded while answering (gRPC, Netty, protobuf, Gson),
+ * not only those loaded during boot. Then the server is started a number of times in each mode, and
+ * time until response to 'initialize', time until first tool answer and resident set size after the
+ * answer are reported. Native executable, when built, is measured the same way and compared to the JVM
+ * modes; JVM modes are skipped when the jar is missing (e.g. native profile without a prior jar build).
+ * <p>
+ * Configured by system properties:
+ * <pre>
+ *   bench.runs        starts per mode                 (5)
+ *   bench.training    tool calls in training run      (200)
+ *   bench.archive     AppCDS archive to create        (target/onekgpd-mcp.jsa)
+ *   native.image.path native executable               (set by failsafe, measured when present)
+ *   load.command      server command line             (java -jar target/quarkus-app/quarkus-run.jar)
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    public record Sample(long initMs, long firstAnswerMs, long rssKb) {}
+
+    public record Result(String mode, List<Sample> samples) {
+        long median(ToLongFunction<Sample> metric) {
+            return samples.stream().mapToLong(metric).sorted().skip(samples.size() / 2).findFirst().orElse(-1);
+        }
+
+        public long initMs() {
+            return median(Sample::initMs);
+        }
+
+        public long firstAnswerMs() {
+            return median(Sample::firstAnswerMs);
+        }
+
+        public long rssKb() {
+            return median(Sample::rssKb);
+        }
+    }
+
+    private final List<String> command = McpLoadGenerator.Config.fromSystemProperties().command();
+    private final int runs = Integer.getInteger("bench.runs", 5);
+    private final int training = Integer.getInteger("bench.training", 200);
+    private final Path archive = Path.of(System.getProperty("bench.archive", "target/onekgpd-mcp.jsa"));
+
+    private final Path nativeImage = System.getProperty("native.image.path") == null
+        ? null : Path.of(System.getProperty("native.image.path"));
+
+    public Path archive() {
+        return archive;
+    }
+
+    public boolean hasJar() {
+        return command.stream().filter(a -> a.endsWith(".jar")).allMatch(a -> Files.exists(Path.of(a)));
+    }
+
+    public boolean hasNativeImage() {
+        return nativeImage != null && Files.isExecutable(nativeImage);
+    }
+
+    /** JVM modes with and without AppCDS archive. */
+    public List<Result> run() throws Exception {
+        SyntheticDataset dataset = new SyntheticDataset();
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster(dataset).startTcp(0)) {
+            train(cluster.port(), new ToolMix(dataset));
+            return List.of(
+                measure("default CDS", command, cluster.port()),
+                measure("AppCDS", command, cluster.port(), "-XX:SharedArchiveFile=" + archive, "-Xshare:auto"));
+        }
+    }
+
+    /** Native executable, and JVM with default CDS for comparison when the jar is present. */
+    public List<Result> runNative() throws Exception {
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster().startTcp(0)) {
+            List<Result> results = new ArrayList<>();
+            if (hasJar()) {
+                results.add(measure("JVM", command, cluster.port()));
+            }
+            results.add(measure("native", List.of(nativeImage.toString()), cluster.port()));
+            return results;
+        }
+    }
+
+    private void train(int clusterPort, ToolMix mix) throws Exception {
+        Files.deleteIfExists(archive);
+        StdioMcpClient client = new StdioMcpClient(command(command, clusterPort, "-XX:ArchiveClassesAtExit=" + archive), 60_000);
+        try {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < training; i++) {
+                ToolMix.Call call = mix.next(random);
+                try {
+                    client.callTool(call.tool(), call.arguments());
+                } catch (McpTestClient.McpError e) {
+                    // tool errors load the same classes
+                }
+            }
+        } finally {
+            // archive is written at exit, give it time before the client kills the process
+            client.process().destroy();
+            client.process().waitFor(2, TimeUnit.MINUTES);
+            client.close();
+        }
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("AppCDS archive was not created: " + archive);
+        }
+    }
+
+    private Result measure(String mode, List<String> server, int clusterPort, String... options) throws Exception {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            long t0 = System.nanoTime();
+            try (StdioMcpClient client = new StdioMcpClient(command(server, clusterPort, options), 60_000)) {
+                long initialized = System.nanoTime();
+                client.callTool("variantsTotal", new JsonObject());
+                long answered = System.nanoTime();
+                samples.add(new Sample(TimeUnit.NANOSECONDS.toMillis(initialized - t0),
+                    TimeUnit.NANOSECONDS.toMillis(answered - t0), rssKb(client.process())));
+            }
+        }
+        return new Result(mode, samples);
+    }
+
+    // VmRSS from procfs, -1 where not available
+    static long rssKb(Process process) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(process.pid()), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not Linux, or process is gone
+        }
+        return -1;
+    }
+
+    // JVM options and system properties go right after 'java', or after native executable
+    private static List<String> command(List<String> server, int clusterPort, String... options) {
+        List<String> c = new ArrayList<>(server);
+        List<String> props = new ArrayList<>(List.of(options));
+        props.addAll(List.of("-DdnaerysHost=localhost", "-DdnaerysGRPCPort=" + clusterPort, "-Dssl=false"));
+        c.addAll(1, props);
+        return c;
+    }
+
+    public static String format(List<Result> results) {
+        StringBuilder sb = new StringBuilder(String.format("%-14s %16s %20s %12s%n",
+            "mode", "initialize ms", "first answer ms", "RSS MB"));
+        for (Result r : results) {
+            sb.append(String.format("%-14s %16d %20d %12s%n", r.mode(), r.initMs(), r.firstAnswerMs(),
+                r.rssKb() < 0 ? "n/a" : Long.toString(r.rssKb() / 1024)));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        if (benchmark.hasNativeImage()) {
+            System.out.print(format(benchmark.runNative()));
+        } else {
+            System.out.print(format(benchmark.run()));
+            System.out.println("archive: " + benchmark.archive().toAbsolutePath());
+        }
+    }
+}
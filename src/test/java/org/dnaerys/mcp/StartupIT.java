@@ -0,0 +1,72 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+import org.dnaerys.client.FakeDnaerysCluster;
+import org.dnaerys.client.SyntheticDataset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Creates AppCDS archive of the packaged server and compares startup with and without it,
+ * see 'appcds' profile:
+ * <pre>
+ *   ./mvnw verify -Dappcds -Dit.test=StartupIT -Dbench.runs=10
+ * </pre>
+ * With 'native' profile, replays tool calls against native executable and compares its startup and
+ * RSS to the JVM (when the jar was built before):
+ * <pre>
+ *   ./mvnw package -DskipTests
+ *   ./mvnw verify -Dnative -Dit.test=StartupIT
+ * </pre>
+ */
+class StartupIT {
+
+    @Test
+    @EnabledIfSystemProperty(named = "appcds", matches = ".*")
+    void appCdsArchive() throws Exception {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        List<StartupBenchmark.Result> results = benchmark.run();
+        System.out.print(StartupBenchmark.format(results));
+        assertTrue(Files.size(benchmark.archive()) > 0);
+        assertTrue(results.stream().allMatch(r -> r.firstAnswerMs() > 0), "server did not answer");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "native", matches = ".*")
+    void nativeImage() throws Exception {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        assertTrue(benchmark.hasNativeImage(), "native executable not found: " + System.getProperty("native.image.path"));
+
+        // tool results must be the same as on JVM, i.e. nothing silently missing for lack of reflection metadata
+        SyntheticDataset dataset = new SyntheticDataset();
+        ToolMix mix = new ToolMix(dataset);
+        try (FakeDnaerysCluster cluster = new FakeDnaerysCluster(dataset).startTcp(0);
+             StdioMcpClient client = new StdioMcpClient(List.of(System.getProperty("native.image.path"),
+                 "-DdnaerysHost=localhost", "-DdnaerysGRPCPort=" + cluster.port(), "-Dssl=false"), 60_000)) {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < 200; i++) {
+                ToolMix.Call call = mix.next(random);
+                client.callTool(call.tool(), call.arguments());
+            }
+            JsonObject region = new JsonObject();
+            region.addProperty("chromosome", "2");
+            region.addProperty("start", 1_000_000);
+            region.addProperty("end", 1_050_000);
+            String variants = client.callTool("selectVariantsInRegion", region).toString();
+            for (String key : List.of("chr_", "start_", "end_", "ref_", "alt_", "af_", "gnomadAf_")) {
+                assertTrue(variants.contains(key), key + " is missing in " + variants);
+            }
+            assertFalse(variants.contains("memoized"));
+        }
+
+        List<StartupBenchmark.Result> results = benchmark.runNative();
+        System.out.print(StartupBenchmark.format(results));
+        assertTrue(results.stream().allMatch(r -> r.firstAnswerMs() > 0), "server did not answer");
+    }
+}
@@ -0,0 +1,115 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MCP client over stdio: spawns the server as a subprocess and speaks newline delimited JSON-RPC.
+ * Requests are pipelined, responses are matched by id, so a single process serves concurrent callers.
+ */
+public class StdioMcpClient implements McpTestClient {
+
+    private final Process process;
+    private final Writer out;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<Long, CompletableFuture<JsonObject>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final long timeoutMs;
+
+    public StdioMcpClient(List<String> command, long timeoutMs) throws Exception {
+        this.timeoutMs = timeoutMs;
+        this.process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        this.out = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        Thread.ofPlatform().daemon().name("mcp-stdio-reader").start(this::readLoop);
+        request("initialize", McpTestClient.initializeParams());
+        notify("notifications/initialized");
+    }
+
+    public Process process() {
+        return process;
+    }
+
+    @Override
+    public JsonObject callTool(String name, JsonObject arguments) throws Exception {
+        return McpTestClient.result(request("tools/call", McpTestClient.toolCallParams(name, arguments)));
+    }
+
+    private JsonObject request(String method, JsonObject params) throws Exception {
+        long id = ids.incrementAndGet();
+        CompletableFuture<JsonObject> response = new CompletableFuture<>();
+        pending.put(id, response);
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("id", id);
+        message.addProperty("method", method);
+        message.add("params", params);
+        try {
+            write(message);
+            return response.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    private void notify(String method) throws IOException {
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("method", method);
+        write(message);
+    }
+
+    private void write(JsonObject message) throws IOException {
+        writeLock.lock();
+        try {
+            out.write(message.toString());
+            out.write('\n');
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void readLoop() {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank() || line.charAt(0) != '{') continue; // not a protocol message
+                JsonObject message = JsonParser.parseString(line).getAsJsonObject();
+                if (message.has("id") && (message.has("result") || message.has("error"))) {
+                    CompletableFuture<JsonObject> response = pending.get(message.get("id").getAsLong());
+                    if (response != null) response.complete(message);
+                }
+            }
+        } catch (Exception e) {
+            pending.values().forEach(f -> f.completeExceptionally(e));
+        }
+        pending.values().forEach(f -> f.completeExceptionally(new IOException("MCP server process terminated")));
+    }
+
+    @Override
+    public void close() throws Exception {
+        out.close();
+        if (!process.waitFor(5, TimeUnit.SECONDS)) {
+            process.destroy();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.dnaerys.mcp;
+
+import com.google.gson.JsonObject;
+import org.dnaerys.client.SyntheticDataset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Weighted mix of tool calls resembling an agent session: a few dataset info questions,
+ * mostly counts and paginated selects over gene sized regions, some trio analyses and kinship checks.
+ */
+public class ToolMix {
+
+    public record Call(String tool, JsonObject arguments) {}
+
+    private record Entry(int weight, Function<SplittableRandom, Call> factory) {}
+
+    private final SyntheticDataset dataset;
+    private final List<Entry> entries = new ArrayList<>();
+    private int totalWeight;
+
+    public ToolMix(SyntheticDataset dataset) {
+        this.dataset = dataset;
+        // dataset info
+        add(5, r -> call("countSamplesTotal"));
+        add(5, r -> call("variantsTotal"));
+        add(3, r -> call("femaleSamplesIds"));
+        add(2, r -> call("nodesTotal"));
+        // counts
+        add(20, r -> region(r, "countVariantsInRegion"));
+        add(15, r -> withSample(r, region(r, "countVariantsInRegionInSample"), "sampleId"));
+        add(5, r -> region(r, "countSamplesWithVariants"));
+        // selects
+        add(15, r -> paged(r, region(r, "selectVariantsInRegion")));
+        add(10, r -> paged(r, withSample(r, region(r, "selectVariantsInRegionInSample"), "sampleId")));
+        add(5, r -> region(r, "selectSamplesWithVariants"));
+        // bracket queries for SV breakpoints
+        add(3, r -> bracket(r, "countVariantsInBracket"));
+        add(3, r -> paged(r, bracket(r, "selectVariantsInBracket")));
+        // case/control association, cohort of 50 samples
+        add(2, r -> {
+            Call c = region(r, "associationInRegion");
+            int first = r.nextInt(SyntheticDataset.SAMPLES_TOTAL - 50);
+            c.arguments().addProperty("caseSamples", String.join(",",
+                IntStream.range(first, first + 50).mapToObj(dataset::sample).toList()));
+            c.arguments().addProperty("topK", 20);
+            return c;
+        });
+        add(1, r -> {
+            Call c = call("topAssociatedVariants");
+            int first = r.nextInt(SyntheticDataset.SAMPLES_TOTAL - 50);
+            c.arguments().addProperty("caseSamples", String.join(",",
+                IntStream.range(first, first + 50).mapToObj(dataset::sample).toList()));
+            c.arguments().addProperty("n", 20);
+            c.arguments().addProperty("sequential", r.nextBoolean());
+            return c;
+        });
+        // trio analyses
+        add(4, r -> trio(r, region(r, "deNovoInTrio"), "parent1", "parent2"));
+        add(3, r -> trio(r, region(r, "hetDominantInTrio"), "affectedParent", "unaffectedParent"));
+        add(3, r -> trio(r, region(r, "homRecessiveInTrio"), "unaffectedParent1", "unaffectedParent2"));
+        // kinship
+        add(5, r -> {
+            Call c = call("kinship");
+            int s = r.nextInt(SyntheticDataset.SAMPLES_TOTAL - 1);
+            c.arguments().addProperty("sample1", dataset.sample(s));
+            c.arguments().addProperty("sample2", dataset.sample(s + 1));
+            return c;
+        });
+    }
+
+    private void add(int weight, Function<SplittableRandom, Call> factory) {
+        entries.add(new Entry(weight, factory));
+        totalWeight += weight;
+    }
+
+    public Call next(SplittableRandom random) {
+        int w = random.nextInt(totalWeight);
+        for (Entry e : entries) {
+            w -= e.weight();
+            if (w < 0) return e.factory().apply(random);
+        }
+        throw new IllegalStateException();
+    }
+
+    private static Call call(String tool) {
+        return new Call(tool, new JsonObject());
+    }
+
+    // gene sized regions on autosomes, log-uniform 1kb - 200kb
+    private static Call region(SplittableRandom r, String tool) {
+        Call c = call(tool);
+        int span = (int) (1_000 * Math.pow(200, r.nextDouble()));
+        int start = 1 + r.nextInt(40_000_000);
+        c.arguments().addProperty("chromosome", String.valueOf(1 + r.nextInt(22)));
+        c.arguments().addProperty("start", start);
+        c.arguments().addProperty("end", start + span);
+        return c;
+    }
+
+    // imprecise breakpoints: start and end each known within a few kb
+    private static Call bracket(SplittableRandom r, String tool) {
+        Call c = call(tool);
+        int start = 1 + r.nextInt(40_000_000);
+        int end = start + r.nextInt(50_000);
+        int slack = 1_000 + r.nextInt(5_000);
+        c.arguments().addProperty("chromosome", String.valueOf(1 + r.nextInt(22)));
+        c.arguments().addProperty("startMin", Math.max(1, start - slack));
+        c.arguments().addProperty("startMax", start + slack);
+        c.arguments().addProperty("endMin", Math.max(1, end - slack));
+        c.arguments().addProperty("endMax", end + slack);
+        return c;
+    }
+
+    private Call withSample(SplittableRandom r, Call c, String arg) {
+        c.arguments().addProperty(arg, dataset.sample(r.nextInt(SyntheticDataset.SAMPLES_TOTAL)));
+        return c;
+    }
+
+    private static Call paged(SplittableRandom r, Call c) {
+        c.arguments().addProperty("skip", r.nextInt(3) * 100);
+        c.arguments().addProperty("limit", 100);
+        return c;
+    }
+
+    // related pairs in synthetic dataset start from sample 2504
+    private Call trio(SplittableRandom r, Call c, String parent1, String parent2) {
+        int p = 2504 + 2 * r.nextInt(340);
+        c.arguments().addProperty(parent1, dataset.sample(p));
+        c.arguments().addProperty(parent2, dataset.sample(p + 1));
+        c.arguments().addProperty("proband", dataset.sample(p + 2));
+        c.arguments().addProperty("limit", 100);
+        return c;
+    }
+}